@@ -16,6 +16,10 @@
 
 package org.springframework.cloud.sleuth.benchmarks.app.mvc;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
@@ -25,9 +29,11 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
 import org.springframework.boot.web.servlet.context.ServletWebServerInitializedEvent;
 import org.springframework.boot.web.servlet.server.ServletWebServerFactory;
@@ -67,6 +73,10 @@ public class SleuthBenchmarkingSpringApp implements ApplicationListener<ServletW
 	@Autowired
 	AsyncSimulationController controller;
 
+	@Autowired(required = false)
+	@Qualifier("benchmarkExecutor")
+	ExecutorService benchmarkExecutor;
+
 	public static void main(String... args) {
 		SpringApplication.run(SleuthBenchmarkingSpringApp.class, args);
 	}
@@ -93,6 +103,30 @@ public class SleuthBenchmarkingSpringApp implements ApplicationListener<ServletW
 		return this.controller.async();
 	}
 
+	/**
+	 * Submits the given number of blocking tasks to the {@code benchmarkExecutor} and
+	 * waits for all of them to complete. Requires the {@code benchmark.threads} property
+	 * to be set.
+	 * @param tasks number of tasks to submit
+	 * @return number of completed tasks
+	 * @throws Exception when any of the tasks fails
+	 */
+	public int blockingTasks(int tasks) throws Exception {
+		List<Future<String>> futures = new ArrayList<>(tasks);
+		for (int i = 0; i < tasks; i++) {
+			futures.add(this.benchmarkExecutor.submit(() -> {
+				Thread.sleep(1);
+				return "blocking";
+			}));
+		}
+		int completed = 0;
+		for (Future<String> future : futures) {
+			future.get();
+			completed++;
+		}
+		return completed;
+	}
+
 	@Configuration
 	static class Config {
 		@Autowired(required = false)
@@ -119,6 +153,27 @@ public class SleuthBenchmarkingSpringApp implements ApplicationListener<ServletW
 		}
 
 
+		/**
+		 * Executor for comparing platform ({@code benchmark.threads=platform}) and
+		 * virtual ({@code benchmark.threads=virtual}) threads. Not registered by default,
+		 * since any {@link java.util.concurrent.Executor} bean replaces the default
+		 * {@code @Async} executor.
+		 */
+		@Bean(destroyMethod = "shutdownNow")
+		@ConditionalOnProperty("benchmark.threads")
+		ExecutorService benchmarkExecutor(@Value("${benchmark.threads}") String threads) {
+			if ("virtual".equals(threads)) {
+				try {
+					// reflection, since the benchmarks are compiled against JDK 8
+					return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+				}
+				catch (ReflectiveOperationException ex) {
+					throw new IllegalStateException("Virtual threads require JDK 21 or newer", ex);
+				}
+			}
+			return Executors.newCachedThreadPool();
+		}
+
 		@Bean
 		public ServletWebServerFactory servletContainer(@Value("${server.port:0}") int serverPort) {
 			log.info("Starting container at port [" + serverPort + "]");
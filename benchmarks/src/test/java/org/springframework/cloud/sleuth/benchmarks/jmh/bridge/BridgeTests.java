@@ -31,10 +31,12 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.cloud.sleuth.CurrentTraceContext;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.cloud.sleuth.autoconfig.brave.BraveAutoConfiguration;
@@ -42,8 +44,6 @@ import org.springframework.cloud.sleuth.benchmarks.jmh.TracerImplementation;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Configuration;
 
-import static org.assertj.core.api.BDDAssertions.then;
-
 @Measurement(iterations = 5, time = 1)
 @Warmup(iterations = 5, time = 1)
 @Fork(2)
@@ -53,11 +53,11 @@ import static org.assertj.core.api.BDDAssertions.then;
 public class BridgeTests {
 
 	@Benchmark
-	public void should_create_next_span(BenchmarkContext context) throws Exception {
+	public void should_create_next_span(BenchmarkContext context, Blackhole blackhole) throws Exception {
 		Tracer tracer = context.tracer;
 		Span span = tracer.nextSpan().start();
 		try {
-			then(span).isNotNull();
+			blackhole.consume(span);
 		}
 		finally {
 			if (span != null) {
@@ -67,11 +67,11 @@ public class BridgeTests {
 	}
 
 	@Benchmark
-	public void should_create_next_span_with_parent(BenchmarkContext context) throws Exception {
+	public void should_create_next_span_with_parent(BenchmarkContext context, Blackhole blackhole) throws Exception {
 		Tracer tracer = context.tracer;
 		Span span = tracer.nextSpan(context.parent).start();
 		try {
-			then(span).isNotNull();
+			blackhole.consume(span);
 		}
 		finally {
 			if (span != null) {
@@ -81,11 +81,25 @@ public class BridgeTests {
 	}
 
 	@Benchmark
-	public void should_retrieve_current_span_from_scope(BenchmarkContext context) throws Exception {
+	public void should_retrieve_current_span_from_scope(BenchmarkContext context, Blackhole blackhole)
+			throws Exception {
 		Tracer tracer = context.tracer;
 		Span span = context.parent;
 		try (Tracer.SpanInScope ws = tracer.withSpan(span)) {
-			then(tracer.currentSpan().context().spanId()).isEqualTo(span.context().spanId());
+			blackhole.consume(tracer.currentSpan().context().spanId());
+		}
+	}
+
+	@Benchmark
+	public void should_retrieve_current_context_from_scope(BenchmarkContext context, Blackhole blackhole)
+			throws Exception {
+		CurrentTraceContext currentTraceContext = context.currentTraceContext;
+		Span span = context.parent;
+		try (CurrentTraceContext.Scope scope = currentTraceContext.maybeScope(span.context())) {
+			// already in scope - no new scope should be created
+			try (CurrentTraceContext.Scope noopScope = currentTraceContext.maybeScope(span.context())) {
+				blackhole.consume(currentTraceContext.context().spanId());
+			}
 		}
 	}
 
@@ -96,6 +110,8 @@ public class BridgeTests {
 
 		volatile Tracer tracer;
 
+		volatile CurrentTraceContext currentTraceContext;
+
 		volatile Span parent;
 
 		@Param
@@ -108,6 +124,7 @@ public class BridgeTests {
 			this.withSleuth = application.run("--spring.jmx.enabled=false",
 					"--spring.application.name=withSleuth_" + this.tracerImplementation.name());
 			this.tracer = this.withSleuth.getBean(Tracer.class);
+			this.currentTraceContext = this.withSleuth.getBean(CurrentTraceContext.class);
 			this.parent = this.tracer.nextSpan().name("name").start();
 		}
 
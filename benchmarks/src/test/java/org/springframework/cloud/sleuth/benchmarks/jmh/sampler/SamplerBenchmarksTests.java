@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.benchmarks.jmh.sampler;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import brave.sampler.Sampler;
+import jmh.mbr.junit5.Microbenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.cloud.sleuth.brave.sampler.ProbabilityBasedSampler;
+import org.springframework.cloud.sleuth.brave.sampler.TraceIdProbabilityBasedSampler;
+
+/**
+ * Measures the sampling decision throughput when all available threads sample new
+ * traces at the same time.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(2)
+@Threads(Threads.MAX)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Microbenchmark
+public class SamplerBenchmarksTests {
+
+	@Benchmark
+	public boolean should_make_sampling_decision(BenchmarkContext context) {
+		return context.sampler.isSampled(ThreadLocalRandom.current().nextLong());
+	}
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkContext {
+
+		volatile Sampler sampler;
+
+		@Param
+		private SamplerType samplerType;
+
+		@Param({ "0.1" })
+		private float probability;
+
+		@Setup
+		public void setup() {
+			this.sampler = this.samplerType.sampler(() -> this.probability);
+		}
+
+	}
+
+	public enum SamplerType {
+
+		/**
+		 * Sampler counting the decisions out of 100.
+		 */
+		PROBABILITY_BASED {
+			@Override
+			@SuppressWarnings("deprecation")
+			Sampler sampler(Supplier<Float> probability) {
+				return new ProbabilityBasedSampler(probability);
+			}
+		},
+
+		/**
+		 * Sampler deciding out of the trace id.
+		 */
+		TRACE_ID_PROBABILITY_BASED {
+			@Override
+			Sampler sampler(Supplier<Float> probability) {
+				return new TraceIdProbabilityBasedSampler(probability);
+			}
+		};
+
+		abstract Sampler sampler(Supplier<Float> probability);
+
+	}
+
+}
@@ -18,6 +18,7 @@ package org.springframework.cloud.sleuth.exporter;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.lang.Nullable;
@@ -26,7 +27,8 @@ import org.springframework.lang.Nullable;
  * This API is inspired by OpenZipkin Brave (from {code MutableSpan}).
  *
  * Represents a span that has been finished and is ready to be sent to an external
- * location (e.g. Zipkin).
+ * location (e.g. Zipkin). Can be modified in place (e.g. by a {@link SpanProcessor})
+ * before it gets exported.
  *
  * @author OpenZipkin Brave Authors
  * @author Marcin Grzejszczak
@@ -111,4 +113,56 @@ public interface FinishedSpan {
 	@Nullable
 	String getRemoteServiceName();
 
+	/**
+	 * Sets the name.
+	 * @param name span's name
+	 * @return this
+	 */
+	FinishedSpan setName(String name);
+
+	/**
+	 * Adds or replaces a tag.
+	 * @param key tag key
+	 * @param value tag value
+	 * @return this
+	 */
+	FinishedSpan setTag(String key, String value);
+
+	/**
+	 * Removes a tag.
+	 * @param key tag key
+	 * @return this
+	 */
+	FinishedSpan removeTag(String key);
+
+	/**
+	 * Updates all tags in place, without copying them.
+	 * @param updater receives tag key and value, returns the new value or {@code null}
+	 * to remove the tag
+	 * @return this
+	 */
+	FinishedSpan updateTags(BiFunction<String, String, String> updater);
+
+	/**
+	 * Updates all events in place, without copying them.
+	 * @param updater receives event timestamp and value, returns the new value or
+	 * {@code null} to remove the event
+	 * @return this
+	 */
+	FinishedSpan updateEvents(BiFunction<Long, String, String> updater);
+
+	/**
+	 * Sets the remote service name.
+	 * @param remoteServiceName remote service name or {@code null} to clear it
+	 * @return this
+	 */
+	FinishedSpan setRemoteServiceName(@Nullable String remoteServiceName);
+
+	/**
+	 * Sets the error.
+	 * @param error error or {@code null} to clear it
+	 * @return this
+	 */
+	FinishedSpan setError(@Nullable Throwable error);
+
 }
@@ -17,11 +17,14 @@
 package org.springframework.cloud.sleuth.exporter;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -29,7 +32,9 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.util.StringUtils;
 
 /**
- * {@link SpanFilter} that ignores spans via names.
+ * {@link SpanFilter} that ignores spans via names. The patterns are compiled once -
+ * literal names are looked up in a set, the remaining ones are combined into a single
+ * alternation. Verdicts are cached per span name.
  *
  * @author Marcin Grzejszczak
  * @since 3.0.0
@@ -38,34 +43,58 @@ public class SpanIgnoringSpanFilter implements SpanFilter {
 
 	private static final Log log = LogFactory.getLog(SpanIgnoringSpanFilter.class);
 
-	private final List<String> spanNamePatternsToSkip;
+	/**
+	 * Upper bound of span names with a cached verdict. Span names are meant to be low
+	 * cardinality, but names built from e.g. request paths aren't. The cache is cleared
+	 * once the bound is reached instead of evicting single entries: a miss only costs the
+	 * pattern match that every span needed without the cache, and the lookup stays a
+	 * plain map read.
+	 */
+	static final int MAX_CACHED_VERDICTS = 1024;
 
-	private final List<String> additionalSpanNamePatternsToIgnore;
+	private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\([1-9]|k<)");
 
-	static final Map<String, Pattern> cache = new ConcurrentHashMap<>();
+	private final Set<String> literalsToIgnore = new HashSet<>();
+
+	private final List<Pattern> standalonePatternsToIgnore = new ArrayList<>();
+
+	private final Pattern combinedPatternToIgnore;
+
+	final Map<String, Boolean> verdicts = new ConcurrentHashMap<>();
 
 	public SpanIgnoringSpanFilter(List<String> spanNamePatternsToSkip,
 			List<String> additionalSpanNamePatternsToIgnore) {
-		this.spanNamePatternsToSkip = spanNamePatternsToSkip;
-		this.additionalSpanNamePatternsToIgnore = additionalSpanNamePatternsToIgnore;
-	}
-
-	private List<Pattern> spanNamesToIgnore() {
-		return spanNames().stream().map(regex -> cache.computeIfAbsent(regex, Pattern::compile))
-				.collect(Collectors.toList());
+		StringJoiner alternation = new StringJoiner("|");
+		for (List<String> patterns : Arrays.asList(spanNamePatternsToSkip, additionalSpanNamePatternsToIgnore)) {
+			for (String regex : patterns) {
+				if (isLiteral(regex)) {
+					this.literalsToIgnore.add(regex);
+				}
+				else if (BACK_REFERENCE.matcher(regex).find()) {
+					// group numbers would shift in the alternation
+					this.standalonePatternsToIgnore.add(Pattern.compile(regex));
+				}
+				else {
+					alternation.add("(?:" + regex + ")");
+				}
+			}
+		}
+		this.combinedPatternToIgnore = alternation.length() > 0 ? Pattern.compile(alternation.toString()) : null;
 	}
 
-	private List<String> spanNames() {
-		List<String> spanNamesToIgnore = new ArrayList<>(this.spanNamePatternsToSkip);
-		spanNamesToIgnore.addAll(this.additionalSpanNamePatternsToIgnore);
-		return spanNamesToIgnore;
+	private static boolean isLiteral(String regex) {
+		for (int i = 0; i < regex.length(); i++) {
+			if ("\\[](){}.*+?^$|".indexOf(regex.charAt(i)) >= 0) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	@Override
 	public boolean isExportable(FinishedSpan span) {
-		List<Pattern> spanNamesToIgnore = spanNamesToIgnore();
 		String name = span.getName();
-		if (StringUtils.hasText(name) && spanNamesToIgnore.stream().anyMatch(p -> p.matcher(name).matches())) {
+		if (StringUtils.hasText(name) && shouldIgnore(name)) {
 			if (log.isDebugEnabled()) {
 				log.debug("Will ignore a span with name [" + name + "]");
 			}
@@ -74,4 +103,31 @@ public class SpanIgnoringSpanFilter implements SpanFilter {
 		return true;
 	}
 
+	private boolean shouldIgnore(String name) {
+		Boolean verdict = this.verdicts.get(name);
+		if (verdict == null) {
+			verdict = matches(name);
+			if (this.verdicts.size() >= MAX_CACHED_VERDICTS) {
+				this.verdicts.clear();
+			}
+			this.verdicts.put(name, verdict);
+		}
+		return verdict;
+	}
+
+	private boolean matches(String name) {
+		if (this.literalsToIgnore.contains(name)) {
+			return true;
+		}
+		if (this.combinedPatternToIgnore != null && this.combinedPatternToIgnore.matcher(name).matches()) {
+			return true;
+		}
+		for (Pattern pattern : this.standalonePatternsToIgnore) {
+			if (pattern.matcher(name).matches()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.exporter;
+
+/**
+ * An interface that allows to modify a finished span in place (e.g. redact or enrich
+ * it) before it gets exported. Called only for spans accepted by all
+ * {@link SpanFilter}s.
+ *
+ * @author Marcin Grzejszczak
+ * @since 3.0.4
+ */
+public interface SpanProcessor {
+
+	/**
+	 * Called before the span gets exported.
+	 * @param span finished span to modify in place
+	 */
+	void process(FinishedSpan span);
+
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.cloud.sleuth.exporter;
 
+import java.util.Arrays;
 import java.util.Collections;
 
 import org.junit.jupiter.api.Test;
@@ -48,19 +49,50 @@ class SpanIgnoringSpanFilterTests {
 	}
 
 	@Test
-	void should_use_cached_entry_for_same_patterns() {
-		export(handler("someOtherName"));
-		export(handler("someOtherName"));
-		export(handler("someOtherName"));
+	void should_not_handle_span_when_matching_any_of_regex_patterns() {
+		SpanIgnoringSpanFilter handler = new SpanIgnoringSpanFilter(Arrays.asList("foo.*", "other"),
+				Arrays.asList("bar", "some[A-Z]ame"));
 
-		then(SpanIgnoringSpanFilter.cache).containsKey("someOtherName");
+		then(handler.isExportable(namedSpan())).isFalse();
+	}
+
+	@Test
+	void should_handle_span_when_no_pattern_matches_whole_name() {
+		SpanIgnoringSpanFilter handler = new SpanIgnoringSpanFilter(Arrays.asList("some", "Name"),
+				Collections.singletonList("some.a"));
+
+		then(handler.isExportable(namedSpan())).isTrue();
+	}
+
+	@Test
+	void should_support_back_references() {
+		SpanIgnoringSpanFilter handler = new SpanIgnoringSpanFilter(Collections.singletonList("(x)\\1"),
+				Collections.singletonList("(some)Name"));
+
+		then(handler.isExportable(namedSpan())).isFalse();
+	}
+
+	@Test
+	void should_cache_verdicts_per_span_name() {
+		SpanIgnoringSpanFilter handler = handler("someOther.*");
+
+		export(handler);
+		export(handler);
+
+		then(handler.verdicts).containsEntry("someName", false).hasSize(1);
+	}
+
+	@Test
+	void should_bound_verdicts_cache() {
+		SpanIgnoringSpanFilter handler = handler("someOther.*");
 
-		export(handler("a"));
-		export(handler("b"));
-		export(handler("c"));
+		for (int i = 0; i <= SpanIgnoringSpanFilter.MAX_CACHED_VERDICTS; i++) {
+			FinishedSpan span = BDDMockito.mock(FinishedSpan.class);
+			BDDMockito.given(span.getName()).willReturn("name" + i);
+			handler.isExportable(span);
+		}
 
-		then(SpanIgnoringSpanFilter.cache).containsKey("someOtherName").containsKey("a").containsKey("b")
-				.containsKey("c");
+		then(handler.verdicts).hasSizeLessThanOrEqualTo(SpanIgnoringSpanFilter.MAX_CACHED_VERDICTS);
 	}
 
 	private void export(SpanIgnoringSpanFilter handler) {
@@ -35,6 +35,7 @@ import org.springframework.cloud.sleuth.brave.bridge.CompositePropagationFactory
 import org.springframework.cloud.sleuth.brave.bridge.CompositeSpanHandler;
 import org.springframework.cloud.sleuth.brave.propagation.PropagationFactorySupplier;
 import org.springframework.cloud.sleuth.exporter.SpanFilter;
+import org.springframework.cloud.sleuth.exporter.SpanProcessor;
 import org.springframework.cloud.sleuth.propagation.Propagator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -45,8 +46,8 @@ import org.springframework.lang.Nullable;
 class BraveBridgeConfiguration {
 
 	@Bean
-	org.springframework.cloud.sleuth.Tracer braveTracer(brave.Tracer tracer) {
-		return new BraveTracer(tracer, new BraveBaggageManager());
+	org.springframework.cloud.sleuth.Tracer braveTracer(brave.Tracer tracer, Tracing tracing) {
+		return new BraveTracer(tracer, tracing.currentTraceContext(), new BraveBaggageManager());
 	}
 
 	@Bean
@@ -75,8 +76,9 @@ class BraveBridgeConfiguration {
 
 	// Name is important for sampling conditions
 	@Bean(name = "traceCompositeSpanHandler")
-	SpanHandler compositeSpanHandler(@Nullable List<SpanFilter> exporters) {
-		return new CompositeSpanHandler(exporters);
+	SpanHandler compositeSpanHandler(@Nullable List<SpanFilter> exporters,
+			@Nullable List<SpanProcessor> processors) {
+		return new CompositeSpanHandler(exporters, processors);
 	}
 
 }
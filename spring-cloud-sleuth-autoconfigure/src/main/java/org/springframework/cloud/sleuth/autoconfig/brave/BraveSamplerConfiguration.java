@@ -16,19 +16,18 @@
 
 package org.springframework.cloud.sleuth.autoconfig.brave;
 
-import brave.sampler.CountingSampler;
 import brave.sampler.Sampler;
 
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.cloud.context.config.annotation.RefreshScope;
-import org.springframework.cloud.sleuth.brave.sampler.ProbabilityBasedSampler;
 import org.springframework.cloud.sleuth.brave.sampler.RateLimitingSampler;
+import org.springframework.cloud.sleuth.brave.sampler.TraceIdProbabilityBasedSampler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 /**
  * {@linkplain Configuration configuration} for {@link Sampler}.
@@ -47,11 +46,15 @@ class BraveSamplerConfiguration {
 		return Sampler.NEVER_SAMPLE;
 	}
 
-	// NOTE: Brave's default samplers return Sampler.NEVER_SAMPLE if the config implies
-	// that
+	// NOTE: Like Brave's default samplers, Sampler.NEVER_SAMPLE is returned if the
+	// config implies that
 	static Sampler samplerFromProps(SamplerProperties config) {
-		if (config.getProbability() != null) {
-			return CountingSampler.create(config.getProbability());
+		Float probability = config.getProbability();
+		if (probability != null) {
+			if (probability <= 0f) {
+				return Sampler.NEVER_SAMPLE;
+			}
+			return new TraceIdProbabilityBasedSampler(() -> probability);
 		}
 		return brave.sampler.RateLimitingSampler.create(config.getRate());
 	}
@@ -62,11 +65,10 @@ class BraveSamplerConfiguration {
 	protected static class RefreshScopedSamplerConfiguration {
 
 		@Bean
-		@RefreshScope
 		@ConditionalOnMissingBean
 		@ConditionalOnProperty(value = "spring.sleuth.sampler.refresh.enabled", matchIfMissing = true)
-		public Sampler defaultTraceSampler(SamplerProperties config) {
-			return sampler(config);
+		public Sampler defaultTraceSampler(Environment environment, SamplerProperties config) {
+			return new RefreshableSampler(environment, config, RefreshScopedSamplerConfiguration::fixedSampler);
 		}
 
 		@Bean
@@ -77,14 +79,25 @@ class BraveSamplerConfiguration {
 		}
 
 		private Sampler sampler(SamplerProperties config) {
-			// TODO: Rewrite: refresh should replace the sampler, not change its state
-			// internally
 			if (config.getProbability() != null) {
-				return new ProbabilityBasedSampler(config::getProbability);
+				return new TraceIdProbabilityBasedSampler(config::getProbability);
 			}
 			return new RateLimitingSampler(config::getRate);
 		}
 
+		/**
+		 * Sampler that doesn't read the properties after it has been created, so that it
+		 * can be replaced as a whole when the properties change.
+		 */
+		static Sampler fixedSampler(SamplerProperties config) {
+			Float probability = config.getProbability();
+			if (probability != null) {
+				return new TraceIdProbabilityBasedSampler(() -> probability);
+			}
+			Integer rate = config.getRate();
+			return new RateLimitingSampler(() -> rate);
+		}
+
 	}
 
 	@Configuration(proxyBeanMethods = false)
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.autoconfig.brave;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+import brave.sampler.Sampler;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+
+/**
+ * {@link Sampler} that delegates to a sampler created out of the {@link SamplerProperties}
+ * and replaces it with a new one whenever the sampler properties change. The delegate is
+ * never modified, so the sampling decisions neither go through a refresh scope proxy nor
+ * take any locks.
+ *
+ * @author Marcin Grzejszczak
+ * @since 3.0.4
+ */
+class RefreshableSampler extends Sampler implements ApplicationListener<EnvironmentChangeEvent> {
+
+	static final String PREFIX = "spring.sleuth.sampler";
+
+	private static final ConfigurationPropertyName PREFIX_NAME = ConfigurationPropertyName.of(PREFIX);
+
+	private final Environment environment;
+
+	private final Function<SamplerProperties, Sampler> samplerFactory;
+
+	private volatile Sampler delegate;
+
+	RefreshableSampler(Environment environment, SamplerProperties properties,
+			Function<SamplerProperties, Sampler> samplerFactory) {
+		this.environment = environment;
+		this.samplerFactory = samplerFactory;
+		this.delegate = samplerFactory.apply(properties);
+	}
+
+	@Override
+	public boolean isSampled(long traceId) {
+		return this.delegate.isSampled(traceId);
+	}
+
+	@Override
+	public void onApplicationEvent(EnvironmentChangeEvent event) {
+		for (String key : event.getKeys()) {
+			if (isSamplerProperty(key)) {
+				refresh();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Matches the keys the way they are bound, so both
+	 * {@code spring.sleuth.sampler.probability} and
+	 * {@code SPRING_SLEUTH_SAMPLER_PROBABILITY} match, but
+	 * {@code spring.sleuth.sampler-foo} doesn't.
+	 */
+	static boolean isSamplerProperty(String key) {
+		String name = key.toLowerCase(Locale.ROOT);
+		char separator = name.indexOf('.') == -1 ? '_' : '.';
+		return PREFIX_NAME.isAncestorOf(ConfigurationPropertyName.adapt(name, separator));
+	}
+
+	/**
+	 * Binds the properties straight from the environment, so that it doesn't matter
+	 * whether the {@link SamplerProperties} bean has already been rebound.
+	 */
+	void refresh() {
+		SamplerProperties properties = Binder.get(this.environment).bindOrCreate(PREFIX, SamplerProperties.class);
+		this.delegate = this.samplerFactory.apply(properties);
+	}
+
+	Sampler delegate() {
+		return this.delegate;
+	}
+
+	@Override
+	public String toString() {
+		return "RefreshableSampler{" + this.delegate + "}";
+	}
+
+}
@@ -16,6 +16,9 @@
 
 package org.springframework.cloud.sleuth.autoconfig.brave;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -30,8 +33,8 @@ public class SamplerProperties {
 
 	/**
 	 * Probability of requests that should be sampled. E.g. 1.0 - 100% requests should be
-	 * sampled. The precision is whole-numbers only (i.e. there's no support for 0.1% of
-	 * the traces).
+	 * sampled. The decision is based on the trace id, so fractions of a percent are
+	 * supported (e.g. 0.001 - 0.1% of the traces).
 	 */
 	private Float probability;
 
@@ -47,6 +50,11 @@ public class SamplerProperties {
 	 */
 	private Integer rate = 10;
 
+	/**
+	 * Properties related to the per route rate limiting of the HTTP server traces.
+	 */
+	private Route route = new Route();
+
 	public Float getProbability() {
 		return this.probability;
 	}
@@ -63,4 +71,72 @@ public class SamplerProperties {
 		this.rate = rate;
 	}
 
+	public Route getRoute() {
+		return this.route;
+	}
+
+	public void setRoute(Route route) {
+		this.route = route;
+	}
+
+	public static class Route {
+
+		/**
+		 * Enable rate limiting the HTTP server traces per route. Each route gets a fair
+		 * share of the rate, so that chatty routes can't use up the whole budget.
+		 */
+		private boolean enabled;
+
+		/**
+		 * Maximum number of the HTTP server traces per second, shared by all the routes.
+		 */
+		private Integer rate = 10;
+
+		/**
+		 * Maximum number of routes that get their own share of the rate. All the other
+		 * routes share a single one.
+		 */
+		private int maxRoutes = 256;
+
+		/**
+		 * Number of traces per second for given routes, used instead of their fair share
+		 * of the rate. The route is the HTTP route or the request path with the id-like
+		 * segments replaced with {id}.
+		 */
+		private Map<String, Integer> rates = new HashMap<>();
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Integer getRate() {
+			return this.rate;
+		}
+
+		public void setRate(Integer rate) {
+			this.rate = rate;
+		}
+
+		public int getMaxRoutes() {
+			return this.maxRoutes;
+		}
+
+		public void setMaxRoutes(int maxRoutes) {
+			this.maxRoutes = maxRoutes;
+		}
+
+		public Map<String, Integer> getRates() {
+			return this.rates;
+		}
+
+		public void setRates(Map<String, Integer> rates) {
+			this.rates = rates;
+		}
+
+	}
+
 }
@@ -34,7 +34,9 @@ import reactor.util.context.Context;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.sleuth.autoconfig.brave.SamplerProperties;
 import org.springframework.cloud.sleuth.autoconfig.instrument.web.ConditionalOnSleuthHttp;
 import org.springframework.cloud.sleuth.autoconfig.instrument.web.SleuthHttpProperties;
 import org.springframework.cloud.sleuth.autoconfig.instrument.web.SleuthWebProperties;
@@ -43,6 +45,7 @@ import org.springframework.cloud.sleuth.brave.bridge.BraveHttpResponseParser;
 import org.springframework.cloud.sleuth.brave.bridge.BraveSamplerFunction;
 import org.springframework.cloud.sleuth.brave.instrument.web.BraveSpanFromContextRetriever;
 import org.springframework.cloud.sleuth.brave.instrument.web.CompositeHttpSampler;
+import org.springframework.cloud.sleuth.brave.instrument.web.RouteRateLimitingHttpServerSampler;
 import org.springframework.cloud.sleuth.brave.instrument.web.SkipPatternHttpClientSampler;
 import org.springframework.cloud.sleuth.brave.instrument.web.SkipPatternHttpServerSampler;
 import org.springframework.cloud.sleuth.http.HttpRequestParser;
@@ -70,7 +73,7 @@ import org.springframework.lang.Nullable;
 @Configuration(proxyBeanMethods = false)
 @ConditionalOnSleuthHttp
 @ConditionalOnClass(HttpTracing.class)
-@EnableConfigurationProperties({ SleuthWebProperties.class, SleuthHttpProperties.class })
+@EnableConfigurationProperties({ SleuthWebProperties.class, SleuthHttpProperties.class, SamplerProperties.class })
 @Import(BraveHttpBridgeConfiguration.class)
 public class BraveHttpConfiguration {
 
@@ -210,6 +213,16 @@ public class BraveHttpConfiguration {
 		return new SkipPatternHttpClientSampler(Pattern.compile(skipPattern));
 	}
 
+	@Bean(HttpServerSampler.NAME)
+	@ConditionalOnMissingBean(name = HttpServerSampler.NAME)
+	@ConditionalOnProperty("spring.sleuth.sampler.route.enabled")
+	SamplerFunction<brave.http.HttpRequest> sleuthRouteRateLimitingHttpServerSampler(
+			SamplerProperties samplerProperties) {
+		// the route properties are read on each decision, so that they can be refreshed
+		return new RouteRateLimitingHttpServerSampler(() -> samplerProperties.getRoute().getRate(),
+				() -> samplerProperties.getRoute().getRates(), samplerProperties.getRoute().getMaxRoutes());
+	}
+
 	@Configuration(proxyBeanMethods = false)
 	@ConditionalOnClass(Context.class)
 	static class BraveWebFilterConfiguration {
@@ -17,9 +17,12 @@
 package org.springframework.cloud.sleuth.autoconfig.instrument.async;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.sleuth.instrument.async.ExecutorTracingMode;
 
 /**
  * Settings for disable instrumentation of ThreadPoolTaskExecutors.
@@ -35,6 +38,25 @@ public class SleuthAsyncProperties {
 	 */
 	private boolean enabled;
 
+	/**
+	 * List of {@link java.util.concurrent.Executor} bean names that should be ignored and
+	 * not wrapped in a trace representation.
+	 */
+	private List<String> ignoredBeans = Collections.emptyList();
+
+	/**
+	 * How the tasks submitted to instrumented executors are traced. With {@code span}
+	 * each task runs in a new child span, with {@code context} only the trace context is
+	 * passed to the task and no span is created.
+	 */
+	private ExecutorTracingMode mode = ExecutorTracingMode.SPAN;
+
+	/**
+	 * {@link java.util.concurrent.Executor} bean names mapped to the way their tasks are
+	 * traced. Overrides the {@code spring.sleuth.async.mode} for the given beans.
+	 */
+	private Map<String, ExecutorTracingMode> beanModes = new HashMap<>();
+
 	public boolean isEnabled() {
 		return this.enabled;
 	}
@@ -43,12 +65,6 @@ public class SleuthAsyncProperties {
 		this.enabled = enabled;
 	}
 
-	/**
-	 * List of {@link java.util.concurrent.Executor} bean names that should be ignored and
-	 * not wrapped in a trace representation.
-	 */
-	private List<String> ignoredBeans = Collections.emptyList();
-
 	public List<String> getIgnoredBeans() {
 		return this.ignoredBeans;
 	}
@@ -57,4 +73,24 @@ public class SleuthAsyncProperties {
 		this.ignoredBeans = ignoredBeans;
 	}
 
+	public ExecutorTracingMode getMode() {
+		return this.mode;
+	}
+
+	public void setMode(ExecutorTracingMode mode) {
+		this.mode = mode;
+	}
+
+	public Map<String, ExecutorTracingMode> getBeanModes() {
+		return this.beanModes;
+	}
+
+	public void setBeanModes(Map<String, ExecutorTracingMode> beanModes) {
+		this.beanModes = beanModes;
+	}
+
+	ExecutorTracingMode mode(String beanName) {
+		return this.beanModes.getOrDefault(beanName, this.mode);
+	}
+
 }
@@ -0,0 +1,344 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.autoconfig.instrument.reactor;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.function.Function;
+
+import org.springframework.cloud.sleuth.CurrentTraceContext;
+import org.springframework.cloud.sleuth.TraceContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Reactor queue that passes the trace context from the producer to the consumer of its
+ * elements. The context is stored only when it differs from the one of the previously
+ * offered element, so as long as the context doesn't change the elements are stored
+ * as they are. Each element still takes a single slot of the delegate queue.
+ *
+ * The consumer keeps the context of the last polled element in scope until it polls an
+ * element with a different context, checks whether the queue is empty or finds it empty.
+ * Drain loops may stop without doing any of that, so the scopes opened while running a
+ * task of a Reactor scheduler are closed when the task ends, see {@link ScheduleHook}.
+ * Like all Reactor queues it supports a single producer and a single consumer at a time.
+ *
+ * @author Marcin Grzejszczak
+ * @since 3.0.4
+ */
+class TraceContextQueue extends AbstractQueue<Object> {
+
+	private final Queue<Object> delegate;
+
+	private final CurrentTraceContext currentTraceContext;
+
+	// accessed by the producer only
+	private TraceContext lastOfferedContext;
+
+	// accessed by the consumer only
+	private TraceContext lastPolledContext;
+
+	private QueueScope scope;
+
+	@SuppressWarnings("unchecked")
+	TraceContextQueue(Queue<?> delegate, CurrentTraceContext currentTraceContext) {
+		this.delegate = (Queue<Object>) delegate;
+		this.currentTraceContext = currentTraceContext;
+	}
+
+	@Override
+	public int size() {
+		return this.delegate.size();
+	}
+
+	/**
+	 * Drain loops check whether the queue is empty once they've emitted all the requested
+	 * elements, so that's where the scope of the last element gets closed.
+	 */
+	@Override
+	public boolean isEmpty() {
+		closeScope();
+		return this.delegate.isEmpty();
+	}
+
+	@Override
+	public boolean offer(Object o) {
+		TraceContext traceContext = this.currentTraceContext.context();
+		if (sameContext(traceContext, this.lastOfferedContext)) {
+			return this.delegate.offer(o);
+		}
+		boolean offered = this.delegate.offer(new Envelope(o, traceContext));
+		if (offered) {
+			this.lastOfferedContext = traceContext;
+		}
+		return offered;
+	}
+
+	@Override
+	public Object poll() {
+		Object object = this.delegate.poll();
+		if (object == null) {
+			closeScope();
+			return null;
+		}
+		if (object instanceof Envelope) {
+			Envelope envelope = (Envelope) object;
+			this.lastPolledContext = envelope.traceContext;
+			object = envelope.body;
+		}
+		restoreTheContext(this.lastPolledContext);
+		return object;
+	}
+
+	/**
+	 * Forgets the contexts of the removed elements, so that the next offered element
+	 * stores its context again.
+	 */
+	@Override
+	public void clear() {
+		this.delegate.clear();
+		this.lastOfferedContext = null;
+		this.lastPolledContext = null;
+		closeScope();
+	}
+
+	@Override
+	public Object peek() {
+		return unwrap(this.delegate.peek());
+	}
+
+	@Override
+	public Iterator<Object> iterator() {
+		Iterator<Object> iterator = this.delegate.iterator();
+		return new Iterator<Object>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public Object next() {
+				return unwrap(iterator.next());
+			}
+		};
+	}
+
+	private void restoreTheContext(TraceContext traceContext) {
+		QueueScope scope = this.scope;
+		if (scope != null && scope.isOpenOnCurrentThread() && sameContext(scope.traceContext, traceContext)) {
+			return;
+		}
+		closeScope();
+		// a scope of another thread is left to the task that opened it
+		this.scope = null;
+		if (traceContext != null) {
+			this.scope = QueueScope.open(this.currentTraceContext, traceContext);
+		}
+	}
+
+	/**
+	 * A scope can only be closed on the thread that opened it, so calls made on any other
+	 * thread leave it as it is.
+	 */
+	private void closeScope() {
+		QueueScope scope = this.scope;
+		if (scope != null && scope.thread == Thread.currentThread()) {
+			scope.close();
+			this.scope = null;
+		}
+	}
+
+	private static Object unwrap(Object object) {
+		return object instanceof Envelope ? ((Envelope) object).body : object;
+	}
+
+	/**
+	 * Relies on the equality of the tracer's contexts to tell contexts with different
+	 * baggage apart.
+	 */
+	private static boolean sameContext(TraceContext first, TraceContext second) {
+		return Objects.equals(first, second);
+	}
+
+	static final class Envelope {
+
+		final Object body;
+
+		final TraceContext traceContext;
+
+		Envelope(Object body, TraceContext traceContext) {
+			this.body = body;
+			this.traceContext = traceContext;
+		}
+
+	}
+
+	/**
+	 * Scope opened by a queue. While a task of a Reactor scheduler runs, the scopes opened
+	 * on its thread are tracked, so that they can be closed in the reverse order once the
+	 * task ends. All the methods are called on the thread that opened the scope.
+	 */
+	static final class QueueScope {
+
+		/**
+		 * Marks a running task that hasn't opened any scope yet.
+		 */
+		private static final List<QueueScope> NO_SCOPES = Collections.emptyList();
+
+		private static final ThreadLocal<List<QueueScope>> taskScopes = new ThreadLocal<>();
+
+		final Thread thread;
+
+		final TraceContext traceContext;
+
+		private final CurrentTraceContext.Scope delegate;
+
+		private boolean closed;
+
+		private QueueScope(CurrentTraceContext.Scope delegate, TraceContext traceContext) {
+			this.thread = Thread.currentThread();
+			this.traceContext = traceContext;
+			this.delegate = delegate;
+		}
+
+		static QueueScope open(CurrentTraceContext currentTraceContext, TraceContext traceContext) {
+			QueueScope scope = new QueueScope(currentTraceContext.newScope(traceContext), traceContext);
+			List<QueueScope> scopes = taskScopes.get();
+			if (scopes == NO_SCOPES) {
+				scopes = new ArrayList<>();
+				taskScopes.set(scopes);
+			}
+			if (scopes != null) {
+				scopes.add(scope);
+			}
+			return scope;
+		}
+
+		boolean isOpenOnCurrentThread() {
+			return this.thread == Thread.currentThread() && !this.closed;
+		}
+
+		/**
+		 * Scopes opened after this one on the same thread are nested in it, so they get
+		 * closed first.
+		 */
+		void close() {
+			if (this.closed) {
+				return;
+			}
+			List<QueueScope> scopes = taskScopes.get();
+			int index = scopes != null ? scopes.lastIndexOf(this) : -1;
+			if (index == -1) {
+				closeDelegate();
+				return;
+			}
+			closeFrom(scopes, index);
+		}
+
+		private void closeDelegate() {
+			if (!this.closed) {
+				this.closed = true;
+				this.delegate.close();
+			}
+		}
+
+		/**
+		 * @return scopes of the task that was running on the thread before, if any
+		 */
+		static List<QueueScope> taskStarted() {
+			List<QueueScope> previous = taskScopes.get();
+			taskScopes.set(NO_SCOPES);
+			return previous;
+		}
+
+		static void taskFinished(List<QueueScope> previous) {
+			List<QueueScope> scopes = taskScopes.get();
+			taskScopes.set(previous);
+			closeFrom(scopes, 0);
+		}
+
+		private static void closeFrom(List<QueueScope> scopes, int index) {
+			for (int i = scopes.size() - 1; i >= index; i--) {
+				scopes.remove(i).closeDelegate();
+			}
+		}
+
+	}
+
+	/**
+	 * Closes the scopes that the queues opened and left open while running a task of a
+	 * Reactor scheduler, once the task ends.
+	 */
+	static final class ScheduleHook implements Function<Runnable, Runnable> {
+
+		private final Function<Runnable, Runnable> delegate;
+
+		ScheduleHook(Function<Runnable, Runnable> delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Runnable apply(Runnable task) {
+			return this.delegate.apply(() -> {
+				List<QueueScope> previous = QueueScope.taskStarted();
+				try {
+					task.run();
+				}
+				finally {
+					QueueScope.taskFinished(previous);
+				}
+			});
+		}
+
+	}
+
+	/**
+	 * Wraps Reactor queues in {@link TraceContextQueue}. The {@link CurrentTraceContext}
+	 * bean is resolved once, when the first queue gets wrapped.
+	 */
+	static final class Wrapper implements Function<Queue<?>, Queue<?>> {
+
+		private final ConfigurableApplicationContext springContext;
+
+		private volatile CurrentTraceContext currentTraceContext;
+
+		Wrapper(ConfigurableApplicationContext springContext) {
+			this.springContext = springContext;
+		}
+
+		@Override
+		public Queue<?> apply(Queue<?> queue) {
+			if (!this.springContext.isActive()) {
+				return queue;
+			}
+			return new TraceContextQueue(queue, currentTraceContext());
+		}
+
+		private CurrentTraceContext currentTraceContext() {
+			if (this.currentTraceContext == null) {
+				this.currentTraceContext = this.springContext.getBean(CurrentTraceContext.class);
+			}
+			return this.currentTraceContext;
+		}
+
+	}
+
+}
@@ -18,9 +18,6 @@ package org.springframework.cloud.sleuth.autoconfig.instrument.reactor;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.AbstractQueue;
-import java.util.Iterator;
-import java.util.Queue;
 import java.util.function.Function;
 
 import org.apache.commons.logging.Log;
@@ -42,8 +39,6 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.context.scope.refresh.RefreshScope;
 import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
-import org.springframework.cloud.sleuth.CurrentTraceContext;
-import org.springframework.cloud.sleuth.TraceContext;
 import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.cloud.sleuth.autoconfig.brave.BraveAutoConfiguration;
 import org.springframework.cloud.sleuth.instrument.reactor.ReactorSleuth;
@@ -209,7 +204,9 @@ class HookRegisteringBeanDefinitionRegistryPostProcessor implements BeanDefiniti
 		if (property == SleuthReactorProperties.InstrumentationType.DECORATE_QUEUES) {
 			addQueueWrapper(springContext);
 			decorateOnLast(ReactorSleuth.scopePassingSpanOperator(springContext));
-			decorateScheduler(springContext);
+			// the scopes opened by the queues must not outlive the drain loops
+			Schedulers.onScheduleHook(TraceReactorAutoConfiguration.SLEUTH_REACTOR_EXECUTOR_SERVICE_KEY,
+					new TraceContextQueue.ScheduleHook(ReactorSleuth.scopePassingOnScheduleHook(springContext)));
 		}
 		else {
 			Boolean decorateOnEach = environment.getProperty("spring.sleuth.reactor.decorate-on-each", Boolean.class,
@@ -264,7 +261,7 @@ class HookRegisteringBeanDefinitionRegistryPostProcessor implements BeanDefiniti
 		if (log.isTraceEnabled()) {
 			log.trace("Decorating queues");
 		}
-		Hooks.addQueueWrapper(SLEUTH_TRACE_REACTOR_KEY, queue -> traceQueue(springContext, queue));
+		Hooks.addQueueWrapper(SLEUTH_TRACE_REACTOR_KEY, new TraceContextQueue.Wrapper(springContext));
 	}
 
 	@Override
@@ -274,97 +271,8 @@ class HookRegisteringBeanDefinitionRegistryPostProcessor implements BeanDefiniti
 		}
 		Hooks.resetOnEachOperator(SLEUTH_TRACE_REACTOR_KEY);
 		Hooks.resetOnLastOperator(SLEUTH_TRACE_REACTOR_KEY);
-		Hooks.removeQueueWrapper(SLEUTH_REACTOR_EXECUTOR_SERVICE_KEY);
+		Hooks.removeQueueWrapper(SLEUTH_TRACE_REACTOR_KEY);
 		Schedulers.resetOnScheduleHook(TraceReactorAutoConfiguration.SLEUTH_REACTOR_EXECUTOR_SERVICE_KEY);
 	}
 
-	private static Queue<?> traceQueue(ConfigurableApplicationContext springContext, Queue<?> queue) {
-		if (!springContext.isActive()) {
-			return queue;
-		}
-		CurrentTraceContext currentTraceContext = springContext.getBean(CurrentTraceContext.class);
-		@SuppressWarnings("unchecked")
-		Queue envelopeQueue = queue;
-		return new AbstractQueue<Object>() {
-
-			@Override
-			public int size() {
-				return envelopeQueue.size();
-			}
-
-			@Override
-			public boolean offer(Object o) {
-				TraceContext traceContext = currentTraceContext.context();
-				return envelopeQueue.offer(new Envelope(o, traceContext));
-			}
-
-			@Override
-			public Object poll() {
-				Object object = envelopeQueue.poll();
-				if (object == null) {
-					return null;
-				}
-				else if (object instanceof Envelope) {
-					Envelope envelope = (Envelope) object;
-					restoreTheContext(envelope);
-					return envelope.body;
-				}
-				return object;
-			}
-
-			private void restoreTheContext(Envelope envelope) {
-				if (envelope.traceContext != null) {
-					currentTraceContext.maybeScope(envelope.traceContext);
-				}
-			}
-
-			@Override
-			public Object peek() {
-				Object peek = queue.peek();
-				if (peek instanceof Envelope) {
-					Envelope envelope = (Envelope) peek;
-					restoreTheContext(envelope);
-					return (envelope).body;
-				}
-				return peek;
-			}
-
-			@Override
-			@SuppressWarnings("unchecked")
-			public Iterator<Object> iterator() {
-				Iterator<?> iterator = queue.iterator();
-				return new Iterator<Object>() {
-					@Override
-					public boolean hasNext() {
-						return iterator.hasNext();
-					}
-
-					@Override
-					public Object next() {
-						Object next = iterator.next();
-						if (next instanceof Envelope) {
-							Envelope envelope = (Envelope) next;
-							restoreTheContext(envelope);
-							return (envelope).body;
-						}
-						return next;
-					}
-				};
-			}
-		};
-	}
-
-	static class Envelope {
-
-		final Object body;
-
-		final TraceContext traceContext;
-
-		Envelope(Object body, TraceContext traceContext) {
-			this.body = body;
-			this.traceContext = traceContext;
-		}
-
-	}
-
 }
@@ -141,7 +141,8 @@ class TraceWebClientAutoConfiguration {
 		@Bean
 		static TraceWebClientBeanPostProcessor traceWebClientBeanPostProcessor(
 				ConfigurableApplicationContext springContext) {
-			return new TraceWebClientBeanPostProcessor(springContext);
+			return new TraceWebClientBeanPostProcessor(springContext, springContext.getEnvironment()
+					.getProperty("spring.sleuth.web.webclient.end-span-on-body-completion", Boolean.class, false));
 		}
 
 	}
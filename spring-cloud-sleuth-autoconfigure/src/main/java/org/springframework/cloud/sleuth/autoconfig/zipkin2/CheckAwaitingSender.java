@@ -0,0 +1,90 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.autoconfig.zipkin2;
+
+import java.io.IOException;
+import java.util.List;
+
+import zipkin2.Call;
+import zipkin2.CheckResult;
+import zipkin2.codec.Encoding;
+import zipkin2.reporter.Sender;
+
+/**
+ * {@link Sender} that doesn't send anything until the first successful
+ * {@link ZipkinSenderCheck}. Since the reporter's flushing thread is blocked in the
+ * meantime, spans get buffered in the reporter's bounded queue.
+ *
+ * @author Marcin Grzejszczak
+ * @since 3.0.4
+ */
+class CheckAwaitingSender extends Sender {
+
+	private final Sender delegate;
+
+	private final ZipkinSenderCheck check;
+
+	CheckAwaitingSender(Sender delegate, ZipkinSenderCheck check) {
+		this.delegate = delegate;
+		this.check = check;
+	}
+
+	@Override
+	public Encoding encoding() {
+		return this.delegate.encoding();
+	}
+
+	@Override
+	public int messageMaxBytes() {
+		return this.delegate.messageMaxBytes();
+	}
+
+	@Override
+	public int messageSizeInBytes(List<byte[]> encodedSpans) {
+		return this.delegate.messageSizeInBytes(encodedSpans);
+	}
+
+	@Override
+	public int messageSizeInBytes(int encodedSizeInBytes) {
+		return this.delegate.messageSizeInBytes(encodedSizeInBytes);
+	}
+
+	@Override
+	public Call<Void> sendSpans(List<byte[]> encodedSpans) {
+		if (!this.check.isReady()) {
+			this.check.awaitReady();
+		}
+		return this.delegate.sendSpans(encodedSpans);
+	}
+
+	@Override
+	public CheckResult check() {
+		return this.delegate.check();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.check.close();
+		this.delegate.close();
+	}
+
+	@Override
+	public String toString() {
+		return this.delegate.toString();
+	}
+
+}
@@ -20,8 +20,6 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import io.micrometer.core.instrument.MeterRegistry;
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
 import zipkin2.CheckResult;
 import zipkin2.Span;
 import zipkin2.reporter.AsyncReporter;
@@ -91,60 +89,89 @@ public class ZipkinAutoConfiguration {
 	 */
 	public static final String SENDER_BEAN_NAME = "zipkinSender";
 
-	private static final Log log = LogFactory.getLog(ZipkinAutoConfiguration.class);
+	/**
+	 * Rough size of an encoded span, used to derive the span bound of the queue from its
+	 * byte bound.
+	 */
+	static final int ESTIMATED_SPAN_SIZE_IN_BYTES = 256;
 
-	/** Limits {@link Sender#check()} to {@code deadlineMillis}. */
+	/**
+	 * Calls {@link Sender#check()} on the caller's thread. A check that takes longer than
+	 * {@code deadlineMillis} is reported as timed out, even if it eventually succeeded.
+	 */
 	static CheckResult checkResult(Sender sender, long deadlineMillis) {
-		CheckResult[] outcome = new CheckResult[1];
-		Thread thread = new Thread(sender + " check()") {
-			@Override
-			public void run() {
-				try {
-					outcome[0] = sender.check();
-				}
-				catch (Throwable e) {
-					outcome[0] = CheckResult.failed(e);
-				}
-			}
-		};
-		thread.start();
+		long start = System.nanoTime();
+		CheckResult result;
 		try {
-			thread.join(deadlineMillis);
-			if (outcome[0] != null) {
-				return outcome[0];
-			}
-			thread.interrupt();
-			return CheckResult
-					.failed(new TimeoutException(thread.getName() + " timed out after " + deadlineMillis + "ms"));
+			result = sender.check();
 		}
-		catch (InterruptedException e) {
-			Thread.currentThread().interrupt();
-			return CheckResult.failed(e);
+		catch (Throwable e) {
+			result = CheckResult.failed(e);
 		}
+		if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) > deadlineMillis) {
+			return timedOut(sender, deadlineMillis);
+		}
+		return result;
+	}
+
+	static CheckResult timedOut(Sender sender, long deadlineMillis) {
+		return CheckResult.failed(new TimeoutException(sender + " check() timed out after " + deadlineMillis + "ms"));
 	}
 
 	@Bean(REPORTER_BEAN_NAME)
 	@ConditionalOnMissingBean(name = REPORTER_BEAN_NAME)
 	Reporter<Span> reporter(ReporterMetrics reporterMetrics, ZipkinProperties zipkin,
-			@Qualifier(SENDER_BEAN_NAME) Sender sender) {
-		CheckResult checkResult = checkResult(sender, 1_000L);
-		logCheckResult(sender, checkResult);
-
-		// historical constraint. Note: AsyncReporter supports memory bounds
-		AsyncReporter<Span> asyncReporter = AsyncReporter.builder(sender).queuedMaxSpans(1000)
-				.messageTimeout(zipkin.getMessageTimeout(), TimeUnit.SECONDS).metrics(reporterMetrics)
-				.build(zipkin.getEncoder());
+			@Qualifier(SENDER_BEAN_NAME) Sender sender, ZipkinSenderCheck senderCheck) {
+		senderCheck.start();
+		// spans are queued by the reporter until the sender is reachable
+		Sender reportingSender = zipkin.getCheck().isBufferUntilReady() ? new CheckAwaitingSender(sender, senderCheck)
+				: sender;
+		AsyncReporter.Builder builder = AsyncReporter.builder(reportingSender)
+				.messageTimeout(zipkin.getMessageTimeout(), TimeUnit.SECONDS)
+				.closeTimeout(zipkin.getCloseTimeout().toMillis(), TimeUnit.MILLISECONDS).metrics(reporterMetrics);
+		Integer queuedMaxBytes = queuedMaxBytes(zipkin, Runtime.getRuntime().maxMemory());
+		if (queuedMaxBytes != null) {
+			builder.queuedMaxBytes(queuedMaxBytes);
+		}
+		builder.queuedMaxSpans(queuedMaxSpans(zipkin, queuedMaxBytes));
+		if (zipkin.getMessageMaxBytes() != null) {
+			builder.messageMaxBytes(zipkin.getMessageMaxBytes());
+		}
+		return builder.build(zipkin.getEncoder());
+	}
 
-		return asyncReporter;
+	/**
+	 * Started by the default reporter or by the first health check, so that no thread
+	 * is checking the sender when a custom reporter is used.
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	ZipkinSenderCheck zipkinSenderCheck(@Qualifier(SENDER_BEAN_NAME) Sender sender, ZipkinProperties zipkin) {
+		return new ZipkinSenderCheck(sender, zipkin.getCheck().getTimeout(), zipkin.getCheck().getInterval());
 	}
 
-	private void logCheckResult(Sender sender, CheckResult checkResult) {
-		if (log.isDebugEnabled() && checkResult != null && checkResult.ok()) {
-			log.debug("Check result of the [" + sender.toString() + "] is [" + checkResult + "]");
+	/**
+	 * @return byte bound of the reporter's queue or {@code null} to use the reporter's
+	 * default
+	 */
+	static Integer queuedMaxBytes(ZipkinProperties zipkin, long maxMemory) {
+		Float heapPercentage = zipkin.getQueuedMaxHeapPercentage();
+		if (heapPercentage == null) {
+			return zipkin.getQueuedMaxBytes();
 		}
-		else if (checkResult != null && !checkResult.ok()) {
-			log.warn("Check result of the [" + sender.toString() + "] contains an error [" + checkResult + "]");
+		return (int) Math.min(Integer.MAX_VALUE, (long) (maxMemory * (heapPercentage / 100d)));
+	}
+
+	/**
+	 * With a heap budget the span bound shouldn't be hit before the byte bound is. It's
+	 * derived from the byte bound instead of being unbounded, since the reporter
+	 * allocates arrays of the span bound size upfront.
+	 */
+	static int queuedMaxSpans(ZipkinProperties zipkin, Integer queuedMaxBytes) {
+		if (zipkin.getQueuedMaxHeapPercentage() == null || queuedMaxBytes == null) {
+			return zipkin.getQueuedMaxSpans();
 		}
+		return Math.max(zipkin.getQueuedMaxSpans(), queuedMaxBytes / ESTIMATED_SPAN_SIZE_IN_BYTES);
 	}
 
 	@Bean
@@ -214,6 +241,19 @@ public class ZipkinAutoConfiguration {
 
 	}
 
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(name = "org.springframework.boot.actuate.health.AbstractHealthIndicator")
+	@ConditionalOnProperty(value = "management.health.zipkin.enabled", matchIfMissing = true)
+	static class ZipkinHealthIndicatorConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean(name = "zipkinHealthIndicator")
+		ZipkinSenderHealthIndicator zipkinHealthIndicator(ZipkinSenderCheck zipkinSenderCheck) {
+			return new ZipkinSenderHealthIndicator(zipkinSenderCheck);
+		}
+
+	}
+
 	@Configuration(proxyBeanMethods = false)
 	@ConditionalOnMissingClass("io.micrometer.core.instrument.MeterRegistry")
 	static class TraceMetricsInMemoryConfiguration {
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.autoconfig.zipkin2;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import zipkin2.CheckResult;
+import zipkin2.reporter.Sender;
+
+/**
+ * Checks the {@link Sender} in the background, so that neither the bean creation nor the
+ * application startup wait for Zipkin to respond. The sender is checked again every
+ * {@code interval}, also after it got ready, so that {@link #lastResult()} follows the
+ * availability of Zipkin. Until the first check succeeds, {@link #awaitReady()} blocks
+ * the caller.
+ *
+ * @author Marcin Grzejszczak
+ * @since 3.0.4
+ */
+class ZipkinSenderCheck implements Closeable {
+
+	private static final Log log = LogFactory.getLog(ZipkinSenderCheck.class);
+
+	private final Sender sender;
+
+	private final Duration timeout;
+
+	private final Duration interval;
+
+	private final CountDownLatch ready = new CountDownLatch(1);
+
+	private volatile CheckResult lastResult;
+
+	/**
+	 * Start of the check in progress or {@code 0} if the sender isn't being checked.
+	 */
+	private volatile long checkStartedNanos;
+
+	private volatile Thread thread;
+
+	private volatile boolean closed;
+
+	ZipkinSenderCheck(Sender sender, Duration timeout, Duration interval) {
+		this.sender = sender;
+		this.timeout = timeout;
+		this.interval = interval;
+	}
+
+	/**
+	 * Starts checking in the background, unless already started or closed.
+	 * @return this
+	 */
+	synchronized ZipkinSenderCheck start() {
+		if (this.thread != null || this.closed) {
+			return this;
+		}
+		Thread thread = new Thread(this::checkUntilClosed, this.sender + " check()");
+		thread.setDaemon(true);
+		this.thread = thread;
+		thread.start();
+		return this;
+	}
+
+	boolean isStarted() {
+		return this.thread != null;
+	}
+
+	private void checkUntilClosed() {
+		while (!Thread.currentThread().isInterrupted()) {
+			this.checkStartedNanos = System.nanoTime();
+			CheckResult result = ZipkinAutoConfiguration.checkResult(this.sender, this.timeout.toMillis());
+			this.checkStartedNanos = 0L;
+			CheckResult previous = this.lastResult;
+			this.lastResult = result;
+			logCheckResult(previous, result);
+			if (result.ok()) {
+				this.ready.countDown();
+			}
+			try {
+				Thread.sleep(this.interval.toMillis());
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Warns about every failure until the sender got ready, and after that only when a
+	 * successful check is followed by a failed one.
+	 */
+	private void logCheckResult(CheckResult previous, CheckResult checkResult) {
+		if (checkResult.ok()) {
+			if (log.isDebugEnabled()) {
+				log.debug("Check result of the [" + this.sender + "] is [" + checkResult + "]");
+			}
+		}
+		else if ((previous == null || previous.ok() || !isReady()) && log.isWarnEnabled()) {
+			log.warn("Check result of the [" + this.sender + "] contains an error [" + checkResult
+					+ "]. Will retry in [" + this.interval.toMillis() + "] ms");
+		}
+	}
+
+	/**
+	 * @return result of the latest check, a failed result if the check in progress takes
+	 * longer than the timeout or {@code null} if no check has completed yet
+	 */
+	CheckResult lastResult() {
+		long started = this.checkStartedNanos;
+		if (started != 0L && System.nanoTime() - started > this.timeout.toNanos()) {
+			return ZipkinAutoConfiguration.timedOut(this.sender, this.timeout.toMillis());
+		}
+		return this.lastResult;
+	}
+
+	boolean isReady() {
+		return this.ready.getCount() == 0;
+	}
+
+	/**
+	 * Blocks until the first successful check or until this check gets closed.
+	 */
+	void awaitReady() {
+		try {
+			this.ready.await();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Stops checking and releases all the callers waiting for the sender to be ready.
+	 */
+	@Override
+	public synchronized void close() {
+		this.closed = true;
+		Thread thread = this.thread;
+		if (thread != null) {
+			thread.interrupt();
+		}
+		this.ready.countDown();
+	}
+
+}
@@ -39,6 +39,7 @@ class ZipkinSenderConfigurationImportSelector implements ImportSelector {
 		mappings.put("activemq", ZipkinActiveMqSenderConfiguration.class.getName());
 		mappings.put("rabbit", ZipkinRabbitSenderConfiguration.class.getName());
 		mappings.put("kafka", ZipkinKafkaSenderConfiguration.class.getName());
+		mappings.put("webclient", ZipkinWebClientSenderConfiguration.class.getName());
 		mappings.put("web", ZipkinRestTemplateSenderConfiguration.class.getName());
 		MAPPINGS = Collections.unmodifiableMap(mappings);
 	}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.autoconfig.zipkin2;
+
+import zipkin2.CheckResult;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+
+/**
+ * Reports the result of the latest background {@link ZipkinSenderCheck}. Doesn't call
+ * Zipkin by itself, so that the health endpoint never waits for the collector.
+ *
+ * @author Marcin Grzejszczak
+ * @since 3.0.4
+ */
+class ZipkinSenderHealthIndicator extends AbstractHealthIndicator {
+
+	private final ZipkinSenderCheck check;
+
+	ZipkinSenderHealthIndicator(ZipkinSenderCheck check) {
+		super("Zipkin sender check failed");
+		this.check = check;
+	}
+
+	@Override
+	protected void doHealthCheck(Health.Builder builder) {
+		CheckResult result = this.check.start().lastResult();
+		if (result == null) {
+			builder.unknown();
+		}
+		else if (result.ok()) {
+			builder.up();
+		}
+		else {
+			builder.down(result.error());
+		}
+	}
+
+}
@@ -16,6 +16,8 @@
 
 package org.springframework.cloud.sleuth.autoconfig.zipkin2;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -32,6 +34,8 @@ public class ZipkinSenderProperties {
 	 */
 	private SenderType type;
 
+	private WebClient webClient = new WebClient();
+
 	public SenderType getType() {
 		return this.type;
 	}
@@ -40,6 +44,14 @@ public class ZipkinSenderProperties {
 		this.type = type;
 	}
 
+	public WebClient getWebClient() {
+		return this.webClient;
+	}
+
+	public void setWebClient(WebClient webClient) {
+		this.webClient = webClient;
+	}
+
 	/**
 	 * Types of a sender.
 	 */
@@ -63,7 +75,46 @@ public class ZipkinSenderProperties {
 		/**
 		 * HTTP based sender.
 		 */
-		WEB
+		WEB,
+
+		/**
+		 * Non-blocking HTTP based sender.
+		 */
+		WEBCLIENT
+
+	}
+
+	/**
+	 * Settings of the non-blocking, WebClient based sender.
+	 */
+	public static class WebClient {
+
+		/**
+		 * Maximum number of batches of spans that can be sent to Zipkin concurrently.
+		 */
+		private int maxInFlightRequests = 4;
+
+		/**
+		 * Timeout of a single request to Zipkin. Also the maximum time the reporter waits
+		 * for a free in-flight slot before dropping a batch of spans.
+		 */
+		private Duration timeout = Duration.ofSeconds(1);
+
+		public int getMaxInFlightRequests() {
+			return this.maxInFlightRequests;
+		}
+
+		public void setMaxInFlightRequests(int maxInFlightRequests) {
+			this.maxInFlightRequests = maxInFlightRequests;
+		}
+
+		public Duration getTimeout() {
+			return this.timeout;
+		}
+
+		public void setTimeout(Duration timeout) {
+			this.timeout = timeout;
+		}
 
 	}
 
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.autoconfig.zipkin2;
+
+import java.net.URI;
+
+import zipkin2.reporter.ReporterMetrics;
+import zipkin2.reporter.Sender;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.sleuth.zipkin2.CachingZipkinUrlExtractor;
+import org.springframework.cloud.sleuth.zipkin2.WebClientSender;
+import org.springframework.cloud.sleuth.zipkin2.ZipkinLoadBalancer;
+import org.springframework.cloud.sleuth.zipkin2.ZipkinProperties;
+import org.springframework.cloud.sleuth.zipkin2.ZipkinUrlExtractor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Configuration of the non-blocking, {@link WebClient} based {@link Sender}. Requires
+ * the {@code spring.zipkin.sender.type} property to be explicitly set to
+ * {@code webclient}.
+ *
+ * @author Marcin Grzejszczak
+ * @since 3.0.4
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(name = "org.springframework.web.reactive.function.client.WebClient")
+@ConditionalOnMissingBean(name = ZipkinAutoConfiguration.SENDER_BEAN_NAME)
+@Conditional(ZipkinSenderCondition.class)
+@ConditionalOnProperty(value = "spring.zipkin.sender.type", havingValue = "webclient")
+@EnableConfigurationProperties(ZipkinSenderProperties.class)
+@Import({ ZipkinRestTemplateSenderConfiguration.DefaultZipkinUrlExtractorConfiguration.class,
+		ZipkinRestTemplateSenderConfiguration.DiscoveryClientZipkinUrlExtractorConfiguration.class })
+class ZipkinWebClientSenderConfiguration {
+
+	@Bean(ZipkinAutoConfiguration.SENDER_BEAN_NAME)
+	Sender webClientSender(ZipkinProperties zipkin, ZipkinSenderProperties senderProperties,
+			ZipkinUrlExtractor extractor, ReporterMetrics reporterMetrics) {
+		// not taken from the context on purpose - we don't want to trace sending spans
+		WebClient webClient = WebClient.builder().filter(resolvingZipkinUrl(zipkin, extractor)).build();
+		ZipkinSenderProperties.WebClient properties = senderProperties.getWebClient();
+		return new WebClientSender(webClient, zipkin.getBaseUrl(), zipkin.getApiPath(), zipkin.getEncoder(),
+				zipkin.getCompression().isEnabled(), properties.getMaxInFlightRequests(), properties.getTimeout(),
+				reporterMetrics);
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	ZipkinUrlExtractor defaultZipkinUrlExtractor(final ZipkinLoadBalancer zipkinLoadBalancer) {
+		return new CachingZipkinUrlExtractor(zipkinLoadBalancer);
+	}
+
+	/**
+	 * Resolves at runtime where the Zipkin server is, the same way
+	 * {@link org.springframework.cloud.sleuth.zipkin2.ZipkinRestTemplateWrapper} does.
+	 */
+	private static ExchangeFilterFunction resolvingZipkinUrl(ZipkinProperties zipkin, ZipkinUrlExtractor extractor) {
+		return (request, next) -> {
+			URI resolved = extractor.zipkinUrl(zipkin);
+			URI url = UriComponentsBuilder.fromUri(request.url()).scheme(resolved.getScheme())
+					.userInfo(resolved.getUserInfo()).host(resolved.getHost()).port(resolved.getPort()).build(true)
+					.toUri();
+			return next.exchange(ClientRequest.from(request).url(url).build());
+		};
+	}
+
+}
@@ -16,6 +16,8 @@
 
 package org.springframework.cloud.sleuth.autoconfig.brave;
 
+import java.util.Collections;
+
 import brave.Tracing;
 import brave.TracingCustomizer;
 import brave.handler.MutableSpan;
@@ -26,9 +28,13 @@ import brave.sampler.Sampler;
 import org.assertj.core.api.BDDAssertions;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.aop.support.AopUtils;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.util.TestPropertyValues;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
 import org.springframework.cloud.context.scope.refresh.RefreshScope;
+import org.springframework.cloud.sleuth.brave.sampler.TraceIdProbabilityBasedSampler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -87,6 +93,50 @@ public class BraveSamplerConfigurationTests {
 				}));
 	}
 
+	@Test
+	void should_replace_refreshable_sampler_when_sampler_properties_change() {
+		this.contextRunner.withUserConfiguration(WithTracingCustomizer.class, WithRefreshScope.class)
+				.withPropertyValues("spring.sleuth.sampler.probability=0").run((context -> {
+					Sampler sampler = context.getBean(Sampler.class);
+					BDDAssertions.then(AopUtils.isAopProxy(sampler)).isFalse();
+					BDDAssertions.then(sampler).isInstanceOf(RefreshableSampler.class);
+					Sampler delegate = ((RefreshableSampler) sampler).delegate();
+					BDDAssertions.then(sampler.isSampled(1L)).isFalse();
+
+					TestPropertyValues.of("spring.sleuth.sampler.probability=1")
+							.applyTo(context.getSourceApplicationContext().getEnvironment());
+					context.publishEvent(
+							new EnvironmentChangeEvent(Collections.singleton("spring.sleuth.sampler.probability")));
+
+					BDDAssertions.then(((RefreshableSampler) sampler).delegate()).isNotSameAs(delegate);
+					BDDAssertions.then(sampler.isSampled(1L)).isTrue();
+				}));
+	}
+
+	@Test
+	void should_not_replace_refreshable_sampler_when_other_properties_change() {
+		this.contextRunner.withUserConfiguration(WithTracingCustomizer.class, WithRefreshScope.class)
+				.run((context -> {
+					RefreshableSampler sampler = context.getBean(RefreshableSampler.class);
+					Sampler delegate = sampler.delegate();
+
+					context.publishEvent(new EnvironmentChangeEvent(Collections.singleton("spring.application.name")));
+
+					BDDAssertions.then(sampler.delegate()).isSameAs(delegate);
+				}));
+	}
+
+	@Test
+	void should_match_sampler_properties_in_relaxed_form_only() {
+		BDDAssertions.then(RefreshableSampler.isSamplerProperty("spring.sleuth.sampler.probability")).isTrue();
+		BDDAssertions.then(RefreshableSampler.isSamplerProperty("spring.sleuth.sampler.rate")).isTrue();
+		BDDAssertions.then(RefreshableSampler.isSamplerProperty("SPRING_SLEUTH_SAMPLER_PROBABILITY")).isTrue();
+		BDDAssertions.then(RefreshableSampler.isSamplerProperty("spring.sleuth.sampler")).isFalse();
+		BDDAssertions.then(RefreshableSampler.isSamplerProperty("spring.sleuth.sampler-foo.enabled")).isFalse();
+		BDDAssertions.then(RefreshableSampler.isSamplerProperty("SPRING_SLEUTH_SAMPLERFOO")).isFalse();
+		BDDAssertions.then(RefreshableSampler.isSamplerProperty("spring.application.name")).isFalse();
+	}
+
 	@Test
 	void samplerFromProps_probability() {
 		SamplerProperties properties = new SamplerProperties();
@@ -94,7 +144,7 @@ public class BraveSamplerConfigurationTests {
 
 		Sampler sampler = BraveSamplerConfiguration.samplerFromProps(properties);
 
-		BDDAssertions.then(sampler).isInstanceOf(brave.sampler.CountingSampler.class);
+		BDDAssertions.then(sampler).isInstanceOf(TraceIdProbabilityBasedSampler.class);
 	}
 
 	@Test
@@ -124,7 +174,7 @@ public class BraveSamplerConfigurationTests {
 
 		Sampler sampler = BraveSamplerConfiguration.samplerFromProps(properties);
 
-		BDDAssertions.then(sampler).isInstanceOf(brave.sampler.CountingSampler.class);
+		BDDAssertions.then(sampler).isInstanceOf(TraceIdProbabilityBasedSampler.class);
 	}
 
 	@Test
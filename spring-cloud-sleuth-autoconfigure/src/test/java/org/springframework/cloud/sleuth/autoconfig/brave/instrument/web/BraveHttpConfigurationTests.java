@@ -89,6 +89,19 @@ public class BraveHttpConfigurationTests {
 		});
 	}
 
+	@Test
+	public void configuresRouteRateLimitingServerSampler() {
+		contextRunner().withPropertyValues("spring.sleuth.web.skip-pattern=foo.*",
+				"spring.sleuth.sampler.route.enabled=true", "spring.sleuth.sampler.route.rate=1").run((context) -> {
+					SamplerFunction<HttpRequest> serverSampler = context.getBean(HttpTracing.class)
+							.serverRequestSampler();
+
+					then(serverSampler.trySample(mockHttpRequestForPath("foo"))).isFalse();
+					then(serverSampler.trySample(mockHttpRequestForPath("baz"))).isTrue();
+					then(serverSampler.trySample(mockHttpRequestForPath("baz"))).isFalse();
+				});
+	}
+
 	@Test
 	public void defaultsServerSamplerToDeferWhenSkipPatternCleared() {
 		contextRunner().withPropertyValues("spring.sleuth.web.skip-pattern").run((context) -> {
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.autoconfig.instrument.reactor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Hooks;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.cloud.sleuth.CurrentTraceContext;
+import org.springframework.cloud.sleuth.TraceContext;
+import org.springframework.cloud.sleuth.brave.bridge.BraveCurrentTraceContext;
+import org.springframework.cloud.sleuth.brave.bridge.BraveTraceContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class TraceContextQueueTests {
+
+	private static final String HOOK_KEY = TraceContextQueueTests.class.getName();
+
+	CurrentTraceContext currentTraceContext = new BraveCurrentTraceContext(ThreadLocalCurrentTraceContext.create());
+
+	TraceContext first = BraveTraceContext
+			.fromBrave(brave.propagation.TraceContext.newBuilder().traceId(1L).spanId(1L).build());
+
+	TraceContext second = BraveTraceContext
+			.fromBrave(brave.propagation.TraceContext.newBuilder().traceId(2L).spanId(2L).build());
+
+	Queue<Object> delegate = new ArrayDeque<>();
+
+	TraceContextQueue queue = new TraceContextQueue(this.delegate, this.currentTraceContext);
+
+	@Test
+	void should_store_the_context_only_when_it_changes() {
+		offer("a", this.first);
+		offer("b", this.first);
+		offer("c", this.second);
+		offer("d", null);
+		offer("e", null);
+
+		then(this.queue).hasSize(5).containsExactly("a", "b", "c", "d", "e");
+		then(this.delegate).hasSize(5);
+		Object[] elements = this.delegate.toArray();
+		then(elements[0]).isInstanceOf(TraceContextQueue.Envelope.class);
+		then(elements[1]).isEqualTo("b");
+		then(elements[2]).isInstanceOf(TraceContextQueue.Envelope.class);
+		then(elements[3]).isInstanceOf(TraceContextQueue.Envelope.class);
+		then(elements[4]).isEqualTo("e");
+	}
+
+	@Test
+	void should_restore_the_context_of_polled_elements_and_close_the_scope_when_empty() {
+		offer("a", this.first);
+		offer("b", this.first);
+		offer("c", this.second);
+		offer("d", null);
+
+		then(this.queue.peek()).isEqualTo("a");
+		then(this.currentTraceContext.context()).isNull();
+
+		then(this.queue.poll()).isEqualTo("a");
+		then(this.currentTraceContext.context()).isEqualTo(this.first);
+		then(this.queue.poll()).isEqualTo("b");
+		then(this.currentTraceContext.context()).isEqualTo(this.first);
+		then(this.queue.poll()).isEqualTo("c");
+		then(this.currentTraceContext.context()).isEqualTo(this.second);
+		then(this.queue.poll()).isEqualTo("d");
+		then(this.currentTraceContext.context()).isNull();
+
+		offer("e", this.first);
+		then(this.queue.poll()).isEqualTo("e");
+		then(this.currentTraceContext.context()).isEqualTo(this.first);
+		then(this.queue.poll()).isNull();
+		then(this.currentTraceContext.context()).isNull();
+	}
+
+	@Test
+	void should_not_leak_the_context_when_queue_gets_cleared() {
+		offer("a", this.first);
+		offer("b", this.first);
+
+		this.queue.clear();
+
+		then(this.queue).isEmpty();
+		then(this.currentTraceContext.context()).isNull();
+	}
+
+	@Test
+	void should_store_the_context_of_the_first_element_offered_after_clearing_the_queue() {
+		offer("a", this.first);
+		this.queue.clear();
+
+		offer("b", this.first);
+
+		then(this.delegate.toArray()).hasOnlyElementsOfType(TraceContextQueue.Envelope.class);
+		then(this.queue.poll()).isEqualTo("b");
+		then(this.currentTraceContext.context()).isEqualTo(this.first);
+		then(this.queue.poll()).isNull();
+	}
+
+	@Test
+	void should_store_the_context_when_only_its_baggage_changes() {
+		TraceContext withBaggage = BraveTraceContext.fromBrave(
+				BraveTraceContext.toBrave(this.first).toBuilder().addExtra(new Object()).build());
+
+		offer("a", this.first);
+		offer("b", withBaggage);
+
+		then(this.delegate.toArray()).hasOnlyElementsOfType(TraceContextQueue.Envelope.class);
+		this.queue.poll();
+		this.queue.poll();
+		then(BraveTraceContext.toBrave(this.currentTraceContext.context()).extra())
+				.isEqualTo(BraveTraceContext.toBrave(withBaggage).extra());
+		this.queue.poll();
+	}
+
+	@Test
+	void should_close_the_scope_when_checking_whether_queue_is_empty() {
+		offer("a", this.first);
+		offer("b", this.first);
+
+		then(this.queue.poll()).isEqualTo("a");
+		then(this.currentTraceContext.context()).isEqualTo(this.first);
+
+		then(this.queue.isEmpty()).isFalse();
+		then(this.currentTraceContext.context()).isNull();
+
+		then(this.queue.poll()).isEqualTo("b");
+		then(this.currentTraceContext.context()).isEqualTo(this.first);
+		this.queue.clear();
+		then(this.currentTraceContext.context()).isNull();
+	}
+
+	@Test
+	void should_close_the_scopes_left_open_when_the_scheduled_task_ends() {
+		TraceContextQueue other = new TraceContextQueue(new ArrayDeque<>(), this.currentTraceContext);
+		offer("a", this.first);
+		offer("b", this.first);
+		try (CurrentTraceContext.Scope scope = this.currentTraceContext.newScope(this.second)) {
+			other.offer("c");
+		}
+		List<TraceContext> contexts = new ArrayList<>();
+
+		new TraceContextQueue.ScheduleHook(task -> task).apply(() -> {
+			this.queue.poll();
+			other.poll();
+			contexts.add(this.currentTraceContext.context());
+		}).run();
+
+		then(contexts).containsExactly(this.second);
+		then(this.currentTraceContext.context()).isNull();
+		then(this.queue.poll()).isEqualTo("b");
+		then(this.currentTraceContext.context()).isEqualTo(this.first);
+		then(this.queue.poll()).isNull();
+		then(this.currentTraceContext.context()).isNull();
+	}
+
+	@Test
+	void should_clear_the_context_of_the_worker_thread_when_publish_on_emitted_the_requested_elements()
+			throws Exception {
+		ConfigurableApplicationContext springContext = BDDMockito.mock(ConfigurableApplicationContext.class);
+		BDDMockito.given(springContext.isActive()).willReturn(true);
+		BDDMockito.given(springContext.getBean(CurrentTraceContext.class)).willReturn(this.currentTraceContext);
+		Hooks.addQueueWrapper(HOOK_KEY, new TraceContextQueue.Wrapper(springContext));
+		Schedulers.onScheduleHook(HOOK_KEY, new TraceContextQueue.ScheduleHook(task -> task));
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		RequestingSubscriber subscriber = new RequestingSubscriber(3);
+		try {
+			try (CurrentTraceContext.Scope scope = this.currentTraceContext.newScope(this.first)) {
+				Flux.range(0, 100).hide().publishOn(Schedulers.fromExecutorService(executor), 8)
+						.subscribe(subscriber);
+			}
+
+			then(subscriber.received.await(5, TimeUnit.SECONDS)).isTrue();
+			then(subscriber.contexts).hasSize(3).containsOnly(this.first);
+			// not a scheduled task, so the context isn't cleared by the hook
+			then(executor.submit(() -> this.currentTraceContext.context()).get()).isNull();
+		}
+		finally {
+			subscriber.dispose();
+			Hooks.removeQueueWrapper(HOOK_KEY);
+			Schedulers.resetOnScheduleHook(HOOK_KEY);
+			executor.shutdownNow();
+		}
+	}
+
+	private void offer(Object element, TraceContext traceContext) {
+		if (traceContext == null) {
+			then(this.queue.offer(element)).isTrue();
+			return;
+		}
+		try (CurrentTraceContext.Scope scope = this.currentTraceContext.newScope(traceContext)) {
+			then(this.queue.offer(element)).isTrue();
+		}
+	}
+
+	class RequestingSubscriber extends BaseSubscriber<Integer> {
+
+		final List<TraceContext> contexts = new CopyOnWriteArrayList<>();
+
+		final CountDownLatch received;
+
+		private final int requested;
+
+		RequestingSubscriber(int requested) {
+			this.requested = requested;
+			this.received = new CountDownLatch(requested);
+		}
+
+		@Override
+		protected void hookOnSubscribe(Subscription subscription) {
+			request(this.requested);
+		}
+
+		@Override
+		protected void hookOnNext(Integer value) {
+			this.contexts.add(TraceContextQueueTests.this.currentTraceContext.context());
+			this.received.countDown();
+		}
+
+	}
+
+}
@@ -22,6 +22,7 @@ import java.util.concurrent.ExecutorService;
 
 import org.springframework.cloud.sleuth.CurrentTraceContext;
 import org.springframework.cloud.sleuth.TraceContext;
+import org.springframework.cloud.sleuth.Tracer;
 
 /**
  * Brave implementation of a {@link CurrentTraceContext}.
@@ -48,12 +49,12 @@ public class BraveCurrentTraceContext implements CurrentTraceContext {
 
 	@Override
 	public Scope newScope(TraceContext context) {
-		return new BraveScope(this.delegate.newScope(BraveTraceContext.toBrave(context)));
+		return BraveScope.wrap(this.delegate.newScope(BraveTraceContext.toBrave(context)));
 	}
 
 	@Override
 	public Scope maybeScope(TraceContext context) {
-		return new BraveScope(this.delegate.maybeScope(BraveTraceContext.toBrave(context)));
+		return BraveScope.wrap(this.delegate.maybeScope(BraveTraceContext.toBrave(context)));
 	}
 
 	@Override
@@ -86,7 +87,9 @@ public class BraveCurrentTraceContext implements CurrentTraceContext {
 
 }
 
-class BraveScope implements CurrentTraceContext.Scope {
+class BraveScope implements CurrentTraceContext.Scope, Tracer.SpanInScope {
+
+	static final BraveScope NOOP = new BraveScope(brave.propagation.CurrentTraceContext.Scope.NOOP);
 
 	private final brave.propagation.CurrentTraceContext.Scope delegate;
 
@@ -94,6 +97,10 @@ class BraveScope implements CurrentTraceContext.Scope {
 		this.delegate = delegate;
 	}
 
+	static BraveScope wrap(brave.propagation.CurrentTraceContext.Scope delegate) {
+		return delegate == brave.propagation.CurrentTraceContext.Scope.NOOP ? NOOP : new BraveScope(delegate);
+	}
+
 	@Override
 	public void close() {
 		this.delegate.close();
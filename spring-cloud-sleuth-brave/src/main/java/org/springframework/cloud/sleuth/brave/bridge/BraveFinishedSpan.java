@@ -18,6 +18,7 @@ package org.springframework.cloud.sleuth.brave.bridge;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 import brave.handler.MutableSpan;
 
@@ -25,7 +26,8 @@ import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.exporter.FinishedSpan;
 
 /**
- * Brave implementation of a {@link FinishedSpan}.
+ * Brave implementation of a {@link FinishedSpan}. Modifications are applied directly to
+ * the underlying {@link MutableSpan}.
  *
  * @author Marcin Grzejszczak
  * @since 3.0.0
@@ -111,6 +113,48 @@ public class BraveFinishedSpan implements FinishedSpan {
 		return this.mutableSpan.remoteServiceName();
 	}
 
+	@Override
+	public FinishedSpan setName(String name) {
+		this.mutableSpan.name(name);
+		return this;
+	}
+
+	@Override
+	public FinishedSpan setTag(String key, String value) {
+		this.mutableSpan.tag(key, value);
+		return this;
+	}
+
+	@Override
+	public FinishedSpan removeTag(String key) {
+		this.mutableSpan.removeTag(key);
+		return this;
+	}
+
+	@Override
+	public FinishedSpan updateTags(BiFunction<String, String, String> updater) {
+		this.mutableSpan.forEachTag(updater::apply);
+		return this;
+	}
+
+	@Override
+	public FinishedSpan updateEvents(BiFunction<Long, String, String> updater) {
+		this.mutableSpan.forEachAnnotation(updater::apply);
+		return this;
+	}
+
+	@Override
+	public FinishedSpan setRemoteServiceName(String remoteServiceName) {
+		this.mutableSpan.remoteServiceName(remoteServiceName);
+		return this;
+	}
+
+	@Override
+	public FinishedSpan setError(Throwable error) {
+		this.mutableSpan.error(error);
+		return this;
+	}
+
 	public static FinishedSpan fromBrave(MutableSpan mutableSpan) {
 		return new BraveFinishedSpan(mutableSpan);
 	}
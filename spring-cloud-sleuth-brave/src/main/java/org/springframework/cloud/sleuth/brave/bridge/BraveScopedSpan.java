@@ -31,6 +31,8 @@ class BraveScopedSpan implements ScopedSpan {
 
 	final brave.ScopedSpan span;
 
+	private TraceContext context;
+
 	BraveScopedSpan(brave.ScopedSpan span) {
 		this.span = span;
 	}
@@ -42,27 +44,33 @@ class BraveScopedSpan implements ScopedSpan {
 
 	@Override
 	public TraceContext context() {
-		return new BraveTraceContext(this.span.context());
+		// the context of a span never changes
+		TraceContext context = this.context;
+		if (context == null) {
+			context = new BraveTraceContext(this.span.context());
+			this.context = context;
+		}
+		return context;
 	}
 
 	@Override
 	public ScopedSpan name(String name) {
-		return new BraveScopedSpan(this.span.name(name));
+		return wrap(this.span.name(name));
 	}
 
 	@Override
 	public ScopedSpan tag(String key, String value) {
-		return new BraveScopedSpan(this.span.tag(key, value));
+		return wrap(this.span.tag(key, value));
 	}
 
 	@Override
 	public ScopedSpan event(String value) {
-		return new BraveScopedSpan(this.span.annotate(value));
+		return wrap(this.span.annotate(value));
 	}
 
 	@Override
 	public ScopedSpan error(Throwable throwable) {
-		return new BraveScopedSpan(this.span.error(throwable));
+		return wrap(this.span.error(throwable));
 	}
 
 	@Override
@@ -70,6 +78,14 @@ class BraveScopedSpan implements ScopedSpan {
 		this.span.finish();
 	}
 
+	/**
+	 * Brave returns the same span from its fluent methods, so there's no need to wrap it
+	 * again.
+	 */
+	private ScopedSpan wrap(brave.ScopedSpan span) {
+		return span == this.span ? this : new BraveScopedSpan(span);
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) {
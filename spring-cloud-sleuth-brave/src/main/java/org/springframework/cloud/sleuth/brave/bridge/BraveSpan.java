@@ -31,6 +31,8 @@ public class BraveSpan implements Span {
 
 	final brave.Span delegate;
 
+	private TraceContext context;
+
 	public BraveSpan(brave.Span delegate) {
 		this.delegate = delegate;
 	}
@@ -45,27 +47,33 @@ public class BraveSpan implements Span {
 		if (this.delegate == null) {
 			return null;
 		}
-		return new BraveTraceContext(this.delegate.context());
+		// the context of a span never changes
+		TraceContext context = this.context;
+		if (context == null) {
+			context = new BraveTraceContext(this.delegate.context());
+			this.context = context;
+		}
+		return context;
 	}
 
 	@Override
 	public Span start() {
-		return new BraveSpan(this.delegate.start());
+		return wrap(this.delegate.start());
 	}
 
 	@Override
 	public Span name(String name) {
-		return new BraveSpan(this.delegate.name(name));
+		return wrap(this.delegate.name(name));
 	}
 
 	@Override
 	public Span event(String value) {
-		return new BraveSpan(this.delegate.annotate(value));
+		return wrap(this.delegate.annotate(value));
 	}
 
 	@Override
 	public Span tag(String key, String value) {
-		return new BraveSpan(this.delegate.tag(key, value));
+		return wrap(this.delegate.tag(key, value));
 	}
 
 	@Override
@@ -73,7 +81,7 @@ public class BraveSpan implements Span {
 		String message = throwable.getMessage() == null ? throwable.getClass().getSimpleName() : throwable.getMessage();
 		this.delegate.tag("error", message);
 		this.delegate.error(throwable);
-		return new BraveSpan(this.delegate);
+		return this;
 	}
 
 	@Override
@@ -86,6 +94,14 @@ public class BraveSpan implements Span {
 		this.delegate.abandon();
 	}
 
+	/**
+	 * Brave returns the same span from its fluent methods, so there's no need to wrap it
+	 * again. A lazy span returns the span it resolved to instead.
+	 */
+	private Span wrap(brave.Span span) {
+		return span == this.delegate ? this : new BraveSpan(span);
+	}
+
 	@Override
 	public Span remoteServiceName(String remoteServiceName) {
 		this.delegate.remoteServiceName(remoteServiceName);
@@ -81,7 +81,12 @@ public class BraveTraceContext implements TraceContext {
 			return false;
 		}
 		BraveTraceContext that = (BraveTraceContext) o;
-		return Objects.equals(this.traceContext, that.traceContext);
+		if (this.traceContext == that.traceContext) {
+			return true;
+		}
+		// Brave's contexts are equal regardless of their extra fields, like baggage
+		return Objects.equals(this.traceContext, that.traceContext)
+				&& this.traceContext.extra().equals(that.traceContext.extra());
 	}
 
 	@Override
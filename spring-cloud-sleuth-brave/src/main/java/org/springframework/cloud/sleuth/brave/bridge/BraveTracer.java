@@ -26,6 +26,7 @@ import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.SpanCustomizer;
 import org.springframework.cloud.sleuth.TraceContext;
 import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.lang.Nullable;
 
 /**
  * Brave implementation of a {@link Tracer}.
@@ -37,10 +38,26 @@ public class BraveTracer implements Tracer {
 
 	private final brave.Tracer tracer;
 
+	@Nullable
+	private final brave.propagation.CurrentTraceContext currentTraceContext;
+
 	private final BraveBaggageManager braveBaggageManager;
 
 	public BraveTracer(brave.Tracer tracer, BraveBaggageManager braveBaggageManager) {
+		this(tracer, null, braveBaggageManager);
+	}
+
+	/**
+	 * @param tracer Brave tracer
+	 * @param currentTraceContext current trace context used by the Brave tracer, lets
+	 * the scopes be opened without allocating wrappers
+	 * @param braveBaggageManager baggage manager
+	 * @since 3.0.4
+	 */
+	public BraveTracer(brave.Tracer tracer, @Nullable brave.propagation.CurrentTraceContext currentTraceContext,
+			BraveBaggageManager braveBaggageManager) {
 		this.tracer = tracer;
+		this.currentTraceContext = currentTraceContext;
 		this.braveBaggageManager = braveBaggageManager;
 	}
 
@@ -58,7 +75,12 @@ public class BraveTracer implements Tracer {
 
 	@Override
 	public SpanInScope withSpan(Span span) {
-		return new BraveSpanInScope(tracer.withSpanInScope(span == null ? null : ((BraveSpan) span).delegate));
+		brave.Span delegate = span == null ? null : ((BraveSpan) span).delegate;
+		if (this.currentTraceContext == null) {
+			return new BraveSpanInScope(tracer.withSpanInScope(delegate));
+		}
+		// same as Brave's withSpanInScope but without its own scope wrapper
+		return BraveScope.wrap(this.currentTraceContext.newScope(delegate == null ? null : delegate.context()));
 	}
 
 	@Override
@@ -17,10 +17,16 @@
 package org.springframework.cloud.sleuth.brave.bridge;
 
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import brave.internal.propagation.StringPropagationAdapter;
@@ -67,10 +73,31 @@ public class CompositePropagationFactorySupplier implements PropagationFactorySu
 
 class CompositePropagationFactory extends Propagation.Factory implements Propagation<String> {
 
+	// Instrumentations keep their setters and getters in constants, so the caches hold
+	// one entry per instrumentation. A setter or getter lambda that captures state is a
+	// new instance per call and would never hit the cache. Clearing the cache when it's
+	// full bounds the memory in that case. Building the composite injector or
+	// extractor again only costs what every call did without the cache.
+	private static final int MAX_CACHED_PLANS = 256;
+
 	private final Map<PropagationType, Map.Entry<Propagation.Factory, Propagation<String>>> mapping = new HashMap<>();
 
 	private final List<PropagationType> types;
 
+	private final List<Map.Entry<Propagation.Factory, Propagation<String>>> propagations;
+
+	private final Map<Setter<?, String>, TraceContext.Injector<?>> injectors = new ConcurrentHashMap<>();
+
+	private final Map<Getter<?, String>, TraceContext.Extractor<?>> extractors = new ConcurrentHashMap<>();
+
+	private volatile List<String> keys;
+
+	private volatile Set<String> sharedKeys;
+
+	private volatile Boolean supportsJoin;
+
+	private volatile Boolean requires128BitTraceId;
+
 	CompositePropagationFactory(BeanFactory beanFactory, BraveBaggageManager braveBaggageManager,
 			List<String> localFields, List<PropagationType> types) {
 		this.types = types;
@@ -87,6 +114,8 @@ class CompositePropagationFactory extends Propagation.Factory implements Propaga
 				beanFactory.getBeanProvider(Factory.class));
 		this.mapping.put(PropagationType.CUSTOM,
 				new AbstractMap.SimpleEntry<>(lazyPropagationFactory, lazyPropagationFactory.get()));
+		this.propagations = this.types.stream().map(this.mapping::get).filter(Objects::nonNull)
+				.collect(Collectors.toList());
 	}
 
 	private Factory b3Factory() {
@@ -95,37 +124,105 @@ class CompositePropagationFactory extends Propagation.Factory implements Propaga
 
 	@Override
 	public List<String> keys() {
-		return this.types.stream().map(this.mapping::get).flatMap(p -> p.getValue().keys().stream())
-				.collect(Collectors.toList());
+		List<String> keys = this.keys;
+		if (keys == null) {
+			keys = Collections.unmodifiableList(this.propagations.stream().flatMap(p -> p.getValue().keys().stream())
+					.collect(Collectors.toList()));
+			this.keys = keys;
+		}
+		return keys;
+	}
+
+	/**
+	 * @return keys read by more than one of the propagation formats
+	 */
+	Set<String> sharedKeys() {
+		Set<String> sharedKeys = this.sharedKeys;
+		if (sharedKeys == null) {
+			Set<String> seen = new HashSet<>();
+			sharedKeys = new HashSet<>();
+			for (Map.Entry<Factory, Propagation<String>> propagation : this.propagations) {
+				for (String key : new HashSet<>(propagation.getValue().keys())) {
+					if (!seen.add(key)) {
+						sharedKeys.add(key);
+					}
+				}
+			}
+			this.sharedKeys = sharedKeys;
+		}
+		return sharedKeys;
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public <R> TraceContext.Injector<R> injector(Setter<R, String> setter) {
+		return (TraceContext.Injector<R>) cached(this.injectors, setter, this::compositeInjector);
+	}
+
+	private <R> TraceContext.Injector<R> compositeInjector(Setter<R, String> setter) {
+		List<TraceContext.Injector<R>> injectors = new ArrayList<>(this.propagations.size());
+		for (Map.Entry<Factory, Propagation<String>> propagation : this.propagations) {
+			injectors.add(propagation.getValue().injector(setter));
+		}
+		if (injectors.size() == 1) {
+			return injectors.get(0);
+		}
 		return (traceContext, request) -> {
-			this.types.stream().map(this.mapping::get)
-					.forEach(p -> p.getValue().injector(setter).inject(traceContext, request));
+			for (int i = 0; i < injectors.size(); i++) {
+				injectors.get(i).inject(traceContext, request);
+			}
 		};
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public <R> TraceContext.Extractor<R> extractor(Getter<R, String> getter) {
-		return request -> {
-			for (PropagationType type : this.types) {
-				Map.Entry<Factory, Propagation<String>> entry = this.mapping.get(type);
-				if (entry == null) {
-					continue;
-				}
-				Propagation<String> propagator = entry.getValue();
-				if (propagator == null || propagator == NoOpPropagation.INSTANCE) {
-					continue;
-				}
-				TraceContextOrSamplingFlags extract = propagator.extractor(getter).extract(request);
-				if (extract != TraceContextOrSamplingFlags.EMPTY) {
-					return extract;
-				}
+		return (TraceContext.Extractor<R>) cached(this.extractors, getter, this::compositeExtractor);
+	}
+
+	private <R> TraceContext.Extractor<R> compositeExtractor(Getter<R, String> getter) {
+		Set<String> sharedKeys = sharedKeys();
+		if (sharedKeys.isEmpty()) {
+			List<TraceContext.Extractor<R>> extractors = extractors(getter);
+			return request -> extract(extractors, request);
+		}
+		// the reads are remembered per extraction by wrapping the carrier
+		List<TraceContext.Extractor<SharedKeysCarrier<R>>> extractors = extractors(
+				new SharedKeysGetter<>(getter, sharedKeys));
+		return request -> extract(extractors, new SharedKeysCarrier<>(request));
+	}
+
+	private <C> List<TraceContext.Extractor<C>> extractors(Getter<C, String> getter) {
+		List<TraceContext.Extractor<C>> extractors = new ArrayList<>(this.propagations.size());
+		for (Map.Entry<Factory, Propagation<String>> propagation : this.propagations) {
+			Propagation<String> propagator = propagation.getValue();
+			if (propagator == null || propagator == NoOpPropagation.INSTANCE) {
+				continue;
 			}
-			return TraceContextOrSamplingFlags.EMPTY;
-		};
+			extractors.add(propagator.extractor(getter));
+		}
+		return extractors;
+	}
+
+	private static <C> TraceContextOrSamplingFlags extract(List<TraceContext.Extractor<C>> extractors, C carrier) {
+		for (int i = 0; i < extractors.size(); i++) {
+			TraceContextOrSamplingFlags extract = extractors.get(i).extract(carrier);
+			if (extract != TraceContextOrSamplingFlags.EMPTY) {
+				return extract;
+			}
+		}
+		return TraceContextOrSamplingFlags.EMPTY;
+	}
+
+	private static <K, V> V cached(Map<K, V> cache, K key, Function<K, V> function) {
+		V value = cache.get(key);
+		if (value != null) {
+			return value;
+		}
+		if (cache.size() >= MAX_CACHED_PLANS) {
+			cache.clear();
+		}
+		return cache.computeIfAbsent(key, function);
 	}
 
 	@Override
@@ -135,22 +232,28 @@ class CompositePropagationFactory extends Propagation.Factory implements Propaga
 
 	@Override
 	public boolean supportsJoin() {
-		return this.types.stream().map(this.mapping::get).allMatch(e -> e.getKey().supportsJoin());
+		Boolean supportsJoin = this.supportsJoin;
+		if (supportsJoin == null) {
+			supportsJoin = this.propagations.stream().allMatch(e -> e.getKey().supportsJoin());
+			this.supportsJoin = supportsJoin;
+		}
+		return supportsJoin;
 	}
 
 	@Override
 	public boolean requires128BitTraceId() {
-		return this.types.stream().map(this.mapping::get).allMatch(e -> e.getKey().requires128BitTraceId());
+		Boolean requires128BitTraceId = this.requires128BitTraceId;
+		if (requires128BitTraceId == null) {
+			requires128BitTraceId = this.propagations.stream().allMatch(e -> e.getKey().requires128BitTraceId());
+			this.requires128BitTraceId = requires128BitTraceId;
+		}
+		return requires128BitTraceId;
 	}
 
 	@Override
 	public TraceContext decorate(TraceContext context) {
-		for (PropagationType type : this.types) {
-			Map.Entry<Factory, Propagation<String>> entry = this.mapping.get(type);
-			if (entry == null) {
-				continue;
-			}
-			TraceContext decorate = entry.getKey().decorate(context);
+		for (int i = 0; i < this.propagations.size(); i++) {
+			TraceContext decorate = this.propagations.get(i).getKey().decorate(context);
 			if (decorate != context) {
 				return decorate;
 			}
@@ -158,6 +261,67 @@ class CompositePropagationFactory extends Propagation.Factory implements Propaga
 		return super.decorate(context);
 	}
 
+	/**
+	 * Carrier of a single extraction. Remembers the values of the keys that are read by
+	 * more than one propagation format, so that each such header is read from the actual
+	 * carrier at most once per extraction.
+	 *
+	 * @param <R> actual carrier type
+	 */
+	private static final class SharedKeysCarrier<R> {
+
+		private final R request;
+
+		private Map<String, String> reads;
+
+		private SharedKeysCarrier(R request) {
+			this.request = request;
+		}
+
+	}
+
+	/**
+	 * Reads the shared keys through the {@link SharedKeysCarrier}. Other keys are read
+	 * straight from the actual carrier.
+	 *
+	 * @param <R> actual carrier type
+	 */
+	private static final class SharedKeysGetter<R> implements Getter<SharedKeysCarrier<R>, String> {
+
+		private final Getter<R, String> delegate;
+
+		private final Set<String> sharedKeys;
+
+		private SharedKeysGetter(Getter<R, String> delegate, Set<String> sharedKeys) {
+			this.delegate = delegate;
+			this.sharedKeys = sharedKeys;
+		}
+
+		@Override
+		public String get(SharedKeysCarrier<R> carrier, String key) {
+			if (!this.sharedKeys.contains(key)) {
+				return this.delegate.get(carrier.request, key);
+			}
+			Map<String, String> reads = carrier.reads;
+			if (reads == null) {
+				reads = new HashMap<>(4);
+				carrier.reads = reads;
+			}
+			else if (reads.containsKey(key)) {
+				return reads.get(key);
+			}
+			String value = this.delegate.get(carrier.request, key);
+			reads.put(key, value);
+			return value;
+		}
+
+		@Override
+		public String toString() {
+			return this.delegate.toString();
+		}
+
+	}
+
 	@SuppressWarnings("unchecked")
 	private static final class LazyPropagationFactory extends Propagation.Factory {
 
@@ -226,14 +390,48 @@ class CompositePropagationFactory extends Propagation.Factory implements Propaga
 			return propagation().keys();
 		}
 
+		/**
+		 * The custom propagation gets resolved on first use, not when the injector is
+		 * created.
+		 */
 		@Override
 		public <R> TraceContext.Injector<R> injector(Setter<R, String> setter) {
-			return propagation().injector(setter);
+			return new TraceContext.Injector<R>() {
+
+				private volatile TraceContext.Injector<R> injector;
+
+				@Override
+				public void inject(TraceContext traceContext, R request) {
+					TraceContext.Injector<R> injector = this.injector;
+					if (injector == null) {
+						injector = propagation().injector(setter);
+						this.injector = injector;
+					}
+					injector.inject(traceContext, request);
+				}
+			};
 		}
 
+		/**
+		 * The custom propagation gets resolved on first use, not when the extractor is
+		 * created.
+		 */
 		@Override
 		public <R> TraceContext.Extractor<R> extractor(Getter<R, String> getter) {
-			return propagation().extractor(getter);
+			return new TraceContext.Extractor<R>() {
+
+				private volatile TraceContext.Extractor<R> extractor;
+
+				@Override
+				public TraceContextOrSamplingFlags extract(R request) {
+					TraceContext.Extractor<R> extractor = this.extractor;
+					if (extractor == null) {
+						extractor = propagation().extractor(getter);
+						this.extractor = extractor;
+					}
+					return extractor.extract(request);
+				}
+			};
 		}
 
 	}
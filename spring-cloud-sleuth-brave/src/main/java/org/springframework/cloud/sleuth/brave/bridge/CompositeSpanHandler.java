@@ -16,27 +16,38 @@
 
 package org.springframework.cloud.sleuth.brave.bridge;
 
-import java.util.Collections;
 import java.util.List;
 
 import brave.handler.MutableSpan;
 import brave.handler.SpanHandler;
 import brave.propagation.TraceContext;
 
+import org.springframework.cloud.sleuth.exporter.FinishedSpan;
 import org.springframework.cloud.sleuth.exporter.SpanFilter;
+import org.springframework.cloud.sleuth.exporter.SpanProcessor;
 
 /**
- * Merges {@link SpanFilter}s into a {@link SpanHandler}.
+ * Merges {@link SpanFilter}s and {@link SpanProcessor}s into a {@link SpanHandler}. A
+ * single {@link FinishedSpan} view is created per span and shared by all filters and
+ * processors. Filters are consulted in their declared order. Processors modify the
+ * accepted spans in place.
  *
  * @author Marcin Grzejszczak
  * @since 3.0.0
  */
 public class CompositeSpanHandler extends SpanHandler {
 
-	private final List<SpanFilter> exporters;
+	private final SpanFilter[] filters;
+
+	private final SpanProcessor[] processors;
 
 	public CompositeSpanHandler(List<SpanFilter> exporters) {
-		this.exporters = exporters == null ? Collections.emptyList() : exporters;
+		this(exporters, null);
+	}
+
+	public CompositeSpanHandler(List<SpanFilter> exporters, List<SpanProcessor> processors) {
+		this.filters = exporters == null ? new SpanFilter[0] : exporters.toArray(new SpanFilter[0]);
+		this.processors = processors == null ? new SpanProcessor[0] : processors.toArray(new SpanProcessor[0]);
 	}
 
 	@Override
@@ -52,11 +63,18 @@ public class CompositeSpanHandler extends SpanHandler {
 	}
 
 	private boolean shouldProcess(MutableSpan span) {
-		for (SpanFilter exporter : this.exporters) {
-			if (!exporter.isExportable(BraveFinishedSpan.fromBrave(span))) {
+		if (this.filters.length == 0 && this.processors.length == 0) {
+			return true;
+		}
+		FinishedSpan finishedSpan = BraveFinishedSpan.fromBrave(span);
+		for (SpanFilter filter : this.filters) {
+			if (!filter.isExportable(finishedSpan)) {
 				return false;
 			}
 		}
+		for (SpanProcessor processor : this.processors) {
+			processor.process(finishedSpan);
+		}
 		return true;
 	}
 
@@ -16,16 +16,13 @@
 
 package org.springframework.cloud.sleuth.brave.bridge;
 
-import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import brave.baggage.BaggageField;
 import brave.internal.baggage.BaggageFields;
@@ -92,28 +89,9 @@ class W3CPropagation extends Propagation.Factory implements Propagation<String>
 
 	private static final int TRACEPARENT_HEADER_SIZE = TRACE_OPTION_OFFSET + TRACE_OPTION_HEX_SIZE;
 
-	private static final String INVALID_TRACE_ID = "00000000000000000000000000000000";
-
-	private static final String INVALID_SPAN_ID = "0000000000000000";
-
-	// private static final char TRACESTATE_ENTRY_DELIMITER = ',';
-
-	private static final Set<String> VALID_VERSIONS;
-
-	private static final String VERSION_00 = "00";
-
-	static {
-		// A valid version is 1 byte representing an 8-bit unsigned integer, version ff is
-		// invalid.
-		VALID_VERSIONS = new HashSet<>();
-		for (int i = 0; i < 255; i++) {
-			String version = Long.toHexString(i);
-			if (version.length() < 2) {
-				version = '0' + version;
-			}
-			VALID_VERSIONS.add(version);
-		}
-	}
+	// A valid version is 1 byte representing an 8-bit unsigned integer, version ff is
+	// invalid.
+	private static final int INVALID_VERSION = 0xff;
 
 	private final W3CBaggagePropagator baggagePropagator;
 
@@ -133,6 +111,7 @@ class W3CPropagation extends Propagation.Factory implements Propagation<String>
 
 	@Override
 	public <R> TraceContext.Injector<R> injector(Setter<R, String> setter) {
+		TraceContext.Injector<R> baggageInjector = this.baggagePropagator.injector(setter);
 		return (context, carrier) -> {
 			Objects.requireNonNull(context, "context");
 			Objects.requireNonNull(setter, "setter");
@@ -140,37 +119,22 @@ class W3CPropagation extends Propagation.Factory implements Propagation<String>
 			chars[0] = VERSION.charAt(0);
 			chars[1] = VERSION.charAt(1);
 			chars[2] = TRACEPARENT_DELIMITER;
-			String traceId = padLeftWithZeros(context.traceIdString(), TRACE_ID_HEX_SIZE);
-			for (int i = 0; i < traceId.length(); i++) {
-				chars[TRACE_ID_OFFSET + i] = traceId.charAt(i);
-			}
+			BigendianEncoding.longToBase16String(context.traceIdHigh(), chars, TRACE_ID_OFFSET);
+			BigendianEncoding.longToBase16String(context.traceId(), chars, TRACE_ID_OFFSET + LONG_BASE16);
 			chars[SPAN_ID_OFFSET - 1] = TRACEPARENT_DELIMITER;
-			String spanId = context.spanIdString();
-			for (int i = 0; i < spanId.length(); i++) {
-				chars[SPAN_ID_OFFSET + i] = spanId.charAt(i);
-			}
+			BigendianEncoding.longToBase16String(context.spanId(), chars, SPAN_ID_OFFSET);
 			chars[TRACE_OPTION_OFFSET - 1] = TRACEPARENT_DELIMITER;
 			copyTraceFlagsHexTo(chars, TRACE_OPTION_OFFSET, context);
 			setter.put(carrier, TRACE_PARENT, new String(chars, 0, TRACEPARENT_HEADER_SIZE));
+			W3CTraceState traceState = context.findExtra(W3CTraceState.class);
+			if (traceState != null) {
+				setter.put(carrier, TRACE_STATE, traceState.value());
+			}
 			// Add baggage
-			this.baggagePropagator.injector(setter).inject(context, carrier);
+			baggageInjector.inject(context, carrier);
 		};
 	}
 
-	private String padLeftWithZeros(String string, int length) {
-		if (string.length() >= length) {
-			return string;
-		}
-		else {
-			StringBuilder sb = new StringBuilder(length);
-			for (int i = string.length(); i < length; i++) {
-				sb.append('0');
-			}
-
-			return sb.append(string).toString();
-		}
-	}
-
 	void copyTraceFlagsHexTo(char[] dest, int destOffset, TraceContext context) {
 		dest[destOffset] = '0';
 		dest[destOffset + 1] = Boolean.TRUE.equals(context.sampled()) ? '1' : '0';
@@ -184,7 +148,7 @@ class W3CPropagation extends Propagation.Factory implements Propagation<String>
 			if (traceParent == null) {
 				return withBaggage(TraceContextOrSamplingFlags.EMPTY, carrier, getter);
 			}
-			TraceContext contextFromParentHeader = extractContextFromTraceParent(traceParent);
+			TraceContext.Builder contextFromParentHeader = extractContextFromTraceParent(traceParent);
 			if (contextFromParentHeader == null) {
 				return withBaggage(TraceContextOrSamplingFlags.EMPTY, carrier, getter);
 			}
@@ -201,35 +165,22 @@ class W3CPropagation extends Propagation.Factory implements Propagation<String>
 		return this.baggagePropagator.contextWithBaggage(carrier, context, getter);
 	}
 
-	TraceContextOrSamplingFlags context(TraceContext contextFromParentHeader, String traceStateHeader) {
-		if (traceStateHeader == null || traceStateHeader.isEmpty()) {
-			return TraceContextOrSamplingFlags.create(contextFromParentHeader);
-		}
-		try {
-			return TraceContextOrSamplingFlags
-					.create(TraceContext.newBuilder().traceId(contextFromParentHeader.traceId())
-							.traceIdHigh(contextFromParentHeader.traceIdHigh()).spanId(contextFromParentHeader.spanId())
-							.sampled(contextFromParentHeader.sampled()).shared(true).build());
-		}
-		catch (IllegalArgumentException e) {
-			logger.info("Unparseable tracestate header. Returning span context without state.");
-			return TraceContextOrSamplingFlags.create(contextFromParentHeader);
+	/**
+	 * The {@code tracestate} header is kept as is, it gets parsed only when its entries
+	 * are read.
+	 */
+	TraceContextOrSamplingFlags context(TraceContext.Builder contextFromParentHeader, String traceStateHeader) {
+		if (traceStateHeader != null && !traceStateHeader.isEmpty()) {
+			contextFromParentHeader.addExtra(new W3CTraceState(traceStateHeader));
 		}
+		return TraceContextOrSamplingFlags.create(contextFromParentHeader.build());
 	}
 
-	private static boolean isTraceIdValid(CharSequence traceId) {
-		return (traceId.length() == TRACE_ID_HEX_SIZE) && !INVALID_TRACE_ID.contentEquals(traceId)
-				&& BigendianEncoding.isValidBase16String(traceId);
-	}
-
-	private static boolean isSpanIdValid(String spanId) {
-		return (spanId.length() == SPAN_ID_HEX_SIZE) && !INVALID_SPAN_ID.equals(spanId)
-				&& BigendianEncoding.isValidBase16String(spanId);
-	}
-
-	private static TraceContext extractContextFromTraceParent(String traceparent) {
-		// TODO(bdrutu): Do we need to verify that version is hex and that
-		// for the version the length is the expected one?
+	/**
+	 * Reads the hex values directly from the header, without creating intermediate
+	 * strings.
+	 */
+	private static TraceContext.Builder extractContextFromTraceParent(CharSequence traceparent) {
 		boolean isValid = (traceparent.length() == TRACEPARENT_HEADER_SIZE
 				|| (traceparent.length() > TRACEPARENT_HEADER_SIZE
 						&& traceparent.charAt(TRACEPARENT_HEADER_SIZE) == TRACEPARENT_DELIMITER))
@@ -242,27 +193,22 @@ class W3CPropagation extends Propagation.Factory implements Propagation<String>
 		}
 
 		try {
-			String version = traceparent.substring(0, 2);
-			if (!VALID_VERSIONS.contains(version)) {
+			int version = BigendianEncoding.byteFromBase16String(traceparent, 0) & 0xff;
+			if (version == INVALID_VERSION) {
 				return null;
 			}
-			if (version.equals(VERSION_00) && traceparent.length() > TRACEPARENT_HEADER_SIZE) {
+			if (version == 0 && traceparent.length() > TRACEPARENT_HEADER_SIZE) {
 				return null;
 			}
-
-			String traceId = traceparent.substring(TRACE_ID_OFFSET, TRACE_ID_OFFSET + TRACE_ID_HEX_SIZE);
-			String spanId = traceparent.substring(SPAN_ID_OFFSET, SPAN_ID_OFFSET + SPAN_ID_HEX_SIZE);
-			if (isTraceIdValid(traceId) && isSpanIdValid(spanId)) {
-				String traceIdHigh = traceId.substring(0, traceId.length() / 2);
-				String traceIdLow = traceId.substring(traceId.length() / 2);
-				byte isSampled = TraceFlags.byteFromHex(traceparent, TRACE_OPTION_OFFSET);
-				return TraceContext.newBuilder().shared(true)
-						.traceIdHigh(BigendianEncoding.longFromBase16String(traceIdHigh))
-						.traceId(BigendianEncoding.longFromBase16String(traceIdLow))
-						.spanId(BigendianEncoding.longFromBase16String(spanId))
-						.sampled(isSampled == TraceFlags.IS_SAMPLED).build();
+			long traceIdHigh = BigendianEncoding.longFromBase16String(traceparent, TRACE_ID_OFFSET);
+			long traceIdLow = BigendianEncoding.longFromBase16String(traceparent, TRACE_ID_OFFSET + LONG_BASE16);
+			long spanId = BigendianEncoding.longFromBase16String(traceparent, SPAN_ID_OFFSET);
+			if ((traceIdHigh == 0L && traceIdLow == 0L) || spanId == 0L) {
+				return null;
 			}
-			return null;
+			byte isSampled = TraceFlags.byteFromHex(traceparent, TRACE_OPTION_OFFSET);
+			return TraceContext.newBuilder().shared(true).traceIdHigh(traceIdHigh).traceId(traceIdLow).spanId(spanId)
+					.sampled(isSampled == TraceFlags.IS_SAMPLED);
 		}
 		catch (IllegalArgumentException e) {
 			logger.info("Unparseable traceparent header. Returning INVALID span context.");
@@ -272,6 +218,29 @@ class W3CPropagation extends Propagation.Factory implements Propagation<String>
 
 }
 
+/**
+ * Opaque value of the {@code tracestate} header, kept in the
+ * {@link TraceContext#extra()} so that it can be propagated further.
+ */
+final class W3CTraceState {
+
+	private final String value;
+
+	W3CTraceState(String value) {
+		this.value = value;
+	}
+
+	String value() {
+		return this.value;
+	}
+
+	@Override
+	public String toString() {
+		return "W3CTraceState{" + this.value + "}";
+	}
+
+}
+
 /**
  * Taken from OpenTelemetry API.
  */
@@ -283,13 +252,31 @@ class W3CBaggagePropagator {
 
 	private static final List<String> FIELDS = singletonList(FIELD);
 
+	private static final char ENTRIES_DELIMITER = ',';
+
+	private static final char KEY_VALUE_DELIMITER = '=';
+
+	private static final char METADATA_DELIMITER = ';';
+
+	// Builders that grew beyond this size are not kept for the next header
+	private static final int MAX_REUSED_BUILDER_CAPACITY = 8 * 1024;
+
+	private static final ThreadLocal<StringBuilder> HEADER_BUILDER = ThreadLocal
+			.withInitial(() -> new StringBuilder(128));
+
 	private final BraveBaggageManager braveBaggageManager;
 
-	private final List<String> localFields;
+	// BaggageField equality is based on the lower case name, so the lookup doesn't
+	// allocate
+	private final Set<BaggageField> localFields;
 
 	W3CBaggagePropagator(BraveBaggageManager braveBaggageManager, List<String> localFields) {
 		this.braveBaggageManager = braveBaggageManager;
-		this.localFields = localFields;
+		Set<BaggageField> fields = new HashSet<>();
+		for (String localField : localFields) {
+			fields.add(BaggageField.create(localField));
+		}
+		this.localFields = fields;
 	}
 
 	public List<String> keys() {
@@ -299,27 +286,51 @@ class W3CBaggagePropagator {
 	public <R> TraceContext.Injector<R> injector(Propagation.Setter<R, String> setter) {
 		return (context, carrier) -> {
 			BaggageFields extra = context.findExtra(BaggageFields.class);
-			if (extra == null || extra.getAllFields().isEmpty()) {
+			if (extra == null) {
+				return;
+			}
+			List<BaggageField> fields = extra.getAllFields();
+			if (fields.isEmpty()) {
 				return;
 			}
-			StringBuilder headerContent = new StringBuilder();
+			W3CBaggageHeader cache = context.findExtra(W3CBaggageHeader.class);
+			String header = cache != null ? cache.get(extra, fields) : null;
+			if (header == null) {
+				header = encode(extra, fields);
+				if (cache != null) {
+					cache.set(extra, fields, header);
+				}
+			}
+			if (!header.isEmpty()) {
+				setter.put(carrier, FIELD, header);
+			}
+		};
+	}
+
+	private String encode(BaggageFields extra, List<BaggageField> fields) {
+		StringBuilder headerContent = HEADER_BUILDER.get();
+		headerContent.setLength(0);
+		for (int i = 0; i < fields.size(); i++) {
+			BaggageField field = fields.get(i);
 			// We ignore local keys - they won't get propagated
-			String[] strings = this.localFields.toArray(new String[0]);
-			Map<String, String> filtered = extra.toMapFilteringFieldNames(strings);
-			for (Map.Entry<String, String> entry : filtered.entrySet()) {
-				headerContent.append(entry.getKey()).append("=").append(entry.getValue());
-				// TODO: [OTEL] No metadata support
-				// String metadataValue = entry.getEntryMetadata().getValue();
-				// if (metadataValue != null && !metadataValue.isEmpty()) {
-				// headerContent.append(";").append(metadataValue);
-				// }
-				headerContent.append(",");
+			if (this.localFields.contains(field)) {
+				continue;
+			}
+			String value = extra.getValue(field);
+			if (value == null) {
+				continue;
 			}
 			if (headerContent.length() > 0) {
-				headerContent.setLength(headerContent.length() - 1);
-				setter.put(carrier, FIELD, headerContent.toString());
+				headerContent.append(ENTRIES_DELIMITER);
 			}
-		};
+			// TODO: [OTEL] No metadata support
+			headerContent.append(field.name()).append(KEY_VALUE_DELIMITER).append(value);
+		}
+		String header = headerContent.toString();
+		if (headerContent.capacity() > MAX_REUSED_BUILDER_CAPACITY) {
+			HEADER_BUILDER.remove();
+		}
+		return header;
 	}
 
 	<R> TraceContextOrSamplingFlags contextWithBaggage(R carrier, TraceContextOrSamplingFlags context,
@@ -332,47 +343,129 @@ class W3CBaggagePropagator {
 			return context;
 		}
 		TraceContextOrSamplingFlags.Builder builder = context.toBuilder();
-		List<AbstractMap.SimpleEntry<BaggageField, String>> pairs = addBaggageToContext(baggageHeader, builder);
+		List<BaggageField> fields = new ArrayList<>();
+		List<String> values = new ArrayList<>();
+		addBaggageToContext(baggageHeader, builder, fields, values);
 		TraceContextOrSamplingFlags built = builder.build();
-		pairs.forEach(e -> {
-			BaggageField baggage = e.getKey();
-			baggage.updateValue(built, e.getValue());
-		});
+		for (int i = 0; i < fields.size(); i++) {
+			fields.get(i).updateValue(built, values.get(i));
+		}
 		return built;
 	}
 
-	List<AbstractMap.SimpleEntry<BaggageField, String>> addBaggageToContext(String baggageHeader,
-			TraceContextOrSamplingFlags.Builder builder) {
-		List<AbstractMap.SimpleEntry<BaggageField, String>> pairs = new ArrayList<>();
-		String[] entries = baggageHeader.split(",");
-		for (String entry : entries) {
-			int beginningOfMetadata = entry.indexOf(";");
-			if (beginningOfMetadata > 0) {
-				entry = entry.substring(0, beginningOfMetadata);
+	/**
+	 * Tokenizes the header in a single pass. Entries are separated by {@code ,}, the key
+	 * from the value by the first {@code =} and the (ignored) metadata starts with the
+	 * first {@code ;}.
+	 */
+	void addBaggageToContext(String baggageHeader, TraceContextOrSamplingFlags.Builder builder,
+			List<BaggageField> fields, List<String> values) {
+		int length = baggageHeader.length();
+		int start = 0;
+		while (start < length) {
+			int keyValueDelimiter = -1;
+			int metadataDelimiter = -1;
+			int end = start;
+			for (; end < length; end++) {
+				char c = baggageHeader.charAt(end);
+				if (c == ENTRIES_DELIMITER) {
+					break;
+				}
+				else if (c == KEY_VALUE_DELIMITER && keyValueDelimiter == -1 && metadataDelimiter == -1) {
+					keyValueDelimiter = end;
+				}
+				else if (c == METADATA_DELIMITER && metadataDelimiter == -1) {
+					metadataDelimiter = end;
+				}
 			}
-			String[] keyAndValue = entry.split("=");
-			for (int i = 0; i < keyAndValue.length; i += 2) {
+			if (keyValueDelimiter != -1) {
+				String key = trimmed(baggageHeader, start, keyValueDelimiter);
+				String value = trimmed(baggageHeader, keyValueDelimiter + 1,
+						metadataDelimiter != -1 ? metadataDelimiter : end);
 				try {
-					String key = keyAndValue[i].trim();
-					String value = keyAndValue[i + 1].trim();
 					BaggageInScope baggage = this.braveBaggageManager.createBaggage(key);
-					BaggageField field = ((BraveBaggageInScope) baggage).unwrap();
-					pairs.add(new AbstractMap.SimpleEntry<>(field, value));
+					fields.add(((BraveBaggageInScope) baggage).unwrap());
+					values.add(value);
 				}
 				catch (Exception e) {
 					if (log.isDebugEnabled()) {
-						log.debug("Exception occurred while trying to parse baggage with key value ["
-								+ Arrays.toString(keyAndValue) + "]. Will ignore that entry.", e);
+						log.debug("Exception occurred while trying to parse baggage with key [" + key + "] and value ["
+								+ value + "]. Will ignore that entry.", e);
 					}
 				}
 			}
+			start = end + 1;
 		}
 		// TODO: [OTEL] Magic number for max dynamic entries
-		builder.addExtra(BaggageFields
-				.newFactory(pairs.stream().map(AbstractMap.SimpleEntry::getKey).collect(Collectors.toList()),
-						pairs.size() * 2)
-				.create());
-		return pairs;
+		builder.addExtra(BaggageFields.newFactory(fields, fields.size() * 2).create());
+		builder.addExtra(new W3CBaggageHeader());
+	}
+
+	private static String trimmed(String value, int start, int end) {
+		while (start < end && value.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && value.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		return value.substring(start, end);
+	}
+
+}
+
+/**
+ * Remembers the last {@code baggage} header encoded for an extracted context and its
+ * children. As long as none of the baggage values changed, the same header is injected
+ * again instead of being encoded on every outgoing call. The cache is keyed on the values
+ * rather than on the {@link BaggageFields} instance, since every child span gets its own
+ * copy of them.
+ */
+final class W3CBaggageHeader {
+
+	private volatile Encoded encoded;
+
+	/**
+	 * @return the previously encoded header or {@code null} if the baggage changed since
+	 */
+	String get(BaggageFields extra, List<BaggageField> fields) {
+		Encoded encoded = this.encoded;
+		if (encoded == null || encoded.fields.length != fields.size()) {
+			return null;
+		}
+		for (int i = 0; i < encoded.fields.length; i++) {
+			BaggageField field = fields.get(i);
+			// copies of the baggage share the value instances, so this is mostly a
+			// reference check
+			if (!encoded.fields[i].equals(field) || !Objects.equals(encoded.values[i], extra.getValue(field))) {
+				return null;
+			}
+		}
+		return encoded.header;
+	}
+
+	void set(BaggageFields extra, List<BaggageField> fields, String header) {
+		BaggageField[] fieldsSnapshot = fields.toArray(new BaggageField[0]);
+		String[] values = new String[fieldsSnapshot.length];
+		for (int i = 0; i < fieldsSnapshot.length; i++) {
+			values[i] = extra.getValue(fieldsSnapshot[i]);
+		}
+		this.encoded = new Encoded(fieldsSnapshot, values, header);
+	}
+
+	private static final class Encoded {
+
+		final BaggageField[] fields;
+
+		final String[] values;
+
+		final String header;
+
+		Encoded(BaggageField[] fields, String[] values, String header) {
+			this.fields = fields;
+			this.values = values;
+			this.header = header;
+		}
+
 	}
 
 }
@@ -556,12 +649,32 @@ final class BigendianEncoding {
 	}
 
 	private static byte decodeByte(char hi, char lo) {
-		Utils.checkArgument(lo < ASCII_CHARACTERS && DECODING[lo] != -1, "invalid character " + lo);
-		Utils.checkArgument(hi < ASCII_CHARACTERS && DECODING[hi] != -1, "invalid character " + hi);
+		// not using Utils.checkArgument - the message would be built for every byte
+		if (lo >= ASCII_CHARACTERS || DECODING[lo] == -1) {
+			throw new IllegalArgumentException("invalid character " + lo);
+		}
+		if (hi >= ASCII_CHARACTERS || DECODING[hi] == -1) {
+			throw new IllegalArgumentException("invalid character " + hi);
+		}
 		int decoded = DECODING[hi] << 4 | DECODING[lo];
 		return (byte) decoded;
 	}
 
+	/**
+	 * Writes the 16 chars long base16 representation of {@code value} to {@code dest}
+	 * starting from the {@code destOffset}.
+	 * @param value the {@code long} to encode
+	 * @param dest the destination char array
+	 * @param destOffset the starting offset in the destination char array
+	 */
+	static void longToBase16String(long value, char[] dest, int destOffset) {
+		for (int i = 0; i < LONG_BYTES; i++) {
+			int b = (int) (value >>> (56 - 8 * i)) & 0xFF;
+			dest[destOffset + BYTE_BASE16 * i] = ENCODING[b];
+			dest[destOffset + BYTE_BASE16 * i + 1] = ENCODING[b | 0x100];
+		}
+	}
+
 	/**
 	 * Returns the {@code long} value whose big-endian representation is stored in the
 	 * first 8 bytes of {@code bytes} starting from the {@code offset}.
@@ -577,23 +690,4 @@ final class BigendianEncoding {
 				| (bytes[offset + 5] & 0xFFL) << 16 | (bytes[offset + 6] & 0xFFL) << 8 | (bytes[offset + 7] & 0xFFL);
 	}
 
-	static boolean isValidBase16String(CharSequence value) {
-		for (int i = 0; i < value.length(); i++) {
-			char b = value.charAt(i);
-			// 48..57 && 97..102 are valid
-			if (!isDigit(b) && !isLowercaseHexCharacter(b)) {
-				return false;
-			}
-		}
-		return true;
-	}
-
-	private static boolean isLowercaseHexCharacter(char b) {
-		return 97 <= b && b <= 102;
-	}
-
-	private static boolean isDigit(char b) {
-		return 48 <= b && b <= 57;
-	}
-
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.brave.instrument.messaging;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import brave.Span;
+import brave.Tracer;
+import brave.kafka.clients.KafkaTracing;
+import brave.propagation.Propagation;
+import brave.propagation.TraceContext;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.util.StringUtils;
+
+/**
+ * Creates one span per batch of consumed records. Since Brave has no span links, the
+ * contexts extracted from the records are stored in the {@code kafka.batch.links} tag of
+ * the batch span as up to {@value #MAX_LINKS} distinct {@code traceId-spanId} pairs.
+ *
+ * When {@code perRecord} is set, the listener gets the records in a list that puts each
+ * record's span in scope while the listener iterates over it. That's switched off for
+ * listener adapters, since they iterate over all the records while converting them,
+ * before the user code runs. The links are always read from the records without creating
+ * spans for them.
+ *
+ * @param <T> - listener type
+ * @author Marcin Grzejszczak
+ * @since 3.0.4
+ */
+public class BatchMessageListenerMethodInterceptor<T extends BatchMessageListener> implements MethodInterceptor {
+
+	private static final Log log = LogFactory.getLog(BatchMessageListenerMethodInterceptor.class);
+
+	/**
+	 * Bounds the size of the links tag for large batches.
+	 */
+	static final int MAX_LINKS = 32;
+
+	private static final Propagation.Getter<ConsumerRecord<?, ?>, String> GETTER = (record, key) -> {
+		Header header = record.headers().lastHeader(key);
+		return header != null && header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+	};
+
+	private final KafkaTracing kafkaTracing;
+
+	private final Tracer tracer;
+
+	private final boolean perRecord;
+
+	private final TraceContext.Extractor<ConsumerRecord<?, ?>> extractor;
+
+	public BatchMessageListenerMethodInterceptor(KafkaTracing kafkaTracing, Tracer tracer, boolean perRecord) {
+		this.kafkaTracing = kafkaTracing;
+		this.tracer = tracer;
+		this.perRecord = perRecord;
+		this.extractor = kafkaTracing.messagingTracing().tracing().propagation().extractor(GETTER);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		if (!"onMessage".equals(invocation.getMethod().getName())) {
+			return invocation.proceed();
+		}
+		Object[] arguments = invocation.getArguments();
+		int index = recordsIndex(arguments);
+		if (index == -1) {
+			return invocation.proceed();
+		}
+		if (log.isDebugEnabled()) {
+			log.debug("Wrapping batch onMessage call");
+		}
+		List<ConsumerRecord<?, ?>> records = (List<ConsumerRecord<?, ?>>) arguments[index];
+		TracingConsumerRecords tracingRecords = this.perRecord
+				? new TracingConsumerRecords(this.kafkaTracing, this.tracer, records) : null;
+		Span span = this.tracer.nextSpan().name("on-message-batch");
+		if (!span.isNoop()) {
+			span.tag("kafka.batch.size", String.valueOf(records.size()));
+			String links = links(records);
+			if (!links.isEmpty()) {
+				span.tag("kafka.batch.links", links);
+			}
+		}
+		if (tracingRecords != null) {
+			arguments[index] = tracingRecords;
+		}
+		Throwable error = null;
+		try (Tracer.SpanInScope ws = this.tracer.withSpanInScope(span.start())) {
+			try {
+				return invocation.proceed();
+			}
+			catch (RuntimeException | Error e) {
+				error = e;
+				throw e;
+			}
+			finally {
+				// the scope of the current record has to be closed before the batch one
+				if (tracingRecords != null) {
+					tracingRecords.close(error);
+				}
+			}
+		}
+		catch (RuntimeException | Error e) {
+			String message = e.getMessage();
+			if (message == null) {
+				message = e.getClass().getSimpleName();
+			}
+			span.tag("error", message);
+			throw e;
+		}
+		finally {
+			span.finish();
+		}
+	}
+
+	private String links(List<ConsumerRecord<?, ?>> records) {
+		Set<String> links = new LinkedHashSet<>();
+		for (int i = 0; i < records.size() && links.size() < MAX_LINKS; i++) {
+			String link = link(records.get(i));
+			if (link != null) {
+				links.add(link);
+			}
+		}
+		return StringUtils.collectionToCommaDelimitedString(links);
+	}
+
+	private String link(ConsumerRecord<?, ?> record) {
+		TraceContext context = this.extractor.extract(record).context();
+		return context != null ? context.traceIdString() + "-" + context.spanIdString() : null;
+	}
+
+	private int recordsIndex(Object[] arguments) {
+		for (int i = 0; i < arguments.length; i++) {
+			Object argument = arguments[i];
+			if (argument instanceof List && !((List<?>) argument).isEmpty()
+					&& ((List<?>) argument).get(0) instanceof ConsumerRecord) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
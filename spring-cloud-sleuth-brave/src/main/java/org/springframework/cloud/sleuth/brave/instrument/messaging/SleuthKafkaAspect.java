@@ -29,6 +29,8 @@ import org.aspectj.lang.annotation.Pointcut;
 
 import org.springframework.aop.framework.ProxyFactoryBean;
 import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.DelegatingMessageListener;
 import org.springframework.kafka.listener.MessageListener;
 import org.springframework.kafka.listener.MessageListenerContainer;
 import org.springframework.kafka.listener.adapter.MessagingMessageListenerAdapter;
@@ -80,9 +82,12 @@ public class SleuthKafkaAspect {
 			else if (someMessageListener instanceof MessageListener) {
 				container.setupMessageListener(createProxy(someMessageListener));
 			}
+			else if (someMessageListener instanceof BatchMessageListener) {
+				container.setupMessageListener(createBatchProxy(someMessageListener));
+			}
 			else {
 				if (log.isDebugEnabled()) {
-					log.debug("ATM we don't support Batch message listeners");
+					log.debug("Can't wrap this message listener. Proceeding");
 				}
 			}
 		}
@@ -103,4 +108,24 @@ public class SleuthKafkaAspect {
 		return factory.getObject();
 	}
 
+	Object createBatchProxy(Object bean) {
+		ProxyFactoryBean factory = new ProxyFactoryBean();
+		factory.setProxyTargetClass(true);
+		factory.addAdvice(new BatchMessageListenerMethodInterceptor<>(this.kafkaTracing, this.tracer,
+				!isListenerAdapter(bean)));
+		factory.setTarget(bean);
+		return factory.getObject();
+	}
+
+	/**
+	 * Listener adapters convert the records before passing them to the user code.
+	 */
+	private static boolean isListenerAdapter(Object listener) {
+		Object candidate = listener;
+		while (candidate instanceof DelegatingMessageListener) {
+			candidate = ((DelegatingMessageListener<?>) candidate).getDelegate();
+		}
+		return candidate instanceof MessagingMessageListenerAdapter;
+	}
+
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.brave.instrument.messaging;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+import brave.Span;
+import brave.Tracer;
+import brave.kafka.clients.KafkaTracing;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+/**
+ * Read-only view of a batch of records. Iterating over it finishes the span of the
+ * previous record and puts the span of the next one in scope, so the code processing a
+ * record sees the context the record was sent with. Random access via {@link #get(int)}
+ * doesn't change the scope.
+ *
+ * Each record's span is a child of the context extracted from the record. It's created
+ * and started only when the record gets iterated over for the first time, so records the
+ * listener never iterates over cost no span.
+ *
+ * @author Marcin Grzejszczak
+ * @since 3.0.4
+ */
+final class TracingConsumerRecords extends AbstractList<ConsumerRecord<?, ?>> implements RandomAccess {
+
+	private final KafkaTracing kafkaTracing;
+
+	private final Tracer tracer;
+
+	private final List<ConsumerRecord<?, ?>> records;
+
+	private final Span[] spans;
+
+	private Span current;
+
+	private Tracer.SpanInScope currentScope;
+
+	TracingConsumerRecords(KafkaTracing kafkaTracing, Tracer tracer, List<ConsumerRecord<?, ?>> records) {
+		this.kafkaTracing = kafkaTracing;
+		this.tracer = tracer;
+		this.records = records;
+		this.spans = new Span[records.size()];
+	}
+
+	@Override
+	public ConsumerRecord<?, ?> get(int index) {
+		return this.records.get(index);
+	}
+
+	@Override
+	public int size() {
+		return this.records.size();
+	}
+
+	@Override
+	public Iterator<ConsumerRecord<?, ?>> iterator() {
+		return new Iterator<ConsumerRecord<?, ?>>() {
+
+			private int next;
+
+			@Override
+			public boolean hasNext() {
+				boolean hasNext = this.next < size();
+				if (!hasNext) {
+					finishCurrent(null);
+				}
+				return hasNext;
+			}
+
+			@Override
+			public ConsumerRecord<?, ?> next() {
+				if (this.next >= size()) {
+					throw new NoSuchElementException();
+				}
+				finishCurrent(null);
+				int index = this.next++;
+				scope(index);
+				return get(index);
+			}
+
+		};
+	}
+
+	private void scope(int index) {
+		Span span = this.spans[index];
+		if (span == null) {
+			span = this.kafkaTracing.nextSpan(this.records.get(index)).name("on-message").start();
+			this.spans[index] = span;
+			this.current = span;
+		}
+		this.currentScope = this.tracer.withSpanInScope(span);
+	}
+
+	private void finishCurrent(Throwable error) {
+		if (this.currentScope != null) {
+			this.currentScope.close();
+			this.currentScope = null;
+		}
+		if (this.current != null) {
+			if (error != null) {
+				String message = error.getMessage();
+				this.current.tag("error", message != null ? message : error.getClass().getSimpleName());
+			}
+			this.current.finish();
+			this.current = null;
+		}
+	}
+
+	/**
+	 * Finishes the span of the record being processed.
+	 * @param error error thrown while processing the batch or {@code null}
+	 */
+	void close(Throwable error) {
+		finishCurrent(error);
+	}
+
+}
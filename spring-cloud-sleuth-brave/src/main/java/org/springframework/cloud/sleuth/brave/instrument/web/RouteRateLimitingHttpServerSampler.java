@@ -0,0 +1,245 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.brave.instrument.web;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import brave.http.HttpRequest;
+import brave.sampler.SamplerFunction;
+
+import org.springframework.util.Assert;
+
+/**
+ * Http Sampler that rate limits the traces per route. Each route gets its own per-second
+ * budget, equal to the global rate divided by the number of tracked routes, unless a rate
+ * has been set explicitly for that route. On top of that the global rate caps the number
+ * of all the traces per second. That way a chatty route can't use up the whole budget and
+ * rarely called routes still get sampled.
+ *
+ * The route is the {@link HttpRequest#route() http route} when it's already known or the
+ * request path with the id-like segments (numbers, UUIDs and long hexadecimal values)
+ * replaced with {@code {id}}. Once {@code maxRoutes} routes are tracked, all the other
+ * routes share a single budget.
+ *
+ * @author Marcin Grzejszczak
+ * @since 3.0.4
+ */
+public class RouteRateLimitingHttpServerSampler implements SamplerFunction<HttpRequest> {
+
+	static final String ID_SEGMENT = "{id}";
+
+	static final String OTHER_ROUTES = "*";
+
+	private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final Supplier<Integer> rate;
+
+	private final Supplier<Map<String, Integer>> routeRates;
+
+	private final int maxRoutes;
+
+	private final LongSupplier nanoTime;
+
+	private final long start;
+
+	private final Map<String, Bucket> routes = new ConcurrentHashMap<>();
+
+	private final Bucket otherRoutes = new Bucket();
+
+	private final Bucket global = new Bucket();
+
+	public RouteRateLimitingHttpServerSampler(Supplier<Integer> rate, Supplier<Map<String, Integer>> routeRates,
+			int maxRoutes) {
+		this(rate, routeRates, maxRoutes, System::nanoTime);
+	}
+
+	RouteRateLimitingHttpServerSampler(Supplier<Integer> rate, Supplier<Map<String, Integer>> routeRates,
+			int maxRoutes, LongSupplier nanoTime) {
+		Assert.notNull(rate, "rate property is required for RouteRateLimitingHttpServerSampler");
+		Assert.isTrue(maxRoutes > 0, "maxRoutes must be positive");
+		this.rate = rate;
+		this.routeRates = routeRates != null ? routeRates : Collections::emptyMap;
+		this.maxRoutes = maxRoutes;
+		this.nanoTime = nanoTime;
+		this.start = nanoTime.getAsLong();
+	}
+
+	@Override
+	public Boolean trySample(HttpRequest request) {
+		Integer rate = this.rate.get();
+		if (rate == null || rate <= 0) {
+			return false;
+		}
+		long second = (this.nanoTime.getAsLong() - this.start) / NANOS_PER_SECOND;
+		String route = route(request);
+		Map<String, Integer> routeRates = this.routeRates.get();
+		Integer routeRate = routeRates != null ? routeRates.get(route) : null;
+		Bucket bucket = bucket(route, routeRate != null);
+		int limit = routeRate != null ? routeRate : fairShare(rate);
+		if (!bucket.tryAcquire(second, limit)) {
+			return false;
+		}
+		if (this.global.tryAcquire(second, rate)) {
+			return true;
+		}
+		// a request that isn't sampled doesn't count against the route's budget
+		bucket.release(second);
+		return false;
+	}
+
+	/**
+	 * Routes with an explicitly set rate are always tracked - their number is bounded by
+	 * the configuration.
+	 */
+	private Bucket bucket(String route, boolean explicitRate) {
+		Bucket bucket = this.routes.get(route);
+		if (bucket != null) {
+			return bucket;
+		}
+		if (!explicitRate && this.routes.size() >= this.maxRoutes) {
+			return this.otherRoutes;
+		}
+		return this.routes.computeIfAbsent(route, r -> new Bucket());
+	}
+
+	private int fairShare(int rate) {
+		int trackedRoutes = this.routes.size() + (this.routes.size() >= this.maxRoutes ? 1 : 0);
+		return Math.max(1, rate / Math.max(1, trackedRoutes));
+	}
+
+	static String route(HttpRequest request) {
+		String route = request.route();
+		if (route != null && !route.isEmpty()) {
+			return route;
+		}
+		String path = request.path();
+		return path != null ? normalize(path) : "";
+	}
+
+	/**
+	 * @param path request path
+	 * @return path with the id-like segments replaced with {@link #ID_SEGMENT}
+	 */
+	static String normalize(String path) {
+		StringBuilder normalized = null;
+		int segmentStart = 0;
+		for (int i = 0; i <= path.length(); i++) {
+			if (i < path.length() && path.charAt(i) != '/') {
+				continue;
+			}
+			boolean id = isId(path, segmentStart, i);
+			if (id && normalized == null) {
+				normalized = new StringBuilder(path.length()).append(path, 0, segmentStart);
+			}
+			if (normalized != null) {
+				if (id) {
+					normalized.append(ID_SEGMENT);
+				}
+				else {
+					normalized.append(path, segmentStart, i);
+				}
+				if (i < path.length()) {
+					normalized.append('/');
+				}
+			}
+			segmentStart = i + 1;
+		}
+		return normalized != null ? normalized.toString() : path;
+	}
+
+	private static boolean isId(String path, int start, int end) {
+		int length = end - start;
+		if (length == 0) {
+			return false;
+		}
+		boolean digitsOnly = true;
+		boolean hexOnly = true;
+		int dashes = 0;
+		for (int i = start; i < end; i++) {
+			char c = path.charAt(i);
+			if (c == '-') {
+				dashes++;
+				digitsOnly = false;
+			}
+			else if (c < '0' || c > '9') {
+				digitsOnly = false;
+				if ((c < 'a' || c > 'f') && (c < 'A' || c > 'F')) {
+					hexOnly = false;
+				}
+			}
+		}
+		if (digitsOnly) {
+			return true;
+		}
+		if (!hexOnly) {
+			return false;
+		}
+		// UUID or a hexadecimal value long enough not to be a word (e.g. Mongo ObjectId)
+		return (length == 36 && dashes == 4) || (dashes == 0 && length >= 16);
+	}
+
+	/**
+	 * Counts the acquired permits within the current second. The second and the count
+	 * are kept in a single atomic value, so that they're always updated together.
+	 */
+	static final class Bucket extends AtomicLong {
+
+		boolean tryAcquire(long second, int limit) {
+			if (limit <= 0) {
+				return false;
+			}
+			for (;;) {
+				long state = get();
+				if (state >>> 32 != second) {
+					if (compareAndSet(state, (second << 32) | 1)) {
+						return true;
+					}
+				}
+				else if ((int) state >= limit) {
+					return false;
+				}
+				else if (compareAndSet(state, state + 1)) {
+					return true;
+				}
+			}
+		}
+
+		/**
+		 * Gives back a permit acquired within the given second. Does nothing once the
+		 * second is over, since the count has been reset then.
+		 */
+		void release(long second) {
+			for (;;) {
+				long state = get();
+				if (state >>> 32 != second || (int) state == 0) {
+					return;
+				}
+				if (compareAndSet(state, state - 1)) {
+					return;
+				}
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.brave.instrument.web;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+
+/**
+ * Matches paths against a skip pattern without running the regular expression for its
+ * plain parts. Each top level alternative of the pattern is compiled into one of:
+ *
+ * <ul>
+ * <li>an exact path - {@code /favicon\.ico}</li>
+ * <li>a path prefix - {@code /api-docs.*}, kept in a trie</li>
+ * <li>a path suffix - {@code .*\.png}</li>
+ * <li>a regular expression, for everything else</li>
+ * </ul>
+ *
+ * A path matches when it matches any of the above - the same way it would match the
+ * whole pattern. Patterns with flags, inline flags or quotations are matched with the
+ * regular expression only.
+ *
+ * @author Marcin Grzejszczak
+ * @since 3.0.4
+ */
+final class SkipPatternMatcher {
+
+	private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+
+	private static final String QUANTIFIERS = "?*+{";
+
+	private final Pattern pattern;
+
+	private final Set<String> exactPaths = new HashSet<>();
+
+	private final PrefixNode prefixes = new PrefixNode();
+
+	private final List<String> suffixes = new ArrayList<>();
+
+	private final Pattern remainder;
+
+	SkipPatternMatcher(Pattern pattern) {
+		this.pattern = pattern;
+		List<String> alternatives = pattern.flags() == 0 ? topLevelAlternatives(pattern.pattern()) : null;
+		if (alternatives == null) {
+			this.remainder = pattern;
+			return;
+		}
+		StringJoiner regexAlternatives = new StringJoiner("|");
+		boolean anyRegex = false;
+		for (String alternative : alternatives) {
+			if (!compile(alternative)) {
+				regexAlternatives.add(alternative);
+				anyRegex = true;
+			}
+		}
+		this.remainder = anyRegex ? Pattern.compile(regexAlternatives.toString()) : null;
+	}
+
+	boolean matches(String path) {
+		if (hasLineTerminator(path)) {
+			// .* doesn't match line terminators
+			return this.pattern.matcher(path).matches();
+		}
+		if (this.exactPaths.contains(path) || this.prefixes.matchesPrefixOf(path)) {
+			return true;
+		}
+		for (String suffix : this.suffixes) {
+			if (path.endsWith(suffix)) {
+				return true;
+			}
+		}
+		return this.remainder != null && this.remainder.matcher(path).matches();
+	}
+
+	private boolean compile(String alternative) {
+		boolean leadingWildcard = alternative.startsWith(".*");
+		boolean trailingWildcard = alternative.length() > (leadingWildcard ? 2 : 1) && alternative.endsWith(".*")
+				&& !isEscaped(alternative, alternative.length() - 2);
+		int start = leadingWildcard ? 2 : 0;
+		int end = trailingWildcard ? alternative.length() - 2 : alternative.length();
+		if (leadingWildcard && trailingWildcard) {
+			return false;
+		}
+		String literal = literal(alternative, start, end);
+		if (literal == null) {
+			return false;
+		}
+		if (leadingWildcard) {
+			this.suffixes.add(literal);
+		}
+		else if (trailingWildcard) {
+			this.prefixes.add(literal);
+		}
+		else {
+			this.exactPaths.add(literal);
+		}
+		return true;
+	}
+
+	/**
+	 * @return the text that the given part of a pattern matches or {@code null} if the
+	 * part is not a plain text
+	 */
+	private static String literal(String regex, int start, int end) {
+		StringBuilder literal = new StringBuilder(end - start);
+		int i = start;
+		while (i < end) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				if (i + 1 >= end || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+					return null;
+				}
+				c = regex.charAt(i + 1);
+				i += 2;
+			}
+			else if (METACHARACTERS.indexOf(c) >= 0) {
+				return null;
+			}
+			else {
+				i++;
+			}
+			if (i < end && QUANTIFIERS.indexOf(regex.charAt(i)) >= 0) {
+				return null;
+			}
+			literal.append(c);
+		}
+		return literal.toString();
+	}
+
+	private static boolean isEscaped(String regex, int index) {
+		int backslashes = 0;
+		for (int i = index - 1; i >= 0 && regex.charAt(i) == '\\'; i--) {
+			backslashes++;
+		}
+		return backslashes % 2 == 1;
+	}
+
+	/**
+	 * @return alternatives separated by a top level {@code |} or {@code null} when the
+	 * pattern can't be safely split
+	 */
+	private static List<String> topLevelAlternatives(String regex) {
+		if (regex.contains("(?") || regex.contains("\\Q") || regex.contains("[]") || regex.contains("[^]")) {
+			return null;
+		}
+		List<String> alternatives = new ArrayList<>();
+		int groups = 0;
+		int classes = 0;
+		int start = 0;
+		for (int i = 0; i < regex.length(); i++) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				i++;
+			}
+			else if (c == '[') {
+				classes++;
+			}
+			else if (c == ']' && classes > 0) {
+				classes--;
+			}
+			else if (classes == 0 && c == '(') {
+				groups++;
+			}
+			else if (classes == 0 && c == ')') {
+				groups--;
+			}
+			else if (classes == 0 && groups == 0 && c == '|') {
+				alternatives.add(regex.substring(start, i));
+				start = i + 1;
+			}
+		}
+		if (groups != 0 || classes != 0) {
+			return null;
+		}
+		alternatives.add(regex.substring(start));
+		return alternatives;
+	}
+
+	private static boolean hasLineTerminator(String path) {
+		for (int i = 0; i < path.length(); i++) {
+			char c = path.charAt(i);
+			if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static final class PrefixNode {
+
+		private final Map<Character, PrefixNode> children = new HashMap<>();
+
+		private boolean terminal;
+
+		void add(String prefix) {
+			PrefixNode node = this;
+			for (int i = 0; i < prefix.length(); i++) {
+				node = node.children.computeIfAbsent(prefix.charAt(i), c -> new PrefixNode());
+			}
+			node.terminal = true;
+		}
+
+		boolean matchesPrefixOf(String path) {
+			PrefixNode node = this;
+			for (int i = 0; !node.terminal; i++) {
+				if (i == path.length()) {
+					return false;
+				}
+				node = node.children.get(path.charAt(i));
+				if (node == null) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+}
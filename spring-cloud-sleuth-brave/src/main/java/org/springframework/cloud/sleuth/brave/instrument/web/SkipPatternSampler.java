@@ -29,12 +29,12 @@ import brave.sampler.SamplerFunction;
  */
 abstract class SkipPatternSampler implements SamplerFunction<HttpRequest> {
 
-	private Pattern pattern;
+	private SkipPatternMatcher matcher;
 
 	@Override
 	public final Boolean trySample(HttpRequest request) {
 		String url = request.path();
-		boolean shouldSkip = pattern().matcher(url).matches();
+		boolean shouldSkip = matcher().matches(url);
 		if (shouldSkip) {
 			return false;
 		}
@@ -43,11 +43,11 @@ abstract class SkipPatternSampler implements SamplerFunction<HttpRequest> {
 
 	abstract Pattern getPattern();
 
-	private Pattern pattern() {
-		if (this.pattern == null) {
-			this.pattern = getPattern();
+	private SkipPatternMatcher matcher() {
+		if (this.matcher == null) {
+			this.matcher = new SkipPatternMatcher(getPattern());
 		}
-		return this.pattern;
+		return this.matcher;
 	}
 
 }
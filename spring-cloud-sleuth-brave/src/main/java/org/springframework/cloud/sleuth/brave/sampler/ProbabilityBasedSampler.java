@@ -43,7 +43,10 @@ import org.springframework.util.Assert;
  * @author Marcin Grzejszczak
  * @author Adrian Cole
  * @since 1.0.0
+ * @deprecated use {@link TraceIdProbabilityBasedSampler} that is consistent based on
+ * trace id and doesn't synchronize the threads making the sampling decisions
  */
+@Deprecated
 public class ProbabilityBasedSampler extends Sampler {
 
 	private final AtomicInteger counter = new AtomicInteger(0);
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.brave.sampler;
+
+import java.util.function.Supplier;
+
+import brave.sampler.Sampler;
+
+import org.springframework.util.Assert;
+
+/**
+ * Probability based sampler that makes its decision out of the bits of the trace id.
+ * That means that every service using this sampler with the same probability makes the
+ * same decision for the same trace and that a trace sampled with a given probability is
+ * also sampled with any higher one.
+ *
+ * The sampler is stateless - the probability is read on each decision, so its changes
+ * are visible immediately and the threads making the decisions never contend with each
+ * other. The precision is limited only by the precision of the probability itself (i.e.
+ * 0.1% or 0.001% of the traces is fine).
+ *
+ * It requires the lower 64 bits of the trace ids to be random, which is the case for
+ * the ids generated by Brave.
+ *
+ * @author Marcin Grzejszczak
+ * @since 3.0.4
+ */
+public class TraceIdProbabilityBasedSampler extends Sampler {
+
+	/**
+	 * Number of distinct values of the lower 63 bits of the trace id.
+	 */
+	private static final double TRACE_ID_RANGE = 0x1p63;
+
+	private final Supplier<Float> probability;
+
+	public TraceIdProbabilityBasedSampler(Supplier<Float> probability) {
+		Assert.notNull(probability, "probability property is required for TraceIdProbabilityBasedSampler");
+		this.probability = probability;
+	}
+
+	@Override
+	public boolean isSampled(long traceId) {
+		Float probability = this.probability.get();
+		if (probability == null || probability <= 0f) {
+			return false;
+		}
+		else if (probability >= 1f) {
+			return true;
+		}
+		return (traceId & Long.MAX_VALUE) < (long) (probability * TRACE_ID_RANGE);
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.brave.bridge;
+
+import brave.Tracing;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.sleuth.CurrentTraceContext;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.Tracer;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class BraveTracerTests {
+
+	Tracing tracing = Tracing.newBuilder().currentTraceContext(ThreadLocalCurrentTraceContext.create()).build();
+
+	BraveTracer tracer = new BraveTracer(this.tracing.tracer(), this.tracing.currentTraceContext(),
+			new BraveBaggageManager());
+
+	BraveCurrentTraceContext currentTraceContext = new BraveCurrentTraceContext(this.tracing.currentTraceContext());
+
+	@AfterEach
+	void close() {
+		this.tracing.close();
+	}
+
+	@Test
+	void should_restore_current_span_when_scopes_are_closed() {
+		then(this.tracer.currentSpan()).isNull();
+		Span span = this.tracer.nextSpan().start();
+		Span child = this.tracer.nextSpan(span).start();
+
+		try (Tracer.SpanInScope ws = this.tracer.withSpan(span)) {
+			then(this.tracer.currentSpan()).isEqualTo(span);
+
+			try (Tracer.SpanInScope ws2 = this.tracer.withSpan(child)) {
+				then(this.tracer.currentSpan()).isEqualTo(child);
+			}
+
+			then(this.tracer.currentSpan()).isEqualTo(span);
+		}
+		finally {
+			child.end();
+			span.end();
+		}
+
+		then(this.tracer.currentSpan()).isNull();
+	}
+
+	@Test
+	void should_return_current_context_while_the_span_is_in_scope() {
+		Span span = this.tracer.nextSpan().start();
+
+		try (Tracer.SpanInScope ws = this.tracer.withSpan(span)) {
+			then(this.currentTraceContext.context()).isEqualTo(span.context());
+		}
+		finally {
+			span.end();
+		}
+
+		then(this.currentTraceContext.context()).isNull();
+	}
+
+	@Test
+	void should_clear_the_scope_when_span_has_no_delegate() {
+		Span span = this.tracer.nextSpan().start();
+
+		try (Tracer.SpanInScope ws = this.tracer.withSpan(span)) {
+			try (Tracer.SpanInScope ws2 = this.tracer.withSpan(new BraveSpan(null))) {
+				then(this.tracer.currentSpan()).isNull();
+			}
+			then(this.tracer.currentSpan()).isEqualTo(span);
+		}
+		finally {
+			span.end();
+		}
+	}
+
+	@Test
+	void should_return_shared_scope_when_context_is_already_current() {
+		Span span = this.tracer.nextSpan().start();
+
+		try (Tracer.SpanInScope ws = this.tracer.withSpan(span)) {
+			CurrentTraceContext.Scope scope = this.currentTraceContext.maybeScope(span.context());
+
+			then(scope).isSameAs(BraveScope.NOOP);
+			scope.close();
+			then(this.tracer.currentSpan()).isEqualTo(span);
+		}
+		finally {
+			span.end();
+		}
+	}
+
+	@Test
+	void should_not_wrap_the_span_again_when_brave_returns_the_same_span() {
+		Span span = this.tracer.nextSpan();
+
+		Span started = span.start();
+
+		then(started).isSameAs(span);
+		then(started.name("foo").tag("foo", "bar").event("baz")).isSameAs(span);
+		then(span.context()).isSameAs(span.context());
+		started.end();
+	}
+
+}
@@ -16,9 +16,14 @@
 
 package org.springframework.cloud.sleuth.brave.bridge;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import brave.internal.codec.HexCodec;
 import brave.internal.propagation.StringPropagationAdapter;
@@ -52,6 +57,103 @@ class CompositePropagationFactorySupplierTests {
 		BDDAssertions.then(supplier.get().get().keys()).containsExactly(CustomTraceExtractor.CUSTOM_TRACE_HEADER);
 	}
 
+	@Test
+	void should_build_injectors_and_extractors_once_per_setter_and_getter() {
+		Propagation<String> propagation = compositePropagation(new CustomTracePropagation(), PropagationType.B3,
+				PropagationType.W3C, PropagationType.CUSTOM);
+		Propagation.Setter<Map<String, String>, String> setter = Map::put;
+		Propagation.Getter<Map<String, String>, String> getter = Map::get;
+
+		BDDAssertions.then(propagation.injector(setter)).isSameAs(propagation.injector(setter));
+		BDDAssertions.then(propagation.extractor(getter)).isSameAs(propagation.extractor(getter));
+	}
+
+	@Test
+	void should_read_headers_shared_by_several_formats_only_once() {
+		Propagation<String> propagation = compositePropagation(new B3HeaderReadingPropagation(), PropagationType.B3,
+				PropagationType.CUSTOM);
+		AtomicInteger b3Reads = new AtomicInteger();
+		Propagation.Getter<Map<String, String>, String> getter = (carrier, key) -> {
+			if ("b3".equals(key)) {
+				b3Reads.incrementAndGet();
+			}
+			return carrier.get(key);
+		};
+
+		TraceContextOrSamplingFlags extracted = propagation.extractor(getter).extract(new HashMap<>());
+
+		BDDAssertions.then(extracted).isSameAs(TraceContextOrSamplingFlags.EMPTY);
+		BDDAssertions.then(b3Reads).hasValue(1);
+	}
+
+	@Test
+	void should_read_shared_headers_only_once_when_extracting_during_extraction() {
+		Propagation<String> propagation = compositePropagation(new B3HeaderReadingPropagation(), PropagationType.B3,
+				PropagationType.CUSTOM);
+		AtomicInteger outerB3Reads = new AtomicInteger();
+		Propagation.Getter<Map<String, String>, String> innerGetter = Map::get;
+		Propagation.Getter<Map<String, String>, String> outerGetter = (carrier, key) -> {
+			if ("b3".equals(key) && outerB3Reads.incrementAndGet() == 1) {
+				propagation.extractor(innerGetter).extract(new HashMap<>());
+			}
+			return carrier.get(key);
+		};
+
+		propagation.extractor(outerGetter).extract(new HashMap<>());
+
+		BDDAssertions.then(outerB3Reads).hasValue(1);
+	}
+
+	@Test
+	void should_inject_all_formats_in_order() {
+		Propagation<String> propagation = compositePropagation(new CustomTracePropagation(), PropagationType.W3C,
+				PropagationType.CUSTOM);
+		Map<String, String> carrier = new LinkedHashMap<>();
+
+		propagation.injector((Propagation.Setter<Map<String, String>, String>) Map::put)
+				.inject(TraceContext.newBuilder().traceId(1L).spanId(2L).build(), carrier);
+
+		BDDAssertions.then(carrier.keySet()).containsExactly("traceparent", CustomTraceExtractor.CUSTOM_TRACE_HEADER);
+	}
+
+	private Propagation<String> compositePropagation(Propagation.Factory custom, PropagationType... types) {
+		BeanFactory beanFactory = Mockito.mock(BeanFactory.class);
+		Mockito.when(beanFactory.getBeanProvider(BraveBaggageManager.class))
+				.thenReturn(new SimpleObjectProvider(new BraveBaggageManager()));
+		Mockito.when(beanFactory.getBeanProvider(Propagation.Factory.class))
+				.thenReturn(new SimpleObjectProvider(custom));
+		return new CompositePropagationFactorySupplier(beanFactory, Collections.emptyList(), Arrays.asList(types))
+				.get().get();
+	}
+
+}
+
+class B3HeaderReadingPropagation extends Propagation.Factory implements Propagation<String> {
+
+	@Override
+	public List<String> keys() {
+		return Collections.singletonList("b3");
+	}
+
+	@Override
+	public <R> TraceContext.Injector<R> injector(Setter<R, String> setter) {
+		return (traceContext, request) -> {
+		};
+	}
+
+	@Override
+	public <R> TraceContext.Extractor<R> extractor(Getter<R, String> getter) {
+		return request -> {
+			getter.get(request, "b3");
+			return TraceContextOrSamplingFlags.EMPTY;
+		};
+	}
+
+	@Override
+	public <K> Propagation<K> create(KeyFactory<K> keyFactory) {
+		return StringPropagationAdapter.create(this, keyFactory);
+	}
+
 }
 
 class CustomTracePropagation extends Propagation.Factory implements Propagation<String> {
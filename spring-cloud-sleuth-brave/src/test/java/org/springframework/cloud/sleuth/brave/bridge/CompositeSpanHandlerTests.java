@@ -0,0 +1,126 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.brave.bridge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.sleuth.exporter.FinishedSpan;
+import org.springframework.cloud.sleuth.exporter.SpanFilter;
+import org.springframework.cloud.sleuth.exporter.SpanProcessor;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class CompositeSpanHandlerTests {
+
+	TraceContext context = TraceContext.newBuilder().traceId(1L).spanId(2L).build();
+
+	@Test
+	void should_share_single_finished_span_between_filters() {
+		Set<FinishedSpan> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+		SpanFilter first = span -> seen.add(span);
+		SpanFilter second = span -> seen.add(span) || true;
+		CompositeSpanHandler handler = new CompositeSpanHandler(Arrays.asList(first, second));
+
+		boolean result = handler.end(this.context, span("foo"), SpanHandler.Cause.FINISHED);
+
+		then(result).isTrue();
+		then(seen).hasSize(1);
+	}
+
+	@Test
+	void should_consult_filters_in_declared_order() {
+		List<String> consulted = new ArrayList<>();
+		SpanFilter first = span -> consulted.add("first") && false;
+		SpanFilter second = span -> consulted.add("second");
+		CompositeSpanHandler handler = new CompositeSpanHandler(Arrays.asList(first, second));
+
+		boolean result = handler.end(this.context, span("foo"), SpanHandler.Cause.FINISHED);
+
+		then(result).isFalse();
+		then(consulted).containsExactly("first");
+	}
+
+	@Test
+	void should_not_export_when_any_filter_rejects() {
+		CompositeSpanHandler handler = new CompositeSpanHandler(
+				Arrays.asList(new NameFilter("bar"), new NameFilter("foo")));
+
+		then(handler.end(this.context, span("foo"), SpanHandler.Cause.FINISHED)).isFalse();
+		then(handler.end(this.context, span("baz"), SpanHandler.Cause.FINISHED)).isTrue();
+	}
+
+	@Test
+	void should_modify_accepted_spans_in_place() {
+		SpanProcessor processor = span -> span.setName("bar").removeTag("secret")
+				.updateTags((key, value) -> value.substring(0, 1));
+		CompositeSpanHandler handler = new CompositeSpanHandler(Collections.singletonList(new NameFilter("baz")),
+				Collections.singletonList(processor));
+		MutableSpan span = span("foo");
+		span.tag("secret", "password");
+		span.tag("long", "value");
+
+		then(handler.end(this.context, span, SpanHandler.Cause.FINISHED)).isTrue();
+
+		then(span.name()).isEqualTo("bar");
+		then(span.tags()).containsOnlyKeys("long").containsEntry("long", "v");
+	}
+
+	@Test
+	void should_not_modify_rejected_spans() {
+		SpanProcessor processor = span -> span.setName("bar");
+		CompositeSpanHandler handler = new CompositeSpanHandler(Collections.singletonList(new NameFilter("foo")),
+				Collections.singletonList(processor));
+		MutableSpan span = span("foo");
+
+		then(handler.end(this.context, span, SpanHandler.Cause.FINISHED)).isFalse();
+
+		then(span.name()).isEqualTo("foo");
+	}
+
+	private MutableSpan span(String name) {
+		MutableSpan span = new MutableSpan(this.context, null);
+		span.name(name);
+		return span;
+	}
+
+	static class NameFilter implements SpanFilter {
+
+		private final Set<String> namesToReject;
+
+		NameFilter(String... namesToReject) {
+			this.namesToReject = new HashSet<>(Arrays.asList(namesToReject));
+		}
+
+		@Override
+		public boolean isExportable(FinishedSpan span) {
+			return !this.namesToReject.contains(span.getName());
+		}
+
+	}
+
+}
@@ -19,6 +19,7 @@ package org.springframework.cloud.sleuth.brave.bridge;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import brave.baggage.BaggageField;
@@ -167,4 +168,81 @@ class W3CBaggagePropagatorTest {
 				singletonMap("baggage", "nometa=nometa-value,meta=meta-value;somemetadata; someother=foo"));
 	}
 
+	@Test
+	void inject_skipsLocalFields() {
+		W3CBaggagePropagator propagator = new W3CBaggagePropagator(new BraveBaggageManager(),
+				Collections.singletonList("LOCAL"));
+		TraceContextOrSamplingFlags.Builder builder = context().toBuilder();
+		BaggageField remote = BaggageField.create("remote");
+		BaggageField local = BaggageField.create("local");
+		builder.addExtra(BaggageFields.newFactory(Arrays.asList(remote, local), 10).create());
+		TraceContextOrSamplingFlags context = builder.build();
+		remote.updateValue(context, "remote-value");
+		local.updateValue(context, "local-value");
+		Map<String, String> carrier = new HashMap<>();
+
+		propagator.injector((Propagation.Setter<Map<String, String>, String>) Map::put).inject(context.context(),
+				carrier);
+
+		assertThat(carrier).containsExactlyInAnyOrderEntriesOf(singletonMap("baggage", "remote=remote-value"));
+	}
+
+	@Test
+	void inject_reusesHeaderUntilBaggageChanges() {
+		Map<String, String> incoming = new HashMap<>();
+		incoming.put("baggage", "key1 = value1 ;metadata, key2=value2");
+		TraceContextOrSamplingFlags context = propagator.contextWithBaggage(incoming, context(), Map::get);
+		TraceContext.Injector<Map<String, String>> injector = propagator
+				.injector((Propagation.Setter<Map<String, String>, String>) Map::put);
+		Map<String, String> first = new HashMap<>();
+		Map<String, String> second = new HashMap<>();
+		Map<String, String> third = new HashMap<>();
+
+		injector.inject(context.context(), first);
+		injector.inject(context.context(), second);
+		BaggageField.getByName(context, "key2").updateValue(context, "changed");
+		injector.inject(context.context(), third);
+
+		assertThat(first.get("baggage")).isEqualTo("key1=value1,key2=value2");
+		assertThat(second.get("baggage")).isSameAs(first.get("baggage"));
+		assertThat(third.get("baggage")).isEqualTo("key1=value1,key2=changed");
+	}
+
+	@Test
+	void inject_reusesHeaderForChildSpansOfTheExtractedContext() {
+		Map<String, String> incoming = new HashMap<>();
+		incoming.put("baggage", "key1=value1,key2=value2");
+		TraceContext extracted = propagator.contextWithBaggage(incoming, context(), Map::get).context();
+		TraceContext.Injector<Map<String, String>> injector = propagator
+				.injector((Propagation.Setter<Map<String, String>, String>) Map::put);
+		Map<String, String> first = new HashMap<>();
+		Map<String, String> second = new HashMap<>();
+
+		injector.inject(childOf(extracted, 3L), first);
+		injector.inject(childOf(extracted, 4L), second);
+
+		assertThat(first.get("baggage")).isEqualTo("key1=value1,key2=value2");
+		assertThat(second.get("baggage")).isSameAs(first.get("baggage"));
+	}
+
+	/**
+	 * Like a tracer does, gives the child its own copy of the baggage.
+	 */
+	private TraceContext childOf(TraceContext parent, long spanId) {
+		BaggageFields parentBaggage = parent.findExtra(BaggageFields.class);
+		List<BaggageField> fields = parentBaggage.getAllFields();
+		BaggageFields childBaggage = BaggageFields.newFactory(fields, fields.size() * 2).create();
+		for (BaggageField field : fields) {
+			childBaggage.updateValue(field, parentBaggage.getValue(field));
+		}
+		TraceContext.Builder child = parent.toBuilder().parentId(parent.spanId()).spanId(spanId).clearExtra()
+				.addExtra(childBaggage);
+		for (Object extra : parent.extra()) {
+			if (!(extra instanceof BaggageFields)) {
+				child.addExtra(extra);
+			}
+		}
+		return child.build();
+	}
+
 }
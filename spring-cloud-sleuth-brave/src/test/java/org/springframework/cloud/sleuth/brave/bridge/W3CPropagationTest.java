@@ -272,6 +272,33 @@ class W3CPropagationTest {
 				.isEqualTo(sharedTraceContext().build());
 	}
 
+	@Test
+	void extract_TraceStateIsKeptOpaque() {
+		Map<String, String> carrier = new LinkedHashMap<>();
+		carrier.put(TRACE_PARENT, TRACEPARENT_HEADER_SAMPLED);
+		carrier.put(TRACE_STATE, TRACESTATE_NOT_DEFAULT_ENCODING_WITH_SPACES);
+
+		TraceContext context = w3CPropagation.extractor(getter).extract(carrier).context();
+
+		W3CTraceState traceState = context.findExtra(W3CTraceState.class);
+		assertThat(traceState.value()).isEqualTo(TRACESTATE_NOT_DEFAULT_ENCODING_WITH_SPACES);
+	}
+
+	@Test
+	void inject_TraceStateFromExtractedContext() {
+		Map<String, String> carrier = new LinkedHashMap<>();
+		carrier.put(TRACE_PARENT, TRACEPARENT_HEADER_SAMPLED);
+		carrier.put(TRACE_STATE, "congo=t61rcWkgMzE");
+		TraceContext extracted = w3CPropagation.extractor(getter).extract(carrier).context();
+
+		Map<String, String> outgoing = new LinkedHashMap<>();
+		w3CPropagation.injector((Map<String, String> c, String key, String value) -> c.put(key, value))
+				.inject(extracted, outgoing);
+
+		assertThat(outgoing).containsExactly(entry(TRACE_PARENT, TRACEPARENT_HEADER_SAMPLED),
+				entry(TRACE_STATE, "congo=t61rcWkgMzE"));
+	}
+
 	@Test
 	void fieldsList() {
 		assertThat(w3CPropagation.keys()).containsExactly(TRACE_PARENT, TRACE_STATE);
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.brave.instrument.messaging;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import brave.Span;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.kafka.clients.KafkaTracing;
+import brave.propagation.StrictCurrentTraceContext;
+import brave.propagation.TraceContext;
+import brave.sampler.Sampler;
+import brave.test.TestSpanHandler;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.aop.framework.ProxyFactoryBean;
+import org.springframework.kafka.listener.BatchMessageListener;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class BatchMessageListenerMethodInterceptorTests {
+
+	TestSpanHandler spans = new TestSpanHandler();
+
+	StrictCurrentTraceContext traceContext = StrictCurrentTraceContext.create();
+
+	Tracing tracing = Tracing.newBuilder().currentTraceContext(this.traceContext).sampler(Sampler.ALWAYS_SAMPLE)
+			.addSpanHandler(this.spans).build();
+
+	KafkaTracing kafkaTracing = KafkaTracing.newBuilder(this.tracing).build();
+
+	@AfterEach
+	void close() {
+		this.tracing.close();
+		this.traceContext.close();
+	}
+
+	@Test
+	void should_create_one_span_per_batch_with_links_to_the_records() {
+		TraceContext first = producerContext();
+		TraceContext second = producerContext();
+		RecordingListener listener = new RecordingListener(false);
+
+		proxy(listener, false).onMessage(Arrays.asList(record(first), record(second), record(first)));
+
+		then(this.spans).hasSize(1);
+		MutableSpan batch = this.spans.get(0);
+		then(batch.name()).isEqualTo("on-message-batch");
+		then(batch.tags()).containsEntry("kafka.batch.size", "3").containsEntry("kafka.batch.links",
+				link(first) + "," + link(second));
+		then(listener.currentContexts).isEmpty();
+	}
+
+	@Test
+	void should_only_extract_the_contexts_of_the_records_when_not_tracing_per_record() {
+		ConsumerRecord<String, String> record = record(producerContext());
+		List<ConsumerRecord<String, String>> records = Arrays.asList(record);
+		RecordingListener listener = new RecordingListener(false);
+
+		proxy(listener, false).onMessage(records);
+
+		then(listener.received).isSameAs(records);
+		then(record.headers().toArray()).isNotEmpty();
+		then(this.spans).hasSize(1);
+	}
+
+	@Test
+	void should_cap_the_links_to_the_records() {
+		List<ConsumerRecord<String, String>> records = new ArrayList<>();
+		for (int i = 0; i < BatchMessageListenerMethodInterceptor.MAX_LINKS + 5; i++) {
+			records.add(record(producerContext()));
+		}
+
+		proxy(new RecordingListener(false), false).onMessage(records);
+
+		then(this.spans).hasSize(1);
+		then(this.spans.get(0).tags().get("kafka.batch.links").split(","))
+				.hasSize(BatchMessageListenerMethodInterceptor.MAX_LINKS);
+	}
+
+	@Test
+	void should_put_the_span_of_each_record_in_scope_while_iterating() {
+		TraceContext first = producerContext();
+		TraceContext second = producerContext();
+		RecordingListener listener = new RecordingListener(true);
+
+		proxy(listener, true).onMessage(Arrays.asList(record(first), record(second)));
+
+		then(listener.currentContexts).hasSize(2);
+		then(listener.currentContexts.get(0).traceId()).isEqualTo(first.traceId());
+		then(listener.currentContexts.get(0).parentIdAsLong()).isEqualTo(first.spanId());
+		then(listener.currentContexts.get(1).traceId()).isEqualTo(second.traceId());
+		then(listener.currentContexts.get(1).parentIdAsLong()).isEqualTo(second.spanId());
+		then(this.spans.spans().stream().map(MutableSpan::name).collect(Collectors.toList()))
+				.containsExactly("on-message", "on-message", "on-message-batch");
+		then(this.tracing.tracer().currentSpan()).isNull();
+	}
+
+	@Test
+	void should_create_spans_only_for_the_records_iterated_over() {
+		TraceContext first = producerContext();
+		TraceContext second = producerContext();
+		ConsumerRecord<String, String> notIterated = record(second);
+
+		try {
+			proxy(new FailingListener(), true).onMessage(Arrays.asList(record(first), notIterated));
+		}
+		catch (IllegalStateException ex) {
+			then(ex).hasMessage("boom");
+		}
+
+		// creating the span of a record clears its headers
+		then(notIterated.headers().toArray()).isNotEmpty();
+		then(this.spans).hasSize(2);
+		then(this.spans.get(0).parentId()).isEqualTo(first.spanIdString());
+		then(this.spans.get(1).tags()).containsEntry("kafka.batch.links", link(first) + "," + link(second));
+	}
+
+	@Test
+	void should_finish_the_span_of_the_record_being_processed_when_listener_fails() {
+		TraceContext first = producerContext();
+		try {
+			proxy(new FailingListener(), true).onMessage(Arrays.asList(record(first), record(producerContext())));
+		}
+		catch (IllegalStateException ex) {
+			then(ex).hasMessage("boom");
+		}
+
+		then(this.spans).hasSize(2);
+		then(this.spans.get(0).name()).isEqualTo("on-message");
+		then(this.spans.get(0).tags()).containsEntry("error", "boom");
+		then(this.spans.get(1).name()).isEqualTo("on-message-batch");
+		then(this.spans.get(1).tags()).containsEntry("error", "boom");
+		then(this.tracing.tracer().currentSpan()).isNull();
+	}
+
+	private TraceContext producerContext() {
+		Span span = this.tracing.tracer().newTrace();
+		span.abandon();
+		return span.context();
+	}
+
+	private ConsumerRecord<String, String> record(TraceContext context) {
+		ConsumerRecord<String, String> record = new ConsumerRecord<>("topic", 0, 0L, "key", "value");
+		this.tracing.propagation().injector(
+				(ConsumerRecord<String, String> carrier, String key, String value) -> carrier.headers().add(key,
+						value.getBytes(StandardCharsets.UTF_8)))
+				.inject(context, record);
+		return record;
+	}
+
+	private String link(TraceContext context) {
+		return context.traceIdString() + "-" + context.spanIdString();
+	}
+
+	@SuppressWarnings("unchecked")
+	private BatchMessageListener<String, String> proxy(BatchMessageListener<String, String> listener,
+			boolean perRecord) {
+		ProxyFactoryBean factory = new ProxyFactoryBean();
+		factory.setProxyTargetClass(true);
+		factory.addAdvice(
+				new BatchMessageListenerMethodInterceptor<>(this.kafkaTracing, this.tracing.tracer(), perRecord));
+		factory.setTarget(listener);
+		return (BatchMessageListener<String, String>) factory.getObject();
+	}
+
+	static class FailingListener implements BatchMessageListener<String, String> {
+
+		@Override
+		public void onMessage(List<ConsumerRecord<String, String>> records) {
+			records.iterator().next();
+			throw new IllegalStateException("boom");
+		}
+
+	}
+
+	static class RecordingListener implements BatchMessageListener<String, String> {
+
+		final List<TraceContext> currentContexts = new ArrayList<>();
+
+		List<ConsumerRecord<String, String>> received;
+
+		private final boolean iterate;
+
+		RecordingListener(boolean iterate) {
+			this.iterate = iterate;
+		}
+
+		@Override
+		public void onMessage(List<ConsumerRecord<String, String>> records) {
+			this.received = records;
+			if (!this.iterate) {
+				return;
+			}
+			for (ConsumerRecord<String, String> record : records) {
+				this.currentContexts.add(Tracing.current().currentTraceContext().get());
+			}
+		}
+
+	}
+
+}
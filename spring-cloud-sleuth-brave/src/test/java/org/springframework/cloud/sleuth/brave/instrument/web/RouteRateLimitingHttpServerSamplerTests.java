@@ -0,0 +1,163 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.brave.instrument.web;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import brave.http.HttpRequest;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class RouteRateLimitingHttpServerSamplerTests {
+
+	AtomicLong nanoTime = new AtomicLong(12345L);
+
+	Map<String, Integer> routeRates = new HashMap<>();
+
+	@Test
+	public void should_not_let_chatty_route_use_up_the_rate() {
+		RouteRateLimitingHttpServerSampler sampler = sampler(10, 256);
+		sampler.trySample(request("/rare", null));
+
+		then(sampled(sampler, request("/health", null), 100)).isEqualTo(5);
+		then(sampled(sampler, request("/rare", null), 100)).isEqualTo(4);
+	}
+
+	@Test
+	public void should_not_exceed_the_global_rate() {
+		RouteRateLimitingHttpServerSampler sampler = sampler(3, 256);
+
+		int sampled = 0;
+		for (int i = 0; i < 10; i++) {
+			sampled += sampled(sampler, request("/route" + i, null), 10);
+		}
+
+		then(sampled).isEqualTo(3);
+	}
+
+	@Test
+	public void should_sample_again_in_the_next_second() {
+		RouteRateLimitingHttpServerSampler sampler = sampler(2, 256);
+		then(sampled(sampler, request("/health", null), 10)).isEqualTo(2);
+
+		this.nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+		then(sampled(sampler, request("/health", null), 10)).isEqualTo(2);
+	}
+
+	@Test
+	public void should_not_sample_with_no_rate() {
+		then(sampler(0, 256).trySample(request("/health", null))).isFalse();
+		then(new RouteRateLimitingHttpServerSampler(() -> null, Collections::emptyMap, 256)
+				.trySample(request("/health", null))).isFalse();
+	}
+
+	@Test
+	public void should_use_explicitly_set_rate_of_a_route() {
+		this.routeRates.put("/orders/{id}", 7);
+		RouteRateLimitingHttpServerSampler sampler = sampler(100, 256);
+
+		then(sampled(sampler, request("/orders/1", null), 100)).isEqualTo(7);
+	}
+
+	@Test
+	public void should_never_sample_a_route_with_explicitly_set_zero_rate() {
+		this.routeRates.put("/orders/{id}", 0);
+		RouteRateLimitingHttpServerSampler sampler = sampler(100, 256);
+
+		for (int second = 0; second < 3; second++) {
+			then(sampled(sampler, request("/orders/1", null), 10)).isZero();
+			this.nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		}
+		then(sampled(sampler, request("/health", null), 1)).isEqualTo(1);
+	}
+
+	@Test
+	public void should_not_count_requests_rejected_by_the_global_rate_against_the_route() {
+		AtomicInteger rate = new AtomicInteger(1);
+		this.routeRates.put("/a", 1);
+		this.routeRates.put("/b", 1);
+		RouteRateLimitingHttpServerSampler sampler = new RouteRateLimitingHttpServerSampler(rate::get,
+				() -> this.routeRates, 256, this.nanoTime::get);
+		then(sampler.trySample(request("/a", null))).isTrue();
+		then(sampler.trySample(request("/b", null))).isFalse();
+
+		rate.set(2);
+
+		then(sampler.trySample(request("/b", null))).isTrue();
+	}
+
+	@Test
+	public void should_share_the_rate_of_routes_above_the_limit() {
+		RouteRateLimitingHttpServerSampler sampler = sampler(100, 2);
+		sampler.trySample(request("/a", null));
+		sampler.trySample(request("/b", null));
+
+		int sampled = sampled(sampler, request("/c", null), 100) + sampled(sampler, request("/d", null), 100);
+
+		then(sampled).isEqualTo(100 / 3);
+	}
+
+	@Test
+	public void should_prefer_the_http_route() {
+		then(RouteRateLimitingHttpServerSampler.route(request("/orders/1", "/orders/{orderId}")))
+				.isEqualTo("/orders/{orderId}");
+		then(RouteRateLimitingHttpServerSampler.route(request("/orders/1", ""))).isEqualTo("/orders/{id}");
+		then(RouteRateLimitingHttpServerSampler.route(request(null, null))).isEmpty();
+	}
+
+	@Test
+	public void should_replace_id_like_segments_of_the_path() {
+		then(RouteRateLimitingHttpServerSampler.normalize("/orders")).isEqualTo("/orders");
+		then(RouteRateLimitingHttpServerSampler.normalize("/orders/123")).isEqualTo("/orders/{id}");
+		then(RouteRateLimitingHttpServerSampler.normalize("/orders/123/items/")).isEqualTo("/orders/{id}/items/");
+		then(RouteRateLimitingHttpServerSampler.normalize("/orders/123e4567-e89b-12d3-a456-426614174000/items/2"))
+				.isEqualTo("/orders/{id}/items/{id}");
+		then(RouteRateLimitingHttpServerSampler.normalize("/users/5f8d0d55b54764421b7156c3"))
+				.isEqualTo("/users/{id}");
+		then(RouteRateLimitingHttpServerSampler.normalize("/users/cafe/v2")).isEqualTo("/users/cafe/v2");
+		then(RouteRateLimitingHttpServerSampler.normalize("/")).isEqualTo("/");
+	}
+
+	private RouteRateLimitingHttpServerSampler sampler(int rate, int maxRoutes) {
+		return new RouteRateLimitingHttpServerSampler(() -> rate, () -> this.routeRates, maxRoutes,
+				this.nanoTime::get);
+	}
+
+	private int sampled(RouteRateLimitingHttpServerSampler sampler, HttpRequest request, int requests) {
+		int sampled = 0;
+		for (int i = 0; i < requests; i++) {
+			sampled += Boolean.TRUE.equals(sampler.trySample(request)) ? 1 : 0;
+		}
+		return sampled;
+	}
+
+	private HttpRequest request(String path, String route) {
+		HttpRequest request = BDDMockito.mock(HttpRequest.class);
+		BDDMockito.given(request.path()).willReturn(path);
+		BDDMockito.given(request.route()).willReturn(route);
+		return request;
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.brave.instrument.web;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class SkipPatternMatcherTests {
+
+	private static final String DEFAULT_SKIP_PATTERN = "/api-docs.*|/swagger.*|"
+			+ ".*\\.png|.*\\.css|.*\\.js|.*\\.html|/favicon.ico|/hystrix.stream";
+
+	private static final List<String> PATHS = Arrays.asList("", "/", "/api-docs", "/api-docs/v2", "/swagger-ui.html",
+			"/img/logo.png", "/img/logo.pngx", "/favicon.ico", "/faviconXico", "/hystrix.stream", "/actuator",
+			"/actuator/health", "/actuator/health/db", "/actuator/infox", "/foo", "/foo/", "/foo/bar", "/api-docs\nx",
+			"/x\n.png");
+
+	@Test
+	void should_match_the_same_paths_as_the_pattern() {
+		List<String> patterns = Arrays.asList(DEFAULT_SKIP_PATTERN,
+				DEFAULT_SKIP_PATTERN + "|/actuator(/|/(health|health/.*|info|info/.*))?", "", ".*", "/foo",
+				"/foo/.*|/foo", "/fo+.*|\\.*", "[/|f]oo|(/a|/b).*");
+
+		for (String regex : patterns) {
+			Pattern pattern = Pattern.compile(regex);
+			SkipPatternMatcher matcher = new SkipPatternMatcher(pattern);
+			for (String path : PATHS) {
+				then(matcher.matches(path)).as("pattern [%s], path [%s]", regex, path)
+						.isEqualTo(pattern.matcher(path).matches());
+				then(matcher.matches(path)).as("cached verdict for pattern [%s], path [%s]", regex, path)
+						.isEqualTo(pattern.matcher(path).matches());
+			}
+		}
+	}
+
+	@Test
+	void should_use_the_pattern_when_it_has_flags() {
+		SkipPatternMatcher matcher = new SkipPatternMatcher(Pattern.compile("/foo.*", Pattern.CASE_INSENSITIVE));
+
+		then(matcher.matches("/FOO/bar")).isTrue();
+		then(matcher.matches("/bar")).isFalse();
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.brave.sampler;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import brave.sampler.Sampler;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.BDDAssertions.then;
+
+/**
+ * @author Marcin Grzejszczak
+ */
+public class TraceIdProbabilityBasedSamplerTests {
+
+	private static Random RANDOM = new Random();
+
+	@Test
+	public void should_pass_all_samples_when_config_has_1_probability() {
+		Sampler sampler = new TraceIdProbabilityBasedSampler(() -> 1f);
+
+		then(sampler.isSampled(Long.MAX_VALUE)).isTrue();
+		then(sampler.isSampled(-1L)).isTrue();
+		for (int i = 0; i < 10; i++) {
+			then(sampler.isSampled(RANDOM.nextLong())).isTrue();
+		}
+	}
+
+	@Test
+	public void should_reject_all_samples_when_config_has_0_probability() {
+		Sampler sampler = new TraceIdProbabilityBasedSampler(() -> 0f);
+
+		then(sampler.isSampled(0L)).isFalse();
+		for (int i = 0; i < 10; i++) {
+			then(sampler.isSampled(RANDOM.nextLong())).isFalse();
+		}
+	}
+
+	@Test
+	public void should_reject_all_samples_when_there_is_no_probability() {
+		then(new TraceIdProbabilityBasedSampler(() -> null).isSampled(RANDOM.nextLong())).isFalse();
+	}
+
+	@Test
+	public void should_pass_given_fraction_of_a_percent_of_samples() {
+		int numberOfIterations = 1_000_000;
+		float probability = 0.001f;
+
+		int numberOfSampledElements = countNumberOfSampledElements(
+				new TraceIdProbabilityBasedSampler(() -> probability), numberOfIterations);
+
+		then(numberOfSampledElements).isBetween(800, 1200);
+	}
+
+	@Test
+	public void should_make_the_same_decision_for_the_same_trace_id() {
+		Sampler sampler = new TraceIdProbabilityBasedSampler(() -> 0.5f);
+		Sampler otherSampler = new TraceIdProbabilityBasedSampler(() -> 0.5f);
+
+		for (int i = 0; i < 1000; i++) {
+			long traceId = RANDOM.nextLong();
+			then(sampler.isSampled(traceId)).isEqualTo(sampler.isSampled(traceId))
+					.isEqualTo(otherSampler.isSampled(traceId));
+		}
+	}
+
+	@Test
+	public void should_sample_trace_with_higher_probability_when_it_was_sampled_with_lower_one() {
+		Sampler lower = new TraceIdProbabilityBasedSampler(() -> 0.1f);
+		Sampler higher = new TraceIdProbabilityBasedSampler(() -> 0.2f);
+
+		for (int i = 0; i < 1000; i++) {
+			long traceId = RANDOM.nextLong();
+			if (lower.isSampled(traceId)) {
+				then(higher.isSampled(traceId)).isTrue();
+			}
+		}
+	}
+
+	@Test
+	public void should_pick_up_probability_changes() {
+		AtomicReference<Float> probability = new AtomicReference<>(0f);
+		Sampler sampler = new TraceIdProbabilityBasedSampler(probability::get);
+		then(countNumberOfSampledElements(sampler, 1000)).isZero();
+
+		probability.set(1f);
+
+		then(countNumberOfSampledElements(sampler, 1000)).isEqualTo(1000);
+
+		probability.set(0.35f);
+
+		then(countNumberOfSampledElements(sampler, 100_000)).isBetween(34_000, 36_000);
+	}
+
+	@Test
+	public void should_fail_given_no_probability() {
+		assertThatThrownBy(() -> new TraceIdProbabilityBasedSampler(null)).isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("probability property is required for TraceIdProbabilityBasedSampler");
+	}
+
+	private int countNumberOfSampledElements(Sampler sampler, int numberOfIterations) {
+		int passedCounter = 0;
+		for (int i = 0; i < numberOfIterations; i++) {
+			boolean passed = sampler.isSampled(RANDOM.nextLong());
+			passedCounter = passedCounter + (passed ? 1 : 0);
+		}
+		return passedCounter;
+	}
+
+}
@@ -57,8 +57,9 @@ abstract class AbstractSleuthMethodInvocationProcessor implements SleuthMethodIn
 		if (hasLog) {
 			logEvent(span, log + ".before");
 		}
-		spanTagAnnotationHandler().addAnnotatedParameters(invocation);
-		addTags(invocation, span);
+		SleuthMethodInvocationPlan plan = SleuthMethodInvocationPlan.of(invocation);
+		spanTagAnnotationHandler().addAnnotatedParameters(plan, invocation.getArguments());
+		addTags(plan, span);
 	}
 
 	void after(Span span, boolean isNewSpan, String log, boolean hasLog) {
@@ -80,9 +81,9 @@ abstract class AbstractSleuthMethodInvocationProcessor implements SleuthMethodIn
 		span.error(e);
 	}
 
-	void addTags(MethodInvocation invocation, Span span) {
-		span.tag(CLASS_KEY, invocation.getThis().getClass().getSimpleName());
-		span.tag(METHOD_KEY, invocation.getMethod().getName());
+	void addTags(SleuthMethodInvocationPlan plan, Span span) {
+		span.tag(CLASS_KEY, plan.className);
+		span.tag(METHOD_KEY, plan.methodName);
 	}
 
 	void logEvent(Span span, String name) {
@@ -38,9 +38,7 @@ public class DefaultSpanCreator implements NewSpanParser {
 
 	@Override
 	public void parse(MethodInvocation pjp, NewSpan newSpan, Span span) {
-		String name = newSpan == null || StringUtils.isEmpty(newSpan.name()) ? pjp.getMethod().getName()
-				: newSpan.name();
-		String changedName = SpanNameUtil.toLowerHyphen(name);
+		String changedName = spanName(pjp, newSpan);
 		if (log.isDebugEnabled()) {
 			log.debug("For the class [" + pjp.getThis().getClass() + "] method " + "[" + pjp.getMethod().getName()
 					+ "] will name the span [" + changedName + "]");
@@ -48,4 +46,18 @@ public class DefaultSpanCreator implements NewSpanParser {
 		span.name(changedName);
 	}
 
+	/**
+	 * Takes the name from the {@link SleuthMethodInvocationPlan} when the annotation is
+	 * the one the plan was resolved from, so that it's not converted on each call.
+	 */
+	private String spanName(MethodInvocation pjp, NewSpan newSpan) {
+		SleuthMethodInvocationPlan plan = SleuthMethodInvocationPlan.of(pjp);
+		if (plan.newSpan == newSpan) {
+			return plan.spanName;
+		}
+		String name = newSpan == null || StringUtils.isEmpty(newSpan.name()) ? pjp.getMethod().getName()
+				: newSpan.name();
+		return SpanNameUtil.toLowerHyphen(name);
+	}
+
 }
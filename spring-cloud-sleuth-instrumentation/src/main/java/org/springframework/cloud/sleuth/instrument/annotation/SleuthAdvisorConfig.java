@@ -29,7 +29,6 @@ import org.springframework.aop.ClassFilter;
 import org.springframework.aop.IntroductionInterceptor;
 import org.springframework.aop.Pointcut;
 import org.springframework.aop.support.AbstractPointcutAdvisor;
-import org.springframework.aop.support.AopUtils;
 import org.springframework.aop.support.DynamicMethodMatcherPointcut;
 import org.springframework.aop.support.annotation.AnnotationClassFilter;
 import org.springframework.beans.BeansException;
@@ -181,13 +180,11 @@ class SleuthInterceptor implements IntroductionInterceptor, BeanFactoryAware {
 		if (method == null) {
 			return invocation.proceed();
 		}
-		Method mostSpecificMethod = AopUtils.getMostSpecificMethod(method, invocation.getThis().getClass());
-		NewSpan newSpan = SleuthAnnotationUtils.findAnnotation(mostSpecificMethod, NewSpan.class);
-		ContinueSpan continueSpan = SleuthAnnotationUtils.findAnnotation(mostSpecificMethod, ContinueSpan.class);
-		if (newSpan == null && continueSpan == null) {
+		SleuthMethodInvocationPlan plan = SleuthMethodInvocationPlan.of(invocation);
+		if (plan.newSpan == null && plan.continueSpan == null) {
 			return invocation.proceed();
 		}
-		return methodInvocationProcessor().process(invocation, newSpan, continueSpan);
+		return methodInvocationProcessor().process(invocation, plan.newSpan, plan.continueSpan);
 	}
 
 	private SleuthMethodInvocationProcessor methodInvocationProcessor() {
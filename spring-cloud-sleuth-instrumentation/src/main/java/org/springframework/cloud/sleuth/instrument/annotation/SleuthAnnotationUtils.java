@@ -18,15 +18,12 @@ package org.springframework.cloud.sleuth.instrument.annotation;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.cloud.sleuth.annotation.ContinueSpan;
 import org.springframework.cloud.sleuth.annotation.NewSpan;
-import org.springframework.cloud.sleuth.annotation.SpanTag;
 import org.springframework.core.annotation.AnnotationUtils;
 
 /**
@@ -48,25 +45,6 @@ final class SleuthAnnotationUtils {
 		return findAnnotation(method, NewSpan.class) != null || findAnnotation(method, ContinueSpan.class) != null;
 	}
 
-	static boolean hasAnnotatedParams(Method method, Object[] args) {
-		return !findAnnotatedParameters(method, args).isEmpty();
-	}
-
-	static List<SleuthAnnotatedParameter> findAnnotatedParameters(Method method, Object[] args) {
-		Annotation[][] parameters = method.getParameterAnnotations();
-		List<SleuthAnnotatedParameter> result = new ArrayList<>();
-		int i = 0;
-		for (Annotation[] parameter : parameters) {
-			for (Annotation parameter2 : parameter) {
-				if (parameter2 instanceof SpanTag) {
-					result.add(new SleuthAnnotatedParameter(i, (SpanTag) parameter2, args[i]));
-				}
-			}
-			i++;
-		}
-		return result;
-	}
-
 	/**
 	 * Searches for an annotation either on a method or inside the method parameters.
 	 * @param <T> - annotation
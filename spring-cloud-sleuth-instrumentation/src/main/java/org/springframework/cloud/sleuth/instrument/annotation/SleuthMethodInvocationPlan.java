@@ -0,0 +1,165 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.annotation;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.cloud.sleuth.annotation.ContinueSpan;
+import org.springframework.cloud.sleuth.annotation.NewSpan;
+import org.springframework.cloud.sleuth.annotation.SpanTag;
+import org.springframework.cloud.sleuth.internal.SpanNameUtil;
+import org.springframework.util.StringUtils;
+
+/**
+ * Everything that the Sleuth annotations processing needs to know about an annotated
+ * method, resolved once per target class and method. Replaying the plan requires no
+ * reflection.
+ *
+ * @author Marcin Grzejszczak
+ * @since 3.0.4
+ */
+final class SleuthMethodInvocationPlan {
+
+	private static final ClassValue<Map<Method, SleuthMethodInvocationPlan>> PLANS = new ClassValue<Map<Method, SleuthMethodInvocationPlan>>() {
+		@Override
+		protected Map<Method, SleuthMethodInvocationPlan> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	final NewSpan newSpan;
+
+	final ContinueSpan continueSpan;
+
+	/**
+	 * Span name as set by the {@link DefaultSpanCreator}.
+	 */
+	final String spanName;
+
+	final String className;
+
+	final String methodName;
+
+	final TagParameter[] tagParameters;
+
+	private SleuthMethodInvocationPlan(NewSpan newSpan, ContinueSpan continueSpan, String spanName,
+			String className, String methodName, TagParameter[] tagParameters) {
+		this.newSpan = newSpan;
+		this.continueSpan = continueSpan;
+		this.spanName = spanName;
+		this.className = className;
+		this.methodName = methodName;
+		this.tagParameters = tagParameters;
+	}
+
+	static SleuthMethodInvocationPlan of(MethodInvocation invocation) {
+		Class<?> targetClass = invocation.getThis().getClass();
+		Method method = invocation.getMethod();
+		Map<Method, SleuthMethodInvocationPlan> plans = PLANS.get(targetClass);
+		SleuthMethodInvocationPlan plan = plans.get(method);
+		if (plan == null) {
+			plan = plans.computeIfAbsent(method, m -> create(targetClass, m));
+		}
+		return plan;
+	}
+
+	private static SleuthMethodInvocationPlan create(Class<?> targetClass, Method method) {
+		Method mostSpecificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+		NewSpan newSpan = SleuthAnnotationUtils.findAnnotation(mostSpecificMethod, NewSpan.class);
+		ContinueSpan continueSpan = SleuthAnnotationUtils.findAnnotation(mostSpecificMethod, ContinueSpan.class);
+		String name = newSpan == null || StringUtils.isEmpty(newSpan.name()) ? method.getName() : newSpan.name();
+		return new SleuthMethodInvocationPlan(newSpan, continueSpan, SpanNameUtil.toLowerHyphen(name),
+				targetClass.getSimpleName(), method.getName(),
+				tagParameters(targetClass, method, mostSpecificMethod));
+	}
+
+	/**
+	 * Parameters annotated with {@link SpanTag} on the most specific method, on the
+	 * methods of the directly implemented interfaces and on the invoked method. The first
+	 * annotation found for a given parameter wins.
+	 */
+	private static TagParameter[] tagParameters(Class<?> targetClass, Method method, Method mostSpecificMethod) {
+		List<TagParameter> tagParameters = new ArrayList<>();
+		addTagParameters(tagParameters, mostSpecificMethod);
+		for (Class<?> implementedInterface : targetClass.getInterfaces()) {
+			for (Method methodFromInterface : implementedInterface.getMethods()) {
+				if (methodFromInterface.getName().equals(mostSpecificMethod.getName()) && Arrays
+						.equals(methodFromInterface.getParameterTypes(), mostSpecificMethod.getParameterTypes())) {
+					addTagParameters(tagParameters, methodFromInterface);
+				}
+			}
+		}
+		// that can happen if we have an abstraction and a concrete class that is
+		// annotated with @NewSpan annotation
+		if (!method.equals(mostSpecificMethod)) {
+			addTagParameters(tagParameters, method);
+		}
+		return tagParameters.toArray(new TagParameter[0]);
+	}
+
+	private static void addTagParameters(List<TagParameter> tagParameters, Method method) {
+		Annotation[][] parameters = method.getParameterAnnotations();
+		for (int i = 0; i < parameters.length; i++) {
+			if (containsIndex(tagParameters, i)) {
+				continue;
+			}
+			for (Annotation annotation : parameters[i]) {
+				if (annotation instanceof SpanTag) {
+					tagParameters.add(new TagParameter(i, (SpanTag) annotation));
+				}
+			}
+		}
+	}
+
+	private static boolean containsIndex(List<TagParameter> tagParameters, int index) {
+		for (TagParameter tagParameter : tagParameters) {
+			if (tagParameter.parameterIndex == index) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Method parameter annotated with {@link SpanTag}.
+	 */
+	static final class TagParameter {
+
+		final int parameterIndex;
+
+		final SpanTag annotation;
+
+		final String key;
+
+		TagParameter(int parameterIndex, SpanTag annotation) {
+			this.parameterIndex = parameterIndex;
+			this.annotation = annotation;
+			this.key = StringUtils.hasText(annotation.value()) ? annotation.value() : annotation.key();
+		}
+
+	}
+
+}
@@ -16,15 +16,9 @@
 
 package org.springframework.cloud.sleuth.instrument.annotation;
 
-import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import org.aopalliance.intercept.MethodInvocation;
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
-
-import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.cloud.sleuth.SpanCustomizer;
 import org.springframework.cloud.sleuth.annotation.NoOpTagValueResolver;
@@ -40,92 +34,30 @@ import org.springframework.util.StringUtils;
  * one set of tracing information.
  *
  * This information is then used to add proper tags to the span from the method arguments
- * that are annotated with {@link SpanTag}.
+ * that are annotated with {@link SpanTag}. The annotated parameters are looked up only
+ * once per method, see {@link SleuthMethodInvocationPlan}.
  *
  * @author Christian Schwerdtfeger
  * @since 1.2.0
  */
 class SpanTagAnnotationHandler {
 
-	private static final Log log = LogFactory.getLog(SpanTagAnnotationHandler.class);
-
 	private final BeanFactory beanFactory;
 
+	private final Map<Class<? extends TagValueResolver>, TagValueResolver> tagValueResolvers = new ConcurrentHashMap<>();
+
 	private SpanCustomizer spanCustomizer;
 
+	private TagValueExpressionResolver tagValueExpressionResolver;
+
 	SpanTagAnnotationHandler(BeanFactory beanFactory) {
 		this.beanFactory = beanFactory;
 	}
 
-	void addAnnotatedParameters(MethodInvocation pjp) {
-		try {
-			Method method = pjp.getMethod();
-			Method mostSpecificMethod = AopUtils.getMostSpecificMethod(method, pjp.getThis().getClass());
-			List<SleuthAnnotatedParameter> annotatedParameters = SleuthAnnotationUtils
-					.findAnnotatedParameters(mostSpecificMethod, pjp.getArguments());
-			getAnnotationsFromInterfaces(pjp, mostSpecificMethod, annotatedParameters);
-			mergeAnnotatedMethodsIfNecessary(pjp, method, mostSpecificMethod, annotatedParameters);
-			addAnnotatedArguments(annotatedParameters);
-		}
-		catch (SecurityException ex) {
-			log.error("Exception occurred while trying to add annotated parameters", ex);
-		}
-	}
-
-	private void getAnnotationsFromInterfaces(MethodInvocation pjp, Method mostSpecificMethod,
-			List<SleuthAnnotatedParameter> annotatedParameters) {
-		Class<?>[] implementedInterfaces = pjp.getThis().getClass().getInterfaces();
-		if (implementedInterfaces.length > 0) {
-			for (Class<?> implementedInterface : implementedInterfaces) {
-				for (Method methodFromInterface : implementedInterface.getMethods()) {
-					if (methodsAreTheSame(mostSpecificMethod, methodFromInterface)) {
-						List<SleuthAnnotatedParameter> annotatedParametersForActualMethod = SleuthAnnotationUtils
-								.findAnnotatedParameters(methodFromInterface, pjp.getArguments());
-						mergeAnnotatedParameters(annotatedParameters, annotatedParametersForActualMethod);
-					}
-				}
-			}
-		}
-	}
-
-	private boolean methodsAreTheSame(Method mostSpecificMethod, Method method1) {
-		return method1.getName().equals(mostSpecificMethod.getName())
-				&& Arrays.equals(method1.getParameterTypes(), mostSpecificMethod.getParameterTypes());
-	}
-
-	private void mergeAnnotatedMethodsIfNecessary(MethodInvocation pjp, Method method, Method mostSpecificMethod,
-			List<SleuthAnnotatedParameter> annotatedParameters) {
-		// that can happen if we have an abstraction and a concrete class that is
-		// annotated with @NewSpan annotation
-		if (!method.equals(mostSpecificMethod)) {
-			List<SleuthAnnotatedParameter> annotatedParametersForActualMethod = SleuthAnnotationUtils
-					.findAnnotatedParameters(method, pjp.getArguments());
-			mergeAnnotatedParameters(annotatedParameters, annotatedParametersForActualMethod);
-		}
-	}
-
-	private void mergeAnnotatedParameters(List<SleuthAnnotatedParameter> annotatedParametersIndices,
-			List<SleuthAnnotatedParameter> annotatedParametersIndicesForActualMethod) {
-		for (SleuthAnnotatedParameter container : annotatedParametersIndicesForActualMethod) {
-			final int index = container.parameterIndex;
-			boolean parameterContained = false;
-			for (SleuthAnnotatedParameter parameterContainer : annotatedParametersIndices) {
-				if (parameterContainer.parameterIndex == index) {
-					parameterContained = true;
-					break;
-				}
-			}
-			if (!parameterContained) {
-				annotatedParametersIndices.add(container);
-			}
-		}
-	}
-
-	private void addAnnotatedArguments(List<SleuthAnnotatedParameter> toBeAdded) {
-		for (SleuthAnnotatedParameter container : toBeAdded) {
-			String tagValue = resolveTagValue(container.annotation, container.argument);
-			String tagKey = resolveTagKey(container);
-			span().tag(tagKey, tagValue);
+	void addAnnotatedParameters(SleuthMethodInvocationPlan plan, Object[] arguments) {
+		for (SleuthMethodInvocationPlan.TagParameter tagParameter : plan.tagParameters) {
+			String tagValue = resolveTagValue(tagParameter.annotation, arguments[tagParameter.parameterIndex]);
+			span().tag(tagParameter.key, tagValue);
 		}
 	}
 
@@ -136,20 +68,13 @@ class SpanTagAnnotationHandler {
 		return this.spanCustomizer;
 	}
 
-	private String resolveTagKey(SleuthAnnotatedParameter container) {
-		return StringUtils.hasText(container.annotation.value()) ? container.annotation.value()
-				: container.annotation.key();
-	}
-
 	String resolveTagValue(SpanTag annotation, Object argument) {
 		String value = null;
 		if (annotation.resolver() != NoOpTagValueResolver.class) {
-			TagValueResolver tagValueResolver = this.beanFactory.getBean(annotation.resolver());
-			value = tagValueResolver.resolve(argument);
+			value = tagValueResolver(annotation.resolver()).resolve(argument);
 		}
 		else if (StringUtils.hasText(annotation.expression())) {
-			value = this.beanFactory.getBean(TagValueExpressionResolver.class).resolve(annotation.expression(),
-					argument);
+			value = tagValueExpressionResolver().resolve(annotation.expression(), argument);
 		}
 		else if (argument != null) {
 			value = argument.toString();
@@ -157,4 +82,20 @@ class SpanTagAnnotationHandler {
 		return value == null ? "" : value;
 	}
 
+	private TagValueResolver tagValueResolver(Class<? extends TagValueResolver> resolverClass) {
+		TagValueResolver tagValueResolver = this.tagValueResolvers.get(resolverClass);
+		if (tagValueResolver == null) {
+			tagValueResolver = this.tagValueResolvers.computeIfAbsent(resolverClass,
+					type -> this.beanFactory.getBean(type));
+		}
+		return tagValueResolver;
+	}
+
+	private TagValueExpressionResolver tagValueExpressionResolver() {
+		if (this.tagValueExpressionResolver == null) {
+			this.tagValueExpressionResolver = this.beanFactory.getBean(TagValueExpressionResolver.class);
+		}
+		return this.tagValueExpressionResolver;
+	}
+
 }
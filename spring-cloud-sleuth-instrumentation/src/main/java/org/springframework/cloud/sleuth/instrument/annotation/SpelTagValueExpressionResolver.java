@@ -16,18 +16,24 @@
 
 package org.springframework.cloud.sleuth.instrument.annotation;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.cloud.sleuth.annotation.TagValueExpressionResolver;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.SimpleEvaluationContext;
 
 /**
  * Uses SPEL to evaluate the expression. If an exception is thrown will return the
- * {@code toString()} of the parameter.
+ * {@code toString()} of the parameter. Parsed expressions are cached by their text and
+ * get compiled by SPEL once they have been interpreted a few times.
  *
  * @author Marcin Grzejszczak
  * @since 1.2.0
@@ -36,13 +42,25 @@ public class SpelTagValueExpressionResolver implements TagValueExpressionResolve
 
 	private static final Log log = LogFactory.getLog(SpelTagValueExpressionResolver.class);
 
+	// Expressions come from @SpanTag annotations, so there are at most as many as there
+	// are annotated parameters. The bound only matters when the resolver is called
+	// directly with expressions built at runtime. Clearing the cache then drops compiled
+	// expressions too, which are parsed and interpreted again as before the cache.
+	private static final int MAX_CACHED_EXPRESSIONS = 256;
+
+	// without a class loader SPEL compiles against the thread context class loader, which
+	// sees the classes of the evaluated parameters
+	private final ExpressionParser expressionParser = new SpelExpressionParser(
+			new SpelParserConfiguration(SpelCompilerMode.MIXED, null));
+
+	private final SimpleEvaluationContext context = SimpleEvaluationContext.forReadOnlyDataBinding().build();
+
+	private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
 	@Override
 	public String resolve(String expression, Object parameter) {
 		try {
-			SimpleEvaluationContext context = SimpleEvaluationContext.forReadOnlyDataBinding().build();
-			ExpressionParser expressionParser = new SpelExpressionParser();
-			Expression expressionToEvaluate = expressionParser.parseExpression(expression);
-			return expressionToEvaluate.getValue(context, parameter, String.class);
+			return expression(expression).getValue(this.context, parameter, String.class);
 		}
 		catch (Exception ex) {
 			log.error("Exception occurred while tying to evaluate the SPEL expression [" + expression + "]", ex);
@@ -50,4 +68,16 @@ public class SpelTagValueExpressionResolver implements TagValueExpressionResolve
 		return parameter.toString();
 	}
 
+	Expression expression(String expression) {
+		Expression parsed = this.expressions.get(expression);
+		if (parsed == null) {
+			parsed = this.expressionParser.parseExpression(expression);
+			if (this.expressions.size() >= MAX_CACHED_EXPRESSIONS) {
+				this.expressions.clear();
+			}
+			this.expressions.put(expression, parsed);
+		}
+		return parsed;
+	}
+
 }
@@ -24,6 +24,7 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import org.aopalliance.aop.Advice;
@@ -50,12 +51,29 @@ public class ExecutorInstrumentor {
 
 	private static final Log log = LogFactory.getLog(ExecutorInstrumentor.class);
 
+	private static final String THREAD_PER_TASK_EXECUTOR_CLASS_NAME = "java.util.concurrent.ThreadPerTaskExecutor";
+
 	private final Supplier<List<String>> ignoredBeans;
 
+	private final Function<String, ExecutorTracingMode> tracingModes;
+
 	private final BeanFactory beanFactory;
 
 	public ExecutorInstrumentor(Supplier<List<String>> ignoredBeans, BeanFactory beanFactory) {
+		this(ignoredBeans, beanName -> ExecutorTracingMode.SPAN, beanFactory);
+	}
+
+	/**
+	 * @param ignoredBeans names of beans that should not be instrumented
+	 * @param tracingModes resolves the {@link ExecutorTracingMode} of an executor bean by
+	 * its name
+	 * @param beanFactory bean factory
+	 * @since 3.0.4
+	 */
+	public ExecutorInstrumentor(Supplier<List<String>> ignoredBeans,
+			Function<String, ExecutorTracingMode> tracingModes, BeanFactory beanFactory) {
 		this.ignoredBeans = ignoredBeans;
+		this.tracingModes = tracingModes;
 		this.beanFactory = beanFactory;
 	}
 
@@ -80,7 +98,15 @@ public class ExecutorInstrumentor {
 			log.info("Bean is already instrumented or is not applicable for instrumentation " + beanName);
 			return bean;
 		}
-		if (bean instanceof ThreadPoolTaskExecutor) {
+		if (isThreadPerTaskExecutor(bean)) {
+			if (isProxyNeeded(beanName)) {
+				return wrapThreadPerTaskExecutor(bean, beanName);
+			}
+			else {
+				log.info("Not instrumenting bean " + beanName);
+			}
+		}
+		else if (bean instanceof ThreadPoolTaskExecutor) {
 			if (isProxyNeeded(beanName)) {
 				return wrapThreadPoolTaskExecutor(bean, beanName);
 			}
@@ -118,20 +144,43 @@ public class ExecutorInstrumentor {
 		return bean;
 	}
 
+	/**
+	 * Executors that start a new thread for each task, such as the ones created via
+	 * {@code Executors.newVirtualThreadPerTaskExecutor()}. There are no pooled threads
+	 * that could be reused with a stale context, so there is nothing to intercept apart
+	 * from the task submission.
+	 * @param bean bean to check
+	 * @return {@code true} if the bean is a thread-per-task executor
+	 */
+	static boolean isThreadPerTaskExecutor(Object bean) {
+		return THREAD_PER_TASK_EXECUTOR_CLASS_NAME.equals(bean.getClass().getName());
+	}
+
+	/**
+	 * The JDK's thread-per-task executor is a final, package-private class with final
+	 * methods - instead of going through a proxy we wrap it directly.
+	 */
+	private Object wrapThreadPerTaskExecutor(Object bean, String beanName) {
+		return new TraceableExecutorService(this.beanFactory, (ExecutorService) bean, beanName,
+				tracingMode(beanName));
+	}
+
 	private Object wrapExecutor(Object bean, String beanName) {
 		Executor executor = (Executor) bean;
 		boolean methodFinal = anyFinalMethods(executor);
 		boolean classFinal = Modifier.isFinal(bean.getClass().getModifiers());
 		boolean cglibProxy = !methodFinal && !classFinal;
 		try {
-			return createProxy(bean, cglibProxy, new ExecutorMethodInterceptor<>(executor, this.beanFactory, beanName));
+			return createProxy(bean, cglibProxy,
+					new ExecutorMethodInterceptor<>(executor, this.beanFactory, beanName, tracingMode(beanName)));
 		}
 		catch (AopConfigException ex) {
 			if (cglibProxy) {
 				if (log.isDebugEnabled()) {
 					log.debug("Exception occurred while trying to create a proxy, falling back to JDK proxy", ex);
 				}
-				return createProxy(bean, false, new ExecutorMethodInterceptor<>(executor, this.beanFactory, beanName));
+				return createProxy(bean, false,
+						new ExecutorMethodInterceptor<>(executor, this.beanFactory, beanName, tracingMode(beanName)));
 			}
 			throw ex;
 		}
@@ -173,46 +222,57 @@ public class ExecutorInstrumentor {
 		return !this.ignoredBeans.get().contains(beanName);
 	}
 
+	ExecutorTracingMode tracingMode(String beanName) {
+		ExecutorTracingMode mode = this.tracingModes.apply(beanName);
+		return mode != null ? mode : ExecutorTracingMode.SPAN;
+	}
+
 	Object createThreadPoolTaskExecutorProxy(Object bean, boolean cglibProxy, ThreadPoolTaskExecutor executor,
 			String beanName) {
+		ExecutorTracingMode mode = tracingMode(beanName);
 		if (!cglibProxy) {
-			return new LazyTraceThreadPoolTaskExecutor(this.beanFactory, executor, beanName);
+			return new LazyTraceThreadPoolTaskExecutor(this.beanFactory, executor, beanName, mode);
 		}
 		return getProxiedObject(bean, beanName, true, executor,
-				() -> new LazyTraceThreadPoolTaskExecutor(this.beanFactory, executor, beanName));
+				() -> new LazyTraceThreadPoolTaskExecutor(this.beanFactory, executor, beanName, mode));
 	}
 
 	Supplier<Executor> createThreadPoolTaskSchedulerProxy(ThreadPoolTaskScheduler executor, String beanName) {
-		return () -> new LazyTraceThreadPoolTaskScheduler(this.beanFactory, executor, beanName);
+		ExecutorTracingMode mode = tracingMode(beanName);
+		return () -> new LazyTraceThreadPoolTaskScheduler(this.beanFactory, executor, beanName, mode);
 	}
 
 	Supplier<Executor> createScheduledThreadPoolExecutorProxy(ScheduledThreadPoolExecutor executor, String beanName) {
+		ExecutorTracingMode mode = tracingMode(beanName);
 		return () -> new LazyTraceScheduledThreadPoolExecutor(executor.getCorePoolSize(), executor.getThreadFactory(),
-				executor.getRejectedExecutionHandler(), this.beanFactory, executor, beanName);
+				executor.getRejectedExecutionHandler(), this.beanFactory, executor, beanName, mode);
 	}
 
 	Object createExecutorServiceProxy(Object bean, boolean cglibProxy, ExecutorService executor, String beanName) {
+		ExecutorTracingMode mode = tracingMode(beanName);
 		return getProxiedObject(bean, beanName, cglibProxy, executor, () -> {
 			if (executor instanceof ScheduledExecutorService) {
-				return new TraceableScheduledExecutorService(this.beanFactory, executor, beanName);
+				return new TraceableScheduledExecutorService(this.beanFactory, executor, beanName, mode);
 			}
-			return new TraceableExecutorService(this.beanFactory, executor, beanName);
+			return new TraceableExecutorService(this.beanFactory, executor, beanName, mode);
 		});
 	}
 
 	Object createScheduledExecutorServiceProxy(Object bean, boolean cglibProxy, ScheduledExecutorService executor,
 			String beanName) {
+		ExecutorTracingMode mode = tracingMode(beanName);
 		return getProxiedObject(bean, beanName, cglibProxy, executor,
-				() -> new TraceableScheduledExecutorService(this.beanFactory, executor, beanName));
+				() -> new TraceableScheduledExecutorService(this.beanFactory, executor, beanName, mode));
 	}
 
 	Object createAsyncTaskExecutorProxy(Object bean, boolean cglibProxy, AsyncTaskExecutor executor, String beanName) {
+		ExecutorTracingMode mode = tracingMode(beanName);
 		return getProxiedObject(bean, beanName, cglibProxy, executor, () -> {
 			if (bean instanceof ThreadPoolTaskScheduler) {
 				return new LazyTraceThreadPoolTaskScheduler(this.beanFactory, (ThreadPoolTaskScheduler) executor,
-						beanName);
+						beanName, mode);
 			}
-			return new LazyTraceAsyncTaskExecutor(this.beanFactory, executor, beanName);
+			return new LazyTraceAsyncTaskExecutor(this.beanFactory, executor, beanName, mode);
 		});
 	}
 
@@ -256,7 +316,8 @@ public class ExecutorInstrumentor {
 			Supplier<Executor> supplier) {
 		ProxyFactoryBean factory = new ProxyFactoryBean();
 		factory.setProxyTargetClass(cglibProxy);
-		factory.addAdvice(new ExecutorMethodInterceptor<Executor>(executor, this.beanFactory, beanName) {
+		factory.addAdvice(new ExecutorMethodInterceptor<Executor>(executor, this.beanFactory, beanName,
+				tracingMode(beanName)) {
 			@Override
 			Executor executor(BeanFactory beanFactory, Executor executor, String beanName) {
 				return supplier.get();
@@ -316,10 +377,17 @@ class ExecutorMethodInterceptor<T extends Executor> implements MethodInterceptor
 
 	private final String beanName;
 
+	private final ExecutorTracingMode mode;
+
 	ExecutorMethodInterceptor(T delegate, BeanFactory beanFactory, String beanName) {
+		this(delegate, beanFactory, beanName, ExecutorTracingMode.SPAN);
+	}
+
+	ExecutorMethodInterceptor(T delegate, BeanFactory beanFactory, String beanName, ExecutorTracingMode mode) {
 		this.delegate = delegate;
 		this.beanFactory = beanFactory;
 		this.beanName = beanName;
+		this.mode = mode;
 	}
 
 	@Override
@@ -345,7 +413,7 @@ class ExecutorMethodInterceptor<T extends Executor> implements MethodInterceptor
 	}
 
 	T executor(BeanFactory beanFactory, T executor, String beanName) {
-		return (T) new LazyTraceExecutor(beanFactory, executor, beanName);
+		return (T) new LazyTraceExecutor(beanFactory, executor, beanName, this.mode);
 	}
 
 }
@@ -14,29 +14,26 @@
  * limitations under the License.
  */
 
-package org.springframework.cloud.sleuth.instrument.annotation;
-
-import org.springframework.cloud.sleuth.annotation.SpanTag;
+package org.springframework.cloud.sleuth.instrument.async;
 
 /**
- * A container class that holds information about the parameter of the annotated method
- * argument.
+ * Describes how tasks submitted to an instrumented executor are traced.
  *
- * @author Christian Schwerdtfeger
- * @since 1.2.0
+ * @author Marcin Grzejszczak
+ * @since 3.0.4
  */
-class SleuthAnnotatedParameter {
-
-	final int parameterIndex;
-
-	final SpanTag annotation;
-
-	final Object argument;
-
-	SleuthAnnotatedParameter(int parameterIndex, SpanTag annotation, Object argument) {
-		this.parameterIndex = parameterIndex;
-		this.annotation = annotation;
-		this.argument = argument;
-	}
+public enum ExecutorTracingMode {
+
+	/**
+	 * Each task runs in a new child span of the span that was current when the task got
+	 * submitted.
+	 */
+	SPAN,
+
+	/**
+	 * Each task runs in the trace context that was current when the task got submitted.
+	 * No span is created, so the tasks neither get sampled nor reported on their own.
+	 */
+	CONTEXT
 
 }
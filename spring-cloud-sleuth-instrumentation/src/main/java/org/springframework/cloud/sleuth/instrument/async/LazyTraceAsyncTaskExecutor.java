@@ -48,27 +48,33 @@ public class LazyTraceAsyncTaskExecutor implements AsyncTaskExecutor {
 
 	private final String beanName;
 
+	private final ExecutorTracingMode mode;
+
 	private Tracer tracing;
 
 	private SpanNamer spanNamer;
 
 	public LazyTraceAsyncTaskExecutor(BeanFactory beanFactory, AsyncTaskExecutor delegate) {
-		this.beanFactory = beanFactory;
-		this.delegate = delegate;
-		this.beanName = null;
+		this(beanFactory, delegate, null);
 	}
 
 	public LazyTraceAsyncTaskExecutor(BeanFactory beanFactory, AsyncTaskExecutor delegate, String beanName) {
+		this(beanFactory, delegate, beanName, ExecutorTracingMode.SPAN);
+	}
+
+	public LazyTraceAsyncTaskExecutor(BeanFactory beanFactory, AsyncTaskExecutor delegate, String beanName,
+			ExecutorTracingMode mode) {
 		this.beanFactory = beanFactory;
 		this.delegate = delegate;
 		this.beanName = beanName;
+		this.mode = mode;
 	}
 
 	@Override
 	public void execute(Runnable task) {
 		Runnable taskToRun = task;
 		if (!ContextUtil.isContextUnusable(this.beanFactory)) {
-			taskToRun = new TraceRunnable(tracing(), spanNamer(), task, this.beanName);
+			taskToRun = new TraceRunnable(tracing(), spanNamer(), task, this.beanName, this.mode);
 		}
 		this.delegate.execute(taskToRun);
 	}
@@ -77,7 +83,7 @@ public class LazyTraceAsyncTaskExecutor implements AsyncTaskExecutor {
 	public void execute(Runnable task, long startTimeout) {
 		Runnable taskToRun = task;
 		if (!ContextUtil.isContextUnusable(this.beanFactory)) {
-			taskToRun = new TraceRunnable(tracing(), spanNamer(), task, this.beanName);
+			taskToRun = new TraceRunnable(tracing(), spanNamer(), task, this.beanName, this.mode);
 		}
 		this.delegate.execute(taskToRun, startTimeout);
 	}
@@ -86,7 +92,7 @@ public class LazyTraceAsyncTaskExecutor implements AsyncTaskExecutor {
 	public Future<?> submit(Runnable task) {
 		Runnable taskToRun = task;
 		if (!ContextUtil.isContextUnusable(this.beanFactory)) {
-			taskToRun = new TraceRunnable(tracing(), spanNamer(), task, this.beanName);
+			taskToRun = new TraceRunnable(tracing(), spanNamer(), task, this.beanName, this.mode);
 		}
 		return this.delegate.submit(taskToRun);
 	}
@@ -95,7 +101,7 @@ public class LazyTraceAsyncTaskExecutor implements AsyncTaskExecutor {
 	public <T> Future<T> submit(Callable<T> task) {
 		Callable<T> taskToRun = task;
 		if (!ContextUtil.isContextUnusable(this.beanFactory)) {
-			taskToRun = new TraceCallable<>(tracing(), spanNamer(), task, this.beanName);
+			taskToRun = new TraceCallable<>(tracing(), spanNamer(), task, this.beanName, this.mode);
 		}
 		return this.delegate.submit(taskToRun);
 	}
@@ -45,20 +45,25 @@ public class LazyTraceExecutor implements Executor {
 
 	private final String beanName;
 
+	private final ExecutorTracingMode mode;
+
 	private Tracer tracer;
 
 	private SpanNamer spanNamer;
 
 	public LazyTraceExecutor(BeanFactory beanFactory, Executor delegate) {
-		this.beanFactory = beanFactory;
-		this.delegate = delegate;
-		this.beanName = null;
+		this(beanFactory, delegate, null);
 	}
 
 	public LazyTraceExecutor(BeanFactory beanFactory, Executor delegate, String beanName) {
+		this(beanFactory, delegate, beanName, ExecutorTracingMode.SPAN);
+	}
+
+	public LazyTraceExecutor(BeanFactory beanFactory, Executor delegate, String beanName, ExecutorTracingMode mode) {
 		this.beanFactory = beanFactory;
 		this.delegate = delegate;
 		this.beanName = beanName;
+		this.mode = mode;
 	}
 
 	@Override
@@ -76,7 +81,7 @@ public class LazyTraceExecutor implements Executor {
 				return;
 			}
 		}
-		this.delegate.execute(new TraceRunnable(this.tracer, spanNamer(), command, this.beanName));
+		this.delegate.execute(new TraceRunnable(this.tracer, spanNamer(), command, this.beanName, this.mode));
 	}
 
 	// due to some race conditions trace keys might not be ready yet
@@ -62,6 +62,8 @@ class LazyTraceScheduledThreadPoolExecutor extends ScheduledThreadPoolExecutor {
 
 	private final String beanName;
 
+	private final ExecutorTracingMode mode;
+
 	private final Method decorateTaskRunnable;
 
 	private final Method decorateTaskCallable;
@@ -82,10 +84,16 @@ class LazyTraceScheduledThreadPoolExecutor extends ScheduledThreadPoolExecutor {
 
 	LazyTraceScheduledThreadPoolExecutor(int corePoolSize, BeanFactory beanFactory,
 			ScheduledThreadPoolExecutor delegate, String beanName) {
+		this(corePoolSize, beanFactory, delegate, beanName, ExecutorTracingMode.SPAN);
+	}
+
+	LazyTraceScheduledThreadPoolExecutor(int corePoolSize, BeanFactory beanFactory,
+			ScheduledThreadPoolExecutor delegate, String beanName, ExecutorTracingMode mode) {
 		super(corePoolSize);
 		this.beanFactory = beanFactory;
 		this.delegate = delegate;
 		this.beanName = beanName;
+		this.mode = mode;
 		Method decorateTaskRunnable = ReflectionUtils.findMethod(ScheduledThreadPoolExecutor.class, "decorateTask",
 				Runnable.class, RunnableScheduledFuture.class);
 		this.decorateTaskRunnable = makeAccessibleIfNotNullAndOverridden(decorateTaskRunnable);
@@ -151,10 +159,17 @@ class LazyTraceScheduledThreadPoolExecutor extends ScheduledThreadPoolExecutor {
 	LazyTraceScheduledThreadPoolExecutor(int corePoolSize, ThreadFactory threadFactory,
 			RejectedExecutionHandler handler, BeanFactory beanFactory, ScheduledThreadPoolExecutor delegate,
 			String beanName) {
+		this(corePoolSize, threadFactory, handler, beanFactory, delegate, beanName, ExecutorTracingMode.SPAN);
+	}
+
+	LazyTraceScheduledThreadPoolExecutor(int corePoolSize, ThreadFactory threadFactory,
+			RejectedExecutionHandler handler, BeanFactory beanFactory, ScheduledThreadPoolExecutor delegate,
+			String beanName, ExecutorTracingMode mode) {
 		super(corePoolSize, threadFactory, handler);
 		this.beanFactory = beanFactory;
 		this.delegate = delegate;
 		this.beanName = beanName;
+		this.mode = mode;
 		Method decorateTaskRunnable = ReflectionUtils.findMethod(ScheduledThreadPoolExecutor.class, "decorateTask",
 				Runnable.class, RunnableScheduledFuture.class);
 		this.decorateTaskRunnable = makeAccessibleIfNotNullAndOverridden(decorateTaskRunnable);
@@ -179,7 +194,7 @@ class LazyTraceScheduledThreadPoolExecutor extends ScheduledThreadPoolExecutor {
 		if (isContextUnusable()) {
 			return delegate;
 		}
-		return new TraceRunnable(tracing(), spanNamer(), delegate, this.beanName);
+		return new TraceRunnable(tracing(), spanNamer(), delegate, this.beanName, this.mode);
 	}
 
 	boolean isContextUnusable() {
@@ -190,7 +205,7 @@ class LazyTraceScheduledThreadPoolExecutor extends ScheduledThreadPoolExecutor {
 		if (isContextUnusable()) {
 			return delegate;
 		}
-		return new TraceCallable<>(tracing(), spanNamer(), delegate, this.beanName);
+		return new TraceCallable<>(tracing(), spanNamer(), delegate, this.beanName, this.mode);
 	}
 
 	@Override
@@ -52,20 +52,26 @@ public class LazyTraceThreadPoolTaskExecutor extends ThreadPoolTaskExecutor {
 
 	private final String beanName;
 
+	private final ExecutorTracingMode mode;
+
 	private Tracer tracer;
 
 	private SpanNamer spanNamer;
 
 	public LazyTraceThreadPoolTaskExecutor(BeanFactory beanFactory, ThreadPoolTaskExecutor delegate) {
-		this.beanFactory = beanFactory;
-		this.delegate = delegate;
-		this.beanName = null;
+		this(beanFactory, delegate, null);
 	}
 
 	public LazyTraceThreadPoolTaskExecutor(BeanFactory beanFactory, ThreadPoolTaskExecutor delegate, String beanName) {
+		this(beanFactory, delegate, beanName, ExecutorTracingMode.SPAN);
+	}
+
+	public LazyTraceThreadPoolTaskExecutor(BeanFactory beanFactory, ThreadPoolTaskExecutor delegate, String beanName,
+			ExecutorTracingMode mode) {
 		this.beanFactory = beanFactory;
 		this.delegate = delegate;
 		this.beanName = beanName;
+		this.mode = mode;
 	}
 
 	@Override
@@ -176,7 +182,7 @@ public class LazyTraceThreadPoolTaskExecutor extends ThreadPoolTaskExecutor {
 			return runnable;
 		}
 		return ContextUtil.isContextUnusable(this.beanFactory) ? runnable
-				: new TraceRunnable(tracer(), spanNamer(), runnable, this.beanName);
+				: new TraceRunnable(tracer(), spanNamer(), runnable, this.beanName, this.mode);
 	}
 
 	private <V> Callable<V> wrap(Callable<V> callable) {
@@ -184,7 +190,7 @@ public class LazyTraceThreadPoolTaskExecutor extends ThreadPoolTaskExecutor {
 			return callable;
 		}
 		return ContextUtil.isContextUnusable(this.beanFactory) ? callable
-				: new TraceCallable<>(tracer(), spanNamer(), callable, this.beanName);
+				: new TraceCallable<>(tracer(), spanNamer(), callable, this.beanName, this.mode);
 	}
 
 	@Override
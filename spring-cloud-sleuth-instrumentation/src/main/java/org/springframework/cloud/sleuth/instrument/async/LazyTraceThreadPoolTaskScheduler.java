@@ -65,6 +65,8 @@ class LazyTraceThreadPoolTaskScheduler extends ThreadPoolTaskScheduler {
 
 	private final String beanName;
 
+	private final ExecutorTracingMode mode;
+
 	private final Method initializeExecutor;
 
 	private final Method createExecutor;
@@ -80,9 +82,15 @@ class LazyTraceThreadPoolTaskScheduler extends ThreadPoolTaskScheduler {
 	private SpanNamer spanNamer;
 
 	LazyTraceThreadPoolTaskScheduler(BeanFactory beanFactory, ThreadPoolTaskScheduler delegate, String beanName) {
+		this(beanFactory, delegate, beanName, ExecutorTracingMode.SPAN);
+	}
+
+	LazyTraceThreadPoolTaskScheduler(BeanFactory beanFactory, ThreadPoolTaskScheduler delegate, String beanName,
+			ExecutorTracingMode mode) {
 		this.beanFactory = beanFactory;
 		this.delegate = delegate;
 		this.beanName = beanName;
+		this.mode = mode;
 		this.initializeExecutor = ReflectionUtils.findMethod(ThreadPoolTaskScheduler.class, "initializeExecutor", null);
 		makeAccessibleIfNotNull(this.initializeExecutor);
 		this.createExecutor = ReflectionUtils.findMethod(ThreadPoolTaskScheduler.class, "createExecutor", null);
@@ -110,7 +118,7 @@ class LazyTraceThreadPoolTaskScheduler extends ThreadPoolTaskScheduler {
 		if (delegate instanceof TraceRunnable) {
 			return delegate;
 		}
-		return new TraceRunnable(tracing(), spanNamer(), delegate, this.beanName);
+		return new TraceRunnable(tracing(), spanNamer(), delegate, this.beanName, this.mode);
 	}
 
 	private <V> Callable<V> traceCallableWhenContextReady(Callable<V> delegate) {
@@ -120,7 +128,7 @@ class LazyTraceThreadPoolTaskScheduler extends ThreadPoolTaskScheduler {
 		if (delegate instanceof TraceCallable) {
 			return delegate;
 		}
-		return new TraceCallable<>(tracing(), spanNamer(), delegate, this.beanName);
+		return new TraceCallable<>(tracing(), spanNamer(), delegate, this.beanName, this.mode);
 	}
 
 	@Override
@@ -147,7 +155,7 @@ class LazyTraceThreadPoolTaskScheduler extends ThreadPoolTaskScheduler {
 		if (executorService instanceof TraceableScheduledExecutorService) {
 			return executorService;
 		}
-		return new TraceableExecutorService(this.beanFactory, executorService, this.beanName);
+		return new TraceableExecutorService(this.beanFactory, executorService, this.beanName, this.mode);
 	}
 
 	private RejectedExecutionHandler traceRejectedExecutionHandler(RejectedExecutionHandler rejectedExecutionHandler) {
@@ -172,14 +180,15 @@ class LazyTraceThreadPoolTaskScheduler extends ThreadPoolTaskScheduler {
 		if (executorService instanceof TraceableScheduledExecutorService) {
 			return executorService;
 		}
-		return new TraceableScheduledExecutorService(this.beanFactory, executorService, this.beanName);
+		return new TraceableScheduledExecutorService(this.beanFactory, executorService, this.beanName,
+				this.mode);
 	}
 
 	@Override
 	public ScheduledExecutorService getScheduledExecutor() throws IllegalStateException {
 		ScheduledExecutorService executor = this.delegate.getScheduledExecutor();
 		return executor instanceof TraceableScheduledExecutorService ? executor
-				: new TraceableScheduledExecutorService(this.beanFactory, executor, this.beanName);
+				: new TraceableScheduledExecutorService(this.beanFactory, executor, this.beanName, this.mode);
 	}
 
 	@Override
@@ -189,7 +198,7 @@ class LazyTraceThreadPoolTaskScheduler extends ThreadPoolTaskScheduler {
 			return executor;
 		}
 		return new LazyTraceScheduledThreadPoolExecutor(executor.getCorePoolSize(), executor.getThreadFactory(),
-				executor.getRejectedExecutionHandler(), this.beanFactory, executor, this.beanName);
+				executor.getRejectedExecutionHandler(), this.beanFactory, executor, this.beanName, this.mode);
 	}
 
 	@Override
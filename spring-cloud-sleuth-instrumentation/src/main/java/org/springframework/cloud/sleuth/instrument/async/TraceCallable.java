@@ -46,6 +46,9 @@ public class TraceCallable<V> implements Callable<V> {
 
 	private final Span parent;
 
+	/**
+	 * {@code null} when only the context should be propagated.
+	 */
 	private final String spanName;
 
 	public TraceCallable(Tracer tracer, SpanNamer spanNamer, Callable<V> delegate) {
@@ -53,14 +56,33 @@ public class TraceCallable<V> implements Callable<V> {
 	}
 
 	public TraceCallable(Tracer tracer, SpanNamer spanNamer, Callable<V> delegate, String name) {
+		this(tracer, spanNamer, delegate, name, ExecutorTracingMode.SPAN);
+	}
+
+	/**
+	 * @param tracer tracer
+	 * @param spanNamer span namer, not used in the {@link ExecutorTracingMode#CONTEXT}
+	 * mode
+	 * @param delegate task to trace
+	 * @param name span name
+	 * @param mode whether a new span should be created for the task
+	 * @since 3.0.4
+	 */
+	public TraceCallable(Tracer tracer, SpanNamer spanNamer, Callable<V> delegate, String name, ExecutorTracingMode mode) {
 		this.tracer = tracer;
 		this.delegate = delegate;
 		this.parent = tracer.currentSpan();
-		this.spanName = name != null ? name : spanNamer.name(delegate, DEFAULT_SPAN_NAME);
+		this.spanName = mode == ExecutorTracingMode.CONTEXT ? null
+				: name != null ? name : spanNamer.name(delegate, DEFAULT_SPAN_NAME);
 	}
 
 	@Override
 	public V call() throws Exception {
+		if (this.spanName == null) {
+			try (Tracer.SpanInScope ws = this.tracer.withSpan(this.parent)) {
+				return this.delegate.call();
+			}
+		}
 		Span childSpan = this.tracer.nextSpan(this.parent).name(this.spanName);
 		try (Tracer.SpanInScope ws = this.tracer.withSpan(childSpan.start())) {
 			return this.delegate.call();
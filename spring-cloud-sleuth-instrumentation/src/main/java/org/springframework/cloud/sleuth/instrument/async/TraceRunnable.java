@@ -43,6 +43,9 @@ public class TraceRunnable implements Runnable {
 
 	private final Span parent;
 
+	/**
+	 * {@code null} when only the context should be propagated.
+	 */
 	private final String spanName;
 
 	public TraceRunnable(Tracer tracer, SpanNamer spanNamer, Runnable delegate) {
@@ -50,14 +53,34 @@ public class TraceRunnable implements Runnable {
 	}
 
 	public TraceRunnable(Tracer tracer, SpanNamer spanNamer, Runnable delegate, String name) {
+		this(tracer, spanNamer, delegate, name, ExecutorTracingMode.SPAN);
+	}
+
+	/**
+	 * @param tracer tracer
+	 * @param spanNamer span namer, not used in the {@link ExecutorTracingMode#CONTEXT}
+	 * mode
+	 * @param delegate task to trace
+	 * @param name span name
+	 * @param mode whether a new span should be created for the task
+	 * @since 3.0.4
+	 */
+	public TraceRunnable(Tracer tracer, SpanNamer spanNamer, Runnable delegate, String name, ExecutorTracingMode mode) {
 		this.tracer = tracer;
 		this.delegate = delegate;
 		this.parent = tracer.currentSpan();
-		this.spanName = name != null ? name : spanNamer.name(delegate, DEFAULT_SPAN_NAME);
+		this.spanName = mode == ExecutorTracingMode.CONTEXT ? null
+				: name != null ? name : spanNamer.name(delegate, DEFAULT_SPAN_NAME);
 	}
 
 	@Override
 	public void run() {
+		if (this.spanName == null) {
+			try (Tracer.SpanInScope ws = this.tracer.withSpan(this.parent)) {
+				this.delegate.run();
+			}
+			return;
+		}
 		Span childSpan = this.tracer.nextSpan(this.parent).name(this.spanName);
 		try (Tracer.SpanInScope ws = this.tracer.withSpan(childSpan.start())) {
 			this.delegate.run();
@@ -44,6 +44,8 @@ public class TraceableExecutorService implements ExecutorService {
 
 	final String spanName;
 
+	final ExecutorTracingMode mode;
+
 	Tracer tracer;
 
 	SpanNamer spanNamer;
@@ -55,15 +57,21 @@ public class TraceableExecutorService implements ExecutorService {
 	}
 
 	public TraceableExecutorService(BeanFactory beanFactory, final ExecutorService delegate, String spanName) {
+		this(beanFactory, delegate, spanName, ExecutorTracingMode.SPAN);
+	}
+
+	public TraceableExecutorService(BeanFactory beanFactory, final ExecutorService delegate, String spanName,
+			ExecutorTracingMode mode) {
 		this.delegate = delegate;
 		this.beanFactory = beanFactory;
 		this.spanName = spanName;
+		this.mode = mode;
 	}
 
 	@Override
 	public void execute(Runnable command) {
 		this.delegate.execute(ContextUtil.isContextUnusable(this.beanFactory) ? command
-				: new TraceRunnable(tracer(), spanNamer(), command, this.spanName));
+				: new TraceRunnable(tracer(), spanNamer(), command, this.spanName, this.mode));
 	}
 
 	@Override
@@ -94,19 +102,19 @@ public class TraceableExecutorService implements ExecutorService {
 	@Override
 	public <T> Future<T> submit(Callable<T> task) {
 		return this.delegate.submit(ContextUtil.isContextUnusable(this.beanFactory) ? task
-				: new TraceCallable<>(tracer(), spanNamer(), task, this.spanName));
+				: new TraceCallable<>(tracer(), spanNamer(), task, this.spanName, this.mode));
 	}
 
 	@Override
 	public <T> Future<T> submit(Runnable task, T result) {
 		return this.delegate.submit(ContextUtil.isContextUnusable(this.beanFactory) ? task
-				: new TraceRunnable(tracer(), spanNamer(), task, this.spanName), result);
+				: new TraceRunnable(tracer(), spanNamer(), task, this.spanName, this.mode), result);
 	}
 
 	@Override
 	public Future<?> submit(Runnable task) {
 		return this.delegate.submit(ContextUtil.isContextUnusable(this.beanFactory) ? task
-				: new TraceRunnable(tracer(), spanNamer(), task, this.spanName));
+				: new TraceRunnable(tracer(), spanNamer(), task, this.spanName, this.mode));
 	}
 
 	@Override
@@ -139,7 +147,7 @@ public class TraceableExecutorService implements ExecutorService {
 		List<Callable<T>> ts = new ArrayList<>();
 		for (Callable<T> task : tasks) {
 			if (!(task instanceof TraceCallable)) {
-				ts.add(new TraceCallable<>(tracer(), spanNamer(), task, this.spanName));
+				ts.add(new TraceCallable<>(tracer(), spanNamer(), task, this.spanName, this.mode));
 			}
 		}
 		return ts;
@@ -42,6 +42,11 @@ public class TraceableScheduledExecutorService extends TraceableExecutorService
 		super(beanFactory, delegate, beanName);
 	}
 
+	public TraceableScheduledExecutorService(BeanFactory beanFactory, final ExecutorService delegate, String beanName,
+			ExecutorTracingMode mode) {
+		super(beanFactory, delegate, beanName, mode);
+	}
+
 	private ScheduledExecutorService getScheduledExecutorService() {
 		return (ScheduledExecutorService) this.delegate;
 	}
@@ -49,13 +54,13 @@ public class TraceableScheduledExecutorService extends TraceableExecutorService
 	@Override
 	public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
 		return getScheduledExecutorService().schedule(ContextUtil.isContextUnusable(this.beanFactory) ? command
-				: new TraceRunnable(tracer(), spanNamer(), command, this.spanName), delay, unit);
+				: new TraceRunnable(tracer(), spanNamer(), command, this.spanName, this.mode), delay, unit);
 	}
 
 	@Override
 	public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
 		return getScheduledExecutorService().schedule(ContextUtil.isContextUnusable(this.beanFactory) ? callable
-				: new TraceCallable<>(tracer(), spanNamer(), callable, this.spanName), delay, unit);
+				: new TraceCallable<>(tracer(), spanNamer(), callable, this.spanName, this.mode), delay, unit);
 	}
 
 	@Override
@@ -63,7 +68,7 @@ public class TraceableScheduledExecutorService extends TraceableExecutorService
 		return getScheduledExecutorService()
 				.scheduleAtFixedRate(
 						ContextUtil.isContextUnusable(this.beanFactory) ? command
-								: new TraceRunnable(tracer(), spanNamer(), command, this.spanName),
+								: new TraceRunnable(tracer(), spanNamer(), command, this.spanName, this.mode),
 						initialDelay, period, unit);
 	}
 
@@ -72,7 +77,7 @@ public class TraceableScheduledExecutorService extends TraceableExecutorService
 		return getScheduledExecutorService()
 				.scheduleWithFixedDelay(
 						ContextUtil.isContextUnusable(this.beanFactory) ? command
-								: new TraceRunnable(tracer(), spanNamer(), command, this.spanName),
+								: new TraceRunnable(tracer(), spanNamer(), command, this.spanName, this.mode),
 						initialDelay, delay, unit);
 	}
 
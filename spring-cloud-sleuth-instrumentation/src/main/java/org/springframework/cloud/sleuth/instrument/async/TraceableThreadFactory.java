@@ -0,0 +1,86 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.async;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.cloud.sleuth.SpanNamer;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.internal.ContextUtil;
+
+/**
+ * A decorator class for {@link ThreadFactory} that passes the context of the thread
+ * that creates a new thread to the task of the new thread. Meant for thread-per-task
+ * factories (e.g. {@code Thread.ofVirtual().factory()}), where each thread runs exactly
+ * one task. Don't use it for pooled threads, since a pooled thread would run all of its
+ * tasks with the context of whichever task caused the thread to be created.
+ *
+ * The scope is opened and closed by the task itself, on the thread that runs it, so it
+ * doesn't depend on the task staying on the same carrier thread.
+ *
+ * @author Marcin Grzejszczak
+ * @since 3.0.4
+ */
+// public as most types in this package were documented for use
+public class TraceableThreadFactory implements ThreadFactory {
+
+	final ThreadFactory delegate;
+
+	final String spanName;
+
+	final ExecutorTracingMode mode;
+
+	Tracer tracer;
+
+	SpanNamer spanNamer;
+
+	BeanFactory beanFactory;
+
+	public TraceableThreadFactory(BeanFactory beanFactory, ThreadFactory delegate) {
+		this(beanFactory, delegate, null, ExecutorTracingMode.CONTEXT);
+	}
+
+	public TraceableThreadFactory(BeanFactory beanFactory, ThreadFactory delegate, String spanName,
+			ExecutorTracingMode mode) {
+		this.beanFactory = beanFactory;
+		this.delegate = delegate;
+		this.spanName = spanName;
+		this.mode = mode;
+	}
+
+	@Override
+	public Thread newThread(Runnable runnable) {
+		return this.delegate.newThread(ContextUtil.isContextUnusable(this.beanFactory) ? runnable
+				: new TraceRunnable(tracer(), spanNamer(), runnable, this.spanName, this.mode));
+	}
+
+	Tracer tracer() {
+		if (this.tracer == null && this.beanFactory != null) {
+			this.tracer = this.beanFactory.getBean(Tracer.class);
+		}
+		return this.tracer;
+	}
+
+	SpanNamer spanNamer() {
+		if (this.spanNamer == null && this.beanFactory != null) {
+			this.spanNamer = this.beanFactory.getBean(SpanNamer.class);
+		}
+		return this.spanNamer;
+	}
+
+}
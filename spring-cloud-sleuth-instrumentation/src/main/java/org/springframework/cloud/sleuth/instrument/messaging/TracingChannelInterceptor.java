@@ -16,8 +16,9 @@
 
 package org.springframework.cloud.sleuth.instrument.messaging;
 
+import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.function.Function;
 
@@ -38,6 +39,7 @@ import org.springframework.messaging.support.ErrorMessage;
 import org.springframework.messaging.support.ExecutorChannelInterceptor;
 import org.springframework.messaging.support.GenericMessage;
 import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
@@ -80,6 +82,20 @@ public final class TracingChannelInterceptor implements ExecutorChannelIntercept
 	 */
 	private static final String REMOTE_SERVICE_NAME = "broker";
 
+	/**
+	 * Marks header keys that don't map to a remote service name.
+	 */
+	private static final String NO_REMOTE_SERVICE_NAME = "";
+
+	/**
+	 * Channels are usually beans and header keys come from the binders, so both caches
+	 * normally hold a few dozen entries and are never cleared. Channels created per
+	 * message (e.g. temporary reply channels) would grow them without limit. Clearing
+	 * them when full is enough, since a miss costs only a class check or a single call of
+	 * the remote service name mapper.
+	 */
+	private static final int MAX_CACHED_ENTRIES = 256;
+
 	private static final boolean hasDirectChannelClass = ClassUtils
 			.isPresent("org.springframework.integration.channel.DirectChannel", null);
 
@@ -104,6 +120,12 @@ public final class TracingChannelInterceptor implements ExecutorChannelIntercept
 
 	private final Function<String, String> remoteServiceNameMapper;
 
+	private final Map<MessageChannel, Boolean> directChannels = new ConcurrentHashMap<>();
+
+	private final Map<String, String> headerRemoteServiceNames = new ConcurrentHashMap<>();
+
+	private volatile String binderRemoteServiceName;
+
 	private ApplicationContext applicationContext;
 
 	public TracingChannelInterceptor(Tracer tracer, Propagator propagator,
@@ -134,7 +156,7 @@ public final class TracingChannelInterceptor implements ExecutorChannelIntercept
 		MessageHeaderPropagatorSetter.removeAnyTraceHeaders(headers, this.propagator.fields());
 		spanBuilder = spanBuilder.kind(Span.Kind.PRODUCER);
 		spanBuilder = this.messageSpanCustomizer.customizeSend(spanBuilder, message, channel)
-				.remoteServiceName(toRemoteServiceName(headers, remoteServiceNameMapper, applicationContext));
+				.remoteServiceName(toRemoteServiceName(headers));
 		Span span = spanBuilder.start();
 		log.debug(() -> "Extracted result from headers " + span);
 		setSpanInScope(span);
@@ -142,7 +164,8 @@ public final class TracingChannelInterceptor implements ExecutorChannelIntercept
 		log.debug(() -> "Created a new span in pre send " + span);
 		Message<?> outputMessage = outputMessage(message, retrievedMessage, headers);
 		if (isDirectChannel(channel)) {
-			beforeHandle(outputMessage, channel, null);
+			// the handler gets the output message as it is, no need to rewrite it again
+			startHandleSpan(outputMessage, channel, headers);
 		}
 		return outputMessage;
 	}
@@ -153,32 +176,71 @@ public final class TracingChannelInterceptor implements ExecutorChannelIntercept
 		log.debug(() -> "Put span in scope " + span);
 	}
 
-	private static String toRemoteServiceName(MessageHeaderAccessor headers,
-			Function<String, String> remoteServiceNameMapper, ApplicationContext applicationContext) {
-
+	private String toRemoteServiceName(MessageHeaderAccessor headers) {
 		for (String key : headers.getMessageHeaders().keySet()) {
-			String remoteServiceName = remoteServiceNameMapper.apply(key);
-			if (StringUtils.hasText(remoteServiceName)) {
+			String remoteServiceName = headerRemoteServiceName(key);
+			if (!remoteServiceName.isEmpty()) {
 				return remoteServiceName;
 			}
 		}
+		return binderRemoteServiceName();
+	}
 
-		if (hasBinderTypeRegistry && applicationContext != null) {
-			org.springframework.cloud.stream.binder.BinderTypeRegistry typeRegistry = applicationContext
+	/**
+	 * The mapper is called once per distinct header key.
+	 */
+	private String headerRemoteServiceName(String key) {
+		String remoteServiceName = this.headerRemoteServiceNames.get(key);
+		if (remoteServiceName == null) {
+			String mapped = this.remoteServiceNameMapper.apply(key);
+			remoteServiceName = StringUtils.hasText(mapped) ? mapped : NO_REMOTE_SERVICE_NAME;
+			if (this.headerRemoteServiceNames.size() >= MAX_CACHED_ENTRIES) {
+				this.headerRemoteServiceNames.clear();
+			}
+			this.headerRemoteServiceNames.put(key, remoteServiceName);
+		}
+		return remoteServiceName;
+	}
+
+	/**
+	 * The binders don't change once the context is set, so they're resolved only once.
+	 */
+	private String binderRemoteServiceName() {
+		String remoteServiceName = this.binderRemoteServiceName;
+		if (remoteServiceName != null) {
+			return remoteServiceName;
+		}
+		if (this.applicationContext == null) {
+			return REMOTE_SERVICE_NAME;
+		}
+		remoteServiceName = REMOTE_SERVICE_NAME;
+		if (hasBinderTypeRegistry) {
+			org.springframework.cloud.stream.binder.BinderTypeRegistry typeRegistry = this.applicationContext
 					.getBean(org.springframework.cloud.stream.binder.BinderTypeRegistry.class);
-			Set<String> binderNames = typeRegistry.getAll().keySet();
-			for (String binderName : binderNames) {
-				String remoteServiceName = remoteServiceNameMapper.apply(binderName);
-				if (StringUtils.hasText(remoteServiceName)) {
-					return remoteServiceName;
+			for (String binderName : typeRegistry.getAll().keySet()) {
+				String mapped = this.remoteServiceNameMapper.apply(binderName);
+				if (StringUtils.hasText(mapped)) {
+					remoteServiceName = mapped;
+					break;
 				}
 			}
 		}
-		return REMOTE_SERVICE_NAME;
+		this.binderRemoteServiceName = remoteServiceName;
+		return remoteServiceName;
 	}
 
 	private Message<?> outputMessage(Message<?> originalMessage, Message<?> retrievedMessage,
 			MessageHeaderAccessor additionalHeaders) {
+		if (originalMessage == retrievedMessage) {
+			// the accessor already holds all the headers of the message, so the header
+			// map it copied once is the one of the output message
+			MessageHeaders headers = outputHeaders(originalMessage, additionalHeaders);
+			if (originalMessage instanceof ErrorMessage) {
+				ErrorMessage errorMessage = (ErrorMessage) originalMessage;
+				return new ErrorMessage(errorMessage.getPayload(), headers, errorMessage.getOriginalMessage());
+			}
+			return new GenericMessage<>(originalMessage.getPayload(), headers);
+		}
 		MessageHeaderAccessor headers = mutableHeaderAccessor(originalMessage);
 		if (originalMessage instanceof ErrorMessage) {
 			ErrorMessage errorMessage = (ErrorMessage) originalMessage;
@@ -192,12 +254,42 @@ public final class TracingChannelInterceptor implements ExecutorChannelIntercept
 				isWebSockets(headers) ? headers.getMessageHeaders() : new MessageHeaders(headers.getMessageHeaders()));
 	}
 
+	/**
+	 * Web sockets expect the headers to stay mutable. Otherwise the headers get a new id
+	 * and timestamp, as a copy to new {@link MessageHeaders} would. The accessor is
+	 * frozen only if it's a copy, a mutable accessor of the sent message is left as it
+	 * is.
+	 */
+	private static MessageHeaders outputHeaders(Message<?> message, MessageHeaderAccessor headers) {
+		if (isWebSockets(headers)) {
+			return headers.getMessageHeaders();
+		}
+		if (MessageHeaderAccessor.getAccessor(message, MessageHeaderAccessor.class) == headers) {
+			return new MessageHeaders(headers.getMessageHeaders());
+		}
+		headers.setEnableTimestamp(true);
+		headers.setImmutable();
+		return headers.getMessageHeaders();
+	}
+
 	private static boolean isWebSockets(MessageHeaderAccessor headerAccessor) {
 		return headerAccessor.getMessageHeaders().containsKey("stompCommand")
 				|| headerAccessor.getMessageHeaders().containsKey("simpMessageType");
 	}
 
-	private static boolean isDirectChannel(MessageChannel channel) {
+	private boolean isDirectChannel(MessageChannel channel) {
+		Boolean direct = this.directChannels.get(channel);
+		if (direct == null) {
+			direct = isDirectChannelClass(channel);
+			if (this.directChannels.size() >= MAX_CACHED_ENTRIES) {
+				this.directChannels.clear();
+			}
+			this.directChannels.put(channel, direct);
+		}
+		return direct;
+	}
+
+	private static boolean isDirectChannelClass(MessageChannel channel) {
 		Class<?> targetClass = AopUtils.getTargetClass(channel);
 		return (directWithAttributesChannelClass == null
 				|| !directWithAttributesChannelClass.isAssignableFrom(targetClass)) && hasDirectChannelClass
@@ -243,7 +335,7 @@ public final class TracingChannelInterceptor implements ExecutorChannelIntercept
 		MessageHeaderPropagatorSetter.removeAnyTraceHeaders(headers, this.propagator.fields());
 		builder = builder.kind(Span.Kind.CONSUMER);
 		builder = this.messageSpanCustomizer.customizeReceive(builder, message, channel);
-		builder = builder.remoteServiceName(toRemoteServiceName(headers, remoteServiceNameMapper, applicationContext));
+		builder = builder.remoteServiceName(toRemoteServiceName(headers));
 		return builder.start();
 	}
 
@@ -259,16 +351,14 @@ public final class TracingChannelInterceptor implements ExecutorChannelIntercept
 	 */
 	@Override
 	public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
-		MessageHeaderAccessor headers = mutableHeaderAccessor(message);
 		log.debug(() -> "Received a message in before handle " + message);
-		Span consumerSpan = consumerSpan(message, channel, headers);
-		// create and scope a span for the message processor
-		Span handle = this.tracer.nextSpan(consumerSpan);
-		handle = this.messageSpanCustomizer.customizeHandle(handle, message, channel).start();
-		if (log.isDebugEnabled()) {
-			log.debug("Created consumer span " + handle);
+		if (!hasTraceHeaders(message)) {
+			// there's nothing to remove, so the message can be handled as it is
+			startHandleSpan(message, channel, headerAccessor(message));
+			return message;
 		}
-		setSpanInScope(handle);
+		MessageHeaderAccessor headers = mutableHeaderAccessor(message);
+		Span handle = startHandleSpan(message, channel, headers);
 		// remove any trace headers, but don't re-inject as we are synchronously
 		// processing the
 		// message and can rely on scoping to access this span later.
@@ -283,6 +373,30 @@ public final class TracingChannelInterceptor implements ExecutorChannelIntercept
 		return new GenericMessage<>(message.getPayload(), headers.getMessageHeaders());
 	}
 
+	private Span startHandleSpan(Message<?> message, MessageChannel channel, MessageHeaderAccessor headers) {
+		Span consumerSpan = consumerSpan(message, channel, headers);
+		// create and scope a span for the message processor
+		Span handle = this.tracer.nextSpan(consumerSpan);
+		handle = this.messageSpanCustomizer.customizeHandle(handle, message, channel).start();
+		if (log.isDebugEnabled()) {
+			log.debug("Created consumer span " + handle);
+		}
+		setSpanInScope(handle);
+		return handle;
+	}
+
+	private boolean hasTraceHeaders(Message<?> message) {
+		MessageHeaders headers = message.getHeaders();
+		Object nativeHeaders = headers.get(NativeMessageHeaderAccessor.NATIVE_HEADERS);
+		for (String field : this.propagator.fields()) {
+			if (headers.containsKey(field)
+					|| (nativeHeaders instanceof Map && ((Map<?, ?>) nativeHeaders).containsKey(field))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private Span consumerSpan(Message<?> message, MessageChannel channel, MessageHeaderAccessor headers) {
 		Span.Builder consumerSpanBuilder = this.propagator.extract(headers, this.extractor);
 		if (log.isDebugEnabled()) {
@@ -344,6 +458,14 @@ public final class TracingChannelInterceptor implements ExecutorChannelIntercept
 		return headers;
 	}
 
+	/**
+	 * Accessor to read the headers from, the headers are never copied.
+	 */
+	private static MessageHeaderAccessor headerAccessor(Message<?> message) {
+		MessageHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, MessageHeaderAccessor.class);
+		return accessor != null ? accessor : new ReadOnlyHeaderAccessor(message.getHeaders());
+	}
+
 	private static Message<?> getMessage(Message<?> message) {
 		Object payload = message.getPayload();
 		if (payload instanceof MessagingException) {
@@ -354,6 +476,29 @@ public final class TracingChannelInterceptor implements ExecutorChannelIntercept
 		return message;
 	}
 
+	/**
+	 * Reads the headers of a message without an accessor directly.
+	 */
+	private static class ReadOnlyHeaderAccessor extends MessageHeaderAccessor {
+
+		private final MessageHeaders headers;
+
+		ReadOnlyHeaderAccessor(MessageHeaders headers) {
+			this.headers = headers;
+		}
+
+		@Override
+		public MessageHeaders getMessageHeaders() {
+			return this.headers;
+		}
+
+		@Override
+		public Object getHeader(String headerName) {
+			return this.headers.get(headerName);
+		}
+
+	}
+
 	private static class SpanAndScope {
 
 		final Span span;
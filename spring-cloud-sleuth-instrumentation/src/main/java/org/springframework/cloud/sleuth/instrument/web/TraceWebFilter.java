@@ -98,24 +98,18 @@ public class TraceWebFilter implements WebFilter, Ordered, ApplicationContextAwa
 
 	@Override
 	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
-		String uri = exchange.getRequest().getPath().pathWithinApplication().value();
 		Mono<Void> source = chain.filter(exchange);
-		boolean tracePresent = isTracePresent();
+		// any previous trace is not cleared from the thread - the span of this request
+		// is created without any span in scope and is put in scope only for the
+		// subscription
+		boolean tracePresent = this.tracer.currentSpan() != null;
 		if (log.isDebugEnabled()) {
-			log.debug("Received a request to uri [" + uri + "]");
+			log.debug("Received a request to uri ["
+					+ exchange.getRequest().getPath().pathWithinApplication().value() + "]");
 		}
 		return new MonoWebFilterTrace(source, exchange, tracePresent, this, spanFromContextRetriever());
 	}
 
-	private boolean isTracePresent() {
-		boolean tracePresent = this.tracer.currentSpan() != null;
-		if (tracePresent) {
-			// clear any previous trace
-			this.tracer.withSpan(null); // TODO: dangerous and also allocates stuff
-		}
-		return tracePresent;
-	}
-
 	@Override
 	public int getOrder() {
 		return this.order;
@@ -204,33 +198,33 @@ public class TraceWebFilter implements WebFilter, Ordered, ApplicationContextAwa
 		private Span findOrCreateSpan(Context c) {
 			Span span;
 			if (c.hasKey(Span.class)) {
-				Span parent = c.get(Span.class);
-				try (Tracer.SpanInScope spanInScope = this.tracer.withSpan(parent)) {
-					span = this.tracer.nextSpan();
-				}
+				span = this.tracer.nextSpan(c.get(Span.class));
 				if (log.isDebugEnabled()) {
 					log.debug("Found span in reactor context" + span);
 				}
 			}
 			else {
-				if (this.span != null) {
-					try (Tracer.SpanInScope spanInScope = this.tracer.withSpan(this.span)) {
-						span = this.tracer.nextSpan();
+				span = this.spanFromContextRetriever.findSpan(c);
+				if (span != null) {
+					if (log.isDebugEnabled()) {
+						log.debug("Found tracer specific span in reactor context [" + span + "]");
 					}
+				}
+				else if (this.span != null) {
+					span = this.tracer.nextSpan(this.span);
 					if (log.isDebugEnabled()) {
 						log.debug("Found span in attribute " + span);
 					}
 				}
-				span = this.spanFromContextRetriever.findSpan(c);
-				if (this.span == null && span == null) {
-					span = this.handler.handleReceive(new WrappedRequest(this.exchange.getRequest()));
+				else {
+					// a span leaked onto this thread must not become the implicit parent
+					try (CurrentTraceContext.Scope scope = this.currentTraceContext.maybeScope(null)) {
+						span = this.handler.handleReceive(new WrappedRequest(this.exchange.getRequest()));
+					}
 					if (log.isDebugEnabled()) {
 						log.debug("Handled receive of span " + span);
 					}
 				}
-				else if (log.isDebugEnabled()) {
-					log.debug("Found tracer specific span in reactor context [" + span + "]");
-				}
 				this.exchange.getAttributes().put(TRACE_REQUEST_ATTR, span);
 			}
 			return span;
@@ -16,17 +16,23 @@
 
 package org.springframework.cloud.sleuth.instrument.web.client;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.reactivestreams.Subscription;
 import reactor.core.CoreSubscriber;
+import reactor.core.Disposable;
 import reactor.core.Scannable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.annotation.Nullable;
 import reactor.util.context.Context;
 
@@ -38,6 +44,7 @@ import org.springframework.cloud.sleuth.http.HttpClientRequest;
 import org.springframework.cloud.sleuth.http.HttpClientResponse;
 import org.springframework.cloud.sleuth.instrument.reactor.TraceContextPropagator;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
@@ -55,19 +62,53 @@ public final class TraceExchangeFilterFunction implements ExchangeFilterFunction
 
 	final ConfigurableApplicationContext springContext;
 
+	/**
+	 * When {@code true} the client span ends once the response body has been fully
+	 * consumed or cancelled instead of when the response headers arrive.
+	 */
+	final boolean endSpanOnBodyCompletion;
+
+	/**
+	 * Time after which the client span ends if nothing subscribed to the response body.
+	 */
+	final Duration bodyTimeout;
+
 	// Lazy initialized fields
 	HttpClientHandler handler;
 
 	CurrentTraceContext currentTraceContext;
 
 	TraceExchangeFilterFunction(ConfigurableApplicationContext springContext) {
+		this(springContext, false);
+	}
+
+	TraceExchangeFilterFunction(ConfigurableApplicationContext springContext, boolean endSpanOnBodyCompletion) {
+		this(springContext, endSpanOnBodyCompletion, TraceResponseBody.DEFAULT_BODY_TIMEOUT);
+	}
+
+	TraceExchangeFilterFunction(ConfigurableApplicationContext springContext, boolean endSpanOnBodyCompletion,
+			Duration bodyTimeout) {
 		this.springContext = springContext;
+		this.endSpanOnBodyCompletion = endSpanOnBodyCompletion;
+		this.bodyTimeout = bodyTimeout;
 	}
 
 	public static ExchangeFilterFunction create(ConfigurableApplicationContext springContext) {
 		return new TraceExchangeFilterFunction(springContext);
 	}
 
+	/**
+	 * @param springContext Spring context
+	 * @param endSpanOnBodyCompletion whether the client span should end when the response
+	 * body has been consumed instead of when the response headers arrive
+	 * @return trace exchange filter function
+	 * @since 3.0.4
+	 */
+	public static ExchangeFilterFunction create(ConfigurableApplicationContext springContext,
+			boolean endSpanOnBodyCompletion) {
+		return new TraceExchangeFilterFunction(springContext, endSpanOnBodyCompletion);
+	}
+
 	@Override
 	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
 		return new MonoWebClientTrace(next, request, this);
@@ -98,11 +139,17 @@ public final class TraceExchangeFilterFunction implements ExchangeFilterFunction
 
 		final CurrentTraceContext currentTraceContext;
 
+		final boolean endSpanOnBodyCompletion;
+
+		final Duration bodyTimeout;
+
 		MonoWebClientTrace(ExchangeFunction next, ClientRequest request, TraceExchangeFilterFunction filterFunction) {
 			this.next = next;
 			this.request = request;
 			this.handler = filterFunction.handler();
 			this.currentTraceContext = filterFunction.currentTraceContext();
+			this.endSpanOnBodyCompletion = filterFunction.endSpanOnBodyCompletion;
+			this.bodyTimeout = filterFunction.bodyTimeout;
 		}
 
 		@Override
@@ -155,12 +202,18 @@ public final class TraceExchangeFilterFunction implements ExchangeFilterFunction
 
 		final CurrentTraceContext currentTraceContext;
 
+		final boolean endSpanOnBodyCompletion;
+
+		final Duration bodyTimeout;
+
 		TraceWebClientSubscriber(CoreSubscriber<? super ClientResponse> actual, Context ctx, Span clientSpan,
 				TraceContext parent, MonoWebClientTrace mono) {
 			this.actual = actual;
 			this.parent = parent;
 			this.handler = mono.handler;
 			this.currentTraceContext = mono.currentTraceContext;
+			this.endSpanOnBodyCompletion = mono.endSpanOnBodyCompletion;
+			this.bodyTimeout = mono.bodyTimeout;
 			this.context = this.parent != null && !this.parent.equals(ctx.getOrDefault(TraceContext.class, null))
 					? ctx.put(TraceContext.class, this.parent) : ctx;
 			set(clientSpan);
@@ -173,6 +226,13 @@ public final class TraceExchangeFilterFunction implements ExchangeFilterFunction
 
 		@Override
 		public void onNext(ClientResponse response) {
+			if (this.endSpanOnBodyCompletion) {
+				Span span = getAndSet(null);
+				if (span != null) {
+					// the span now belongs to the response body
+					response = new TraceResponseBody(span, this.handler, this.bodyTimeout).decorate(response);
+				}
+			}
 			try (CurrentTraceContext.Scope scope = this.currentTraceContext.maybeScope(parent)) {
 				if (log.isTraceEnabled()) {
 					log.trace("OnNext");
@@ -299,6 +359,105 @@ public final class TraceExchangeFilterFunction implements ExchangeFilterFunction
 
 	}
 
+	/**
+	 * Ends the client span once the response body has been fully consumed, has failed or
+	 * got cancelled. The arrival of the response headers is recorded as an event and the
+	 * size of the body as a tag. The body buffers are only counted, never retained. If
+	 * nothing subscribes to the body in time, e.g. because the response got dropped, the
+	 * span ends anyway.
+	 */
+	static final class TraceResponseBody extends AtomicReference<Span> {
+
+		static final Duration DEFAULT_BODY_TIMEOUT = Duration.ofMinutes(1);
+
+		/**
+		 * Wire receive event - marks the time at which the response headers arrived.
+		 */
+		static final String HEADERS_RECEIVED_EVENT = "wr";
+
+		static final String BODY_SIZE_TAG = "http.response.body.size";
+
+		static final String BODY_CANCELLED_TAG = "http.response.body.cancelled";
+
+		static final String BODY_NOT_SUBSCRIBED_TAG = "http.response.body.not.subscribed";
+
+		final HttpClientHandler handler;
+
+		final Duration bodyTimeout;
+
+		ClientResponseWrapper response;
+
+		volatile Disposable timeout;
+
+		// body signals are serialized so there's no need for an atomic counter
+		long bodySize;
+
+		TraceResponseBody(Span span, HttpClientHandler handler) {
+			this(span, handler, DEFAULT_BODY_TIMEOUT);
+		}
+
+		TraceResponseBody(Span span, HttpClientHandler handler, Duration bodyTimeout) {
+			super(span);
+			this.handler = handler;
+			this.bodyTimeout = bodyTimeout;
+			span.event(HEADERS_RECEIVED_EVENT);
+		}
+
+		ClientResponse decorate(ClientResponse response) {
+			this.response = new ClientResponseWrapper(response);
+			this.timeout = Schedulers.parallel().schedule(this::notSubscribed, this.bodyTimeout.toMillis(),
+					TimeUnit.MILLISECONDS);
+			return response.mutate().body(this::decorate).build();
+		}
+
+		Flux<DataBuffer> decorate(Flux<DataBuffer> body) {
+			return body.doOnSubscribe(s -> cancelTimeout())
+					.doOnNext(buffer -> this.bodySize += buffer.readableByteCount()).doOnError(t -> {
+				Span span = get();
+				if (span != null) {
+					span.error(t);
+				}
+			}).doFinally(this::end);
+		}
+
+		void end(SignalType signal) {
+			Span span = getAndSet(null);
+			if (span == null) {
+				return;
+			}
+			if (log.isTraceEnabled()) {
+				log.trace("Response body finished with signal [" + signal + "], will close the span [" + span + "]");
+			}
+			cancelTimeout();
+			span.tag(BODY_SIZE_TAG, String.valueOf(this.bodySize));
+			if (signal == SignalType.CANCEL) {
+				span.tag(BODY_CANCELLED_TAG, "true");
+			}
+			this.handler.handleReceive(this.response, span);
+		}
+
+		void notSubscribed() {
+			Span span = getAndSet(null);
+			if (span == null) {
+				return;
+			}
+			if (log.isTraceEnabled()) {
+				log.trace("Nothing subscribed to the response body in [" + this.bodyTimeout + "], will close the span ["
+						+ span + "]");
+			}
+			span.tag(BODY_NOT_SUBSCRIBED_TAG, "true");
+			this.handler.handleReceive(this.response, span);
+		}
+
+		private void cancelTimeout() {
+			Disposable timeout = this.timeout;
+			if (timeout != null) {
+				timeout.dispose();
+			}
+		}
+
+	}
+
 	private static final class ClientRequestWrapper implements HttpClientRequest {
 
 		final ClientRequest delegate;
@@ -35,8 +35,22 @@ public class TraceWebClientBeanPostProcessor implements BeanPostProcessor {
 
 	final ConfigurableApplicationContext springContext;
 
+	final boolean endSpanOnBodyCompletion;
+
 	public TraceWebClientBeanPostProcessor(ConfigurableApplicationContext springContext) {
+		this(springContext, false);
+	}
+
+	/**
+	 * @param springContext Spring context
+	 * @param endSpanOnBodyCompletion whether the client span should end when the response
+	 * body has been consumed instead of when the response headers arrive
+	 * @since 3.0.4
+	 */
+	public TraceWebClientBeanPostProcessor(ConfigurableApplicationContext springContext,
+			boolean endSpanOnBodyCompletion) {
 		this.springContext = springContext;
+		this.endSpanOnBodyCompletion = endSpanOnBodyCompletion;
 	}
 
 	@Override
@@ -65,7 +79,7 @@ public class TraceWebClientBeanPostProcessor implements BeanPostProcessor {
 		return functions -> {
 			boolean noneMatch = noneMatchTraceExchangeFunction(functions);
 			if (noneMatch) {
-				functions.add(new TraceExchangeFilterFunction(this.springContext));
+				functions.add(new TraceExchangeFilterFunction(this.springContext, this.endSpanOnBodyCompletion));
 			}
 		};
 	}
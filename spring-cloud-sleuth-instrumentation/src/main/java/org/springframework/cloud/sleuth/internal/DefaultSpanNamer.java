@@ -41,29 +41,77 @@ import org.springframework.core.annotation.AnnotationUtils;
  */
 public class DefaultSpanNamer implements SpanNamer {
 
-	private static boolean isDefaultToString(Object delegate, String spanName) {
-		if (delegate instanceof Method) {
-			return delegate.toString().equals(spanName);
+	/**
+	 * How to name instances of a class, resolved once per class.
+	 */
+	private static final ClassValue<ClassSpanName> NAMES = new ClassValue<ClassSpanName>() {
+		@Override
+		protected ClassSpanName computeValue(Class<?> type) {
+			SpanName annotation = AnnotationUtils.findAnnotation(type, SpanName.class);
+			if (annotation != null) {
+				return new ClassSpanName(annotation.value());
+			}
+			return overridesToString(type) ? ClassSpanName.TO_STRING : ClassSpanName.DEFAULT;
+		}
+	};
+
+	private static boolean overridesToString(Class<?> type) {
+		try {
+			return type.getMethod("toString").getDeclaringClass() != Object.class;
 		}
+		catch (NoSuchMethodException | SecurityException ex) {
+			return true;
+		}
+	}
+
+	private static boolean isDefaultToString(Object delegate, String spanName) {
 		return (delegate.getClass().getName() + "@" + Integer.toHexString(delegate.hashCode())).equals(spanName);
 	}
 
 	@Override
 	public String name(Object object, String defaultValue) {
-		SpanName annotation = annotation(object);
-		String spanName = annotation != null ? annotation.value() : object.toString();
-		// If there is no overridden toString method we'll put a constant value
+		if (object instanceof Method) {
+			return name((Method) object, defaultValue);
+		}
+		ClassSpanName name = NAMES.get(object.getClass());
+		if (name == ClassSpanName.DEFAULT) {
+			return defaultValue;
+		}
+		else if (name != ClassSpanName.TO_STRING) {
+			return name.value;
+		}
+		String spanName = object.toString();
+		// toString might still delegate to the default one
 		if (isDefaultToString(object, spanName)) {
 			return defaultValue;
 		}
 		return spanName;
 	}
 
-	private SpanName annotation(Object o) {
-		if (o instanceof Method) {
-			return AnnotationUtils.findAnnotation((Method) o, SpanName.class);
+	private String name(Method method, String defaultValue) {
+		SpanName annotation = AnnotationUtils.findAnnotation(method, SpanName.class);
+		return annotation != null ? annotation.value() : defaultValue;
+	}
+
+	private static final class ClassSpanName {
+
+		/**
+		 * Neither annotated with {@link SpanName} nor overriding
+		 * {@link Object#toString()}, e.g. lambdas.
+		 */
+		static final ClassSpanName DEFAULT = new ClassSpanName(null);
+
+		/**
+		 * Not annotated with {@link SpanName} but overriding {@link Object#toString()}.
+		 */
+		static final ClassSpanName TO_STRING = new ClassSpanName(null);
+
+		final String value;
+
+		private ClassSpanName(String value) {
+			this.value = value;
 		}
-		return AnnotationUtils.findAnnotation(o.getClass(), SpanName.class);
+
 	}
 
 }
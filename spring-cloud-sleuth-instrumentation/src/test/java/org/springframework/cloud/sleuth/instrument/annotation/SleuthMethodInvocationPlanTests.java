@@ -0,0 +1,137 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.annotation;
+
+import java.lang.reflect.Method;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.sleuth.annotation.ContinueSpan;
+import org.springframework.cloud.sleuth.annotation.NewSpan;
+import org.springframework.cloud.sleuth.annotation.SpanTag;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author Marcin Grzejszczak
+ */
+public class SleuthMethodInvocationPlanTests {
+
+	@Test
+	public void should_resolve_the_annotations_of_the_interface() throws Exception {
+		Method method = AnnotatedInterface.class.getMethod("interfaceMethod", String.class, String.class);
+
+		SleuthMethodInvocationPlan plan = SleuthMethodInvocationPlan.of(invocation(new NotAnnotatedImpl(), method));
+
+		then(plan.newSpan).isNotNull();
+		then(plan.continueSpan).isNull();
+		then(plan.spanName).isEqualTo("interface-span");
+		then(plan.className).isEqualTo("NotAnnotatedImpl");
+		then(plan.methodName).isEqualTo("interfaceMethod");
+		then(plan.tagParameters).hasSize(1);
+		then(plan.tagParameters[0].parameterIndex).isEqualTo(1);
+		then(plan.tagParameters[0].key).isEqualTo("interfaceTag");
+	}
+
+	@Test
+	public void should_prefer_the_annotations_of_the_overriding_method() throws Exception {
+		Method method = Base.class.getMethod("overriddenMethod", String.class);
+
+		SleuthMethodInvocationPlan plan = SleuthMethodInvocationPlan.of(invocation(new Child(), method));
+
+		then(plan.continueSpan).isNotNull();
+		then(plan.className).isEqualTo("Child");
+		then(plan.tagParameters).hasSize(1);
+		then(plan.tagParameters[0].key).isEqualTo("childTag");
+	}
+
+	@Test
+	public void should_use_the_invoked_method_when_the_overriding_method_is_not_annotated() throws Exception {
+		Method method = Base.class.getMethod("overriddenMethod", String.class);
+
+		SleuthMethodInvocationPlan plan = SleuthMethodInvocationPlan.of(invocation(new NotAnnotatedChild(), method));
+
+		then(plan.newSpan).isNotNull();
+		then(plan.spanName).isEqualTo("overridden-method");
+		then(plan.tagParameters).hasSize(1);
+		then(plan.tagParameters[0].key).isEqualTo("baseTag");
+	}
+
+	@Test
+	public void should_cache_the_plan_per_target_class_and_method() throws Exception {
+		Method method = Base.class.getMethod("overriddenMethod", String.class);
+
+		SleuthMethodInvocationPlan plan = SleuthMethodInvocationPlan.of(invocation(new Child(), method));
+
+		then(SleuthMethodInvocationPlan.of(invocation(new Child(), method))).isSameAs(plan);
+		SleuthMethodInvocationPlan otherClassPlan = SleuthMethodInvocationPlan
+				.of(invocation(new NotAnnotatedChild(), method));
+		then(otherClassPlan).isNotSameAs(plan);
+		then(otherClassPlan.className).isEqualTo("NotAnnotatedChild");
+	}
+
+	private static MethodInvocation invocation(Object target, Method method) {
+		MethodInvocation invocation = mock(MethodInvocation.class);
+		given(invocation.getThis()).willReturn(target);
+		given(invocation.getMethod()).willReturn(method);
+		return invocation;
+	}
+
+	interface AnnotatedInterface {
+
+		@NewSpan("interfaceSpan")
+		void interfaceMethod(String notTagged, @SpanTag("interfaceTag") String tagged);
+
+	}
+
+	static class NotAnnotatedImpl implements AnnotatedInterface {
+
+		@Override
+		public void interfaceMethod(String notTagged, String tagged) {
+		}
+
+	}
+
+	static class Base {
+
+		@NewSpan
+		public void overriddenMethod(@SpanTag("baseTag") String tagged) {
+		}
+
+	}
+
+	static class Child extends Base {
+
+		@Override
+		@ContinueSpan
+		public void overriddenMethod(@SpanTag("childTag") String tagged) {
+		}
+
+	}
+
+	static class NotAnnotatedChild extends Base {
+
+		@Override
+		public void overriddenMethod(String tagged) {
+		}
+
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.annotation;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpression;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+/**
+ * @author Marcin Grzejszczak
+ */
+public class SpelTagValueExpressionResolverCompilationTests {
+
+	SpelTagValueExpressionResolver resolver = new SpelTagValueExpressionResolver();
+
+	@Test
+	public void should_parse_an_expression_only_once() {
+		Expression expression = this.resolver.expression("name + ' world'");
+
+		then(this.resolver.expression("name + ' world'")).isSameAs(expression);
+		then(this.resolver.expression("name + ' universe'")).isNotSameAs(expression);
+	}
+
+	@Test
+	public void should_resolve_the_same_value_once_the_expression_got_compiled() {
+		SpelExpression expression = (SpelExpression) this.resolver.expression("name + ' world'");
+		String interpreted = this.resolver.resolve("name + ' world'", new MyObject("hello"));
+
+		then(expression.compileExpression()).isTrue();
+
+		then(this.resolver.resolve("name + ' world'", new MyObject("hello"))).isEqualTo(interpreted)
+				.isEqualTo("hello world");
+		then(this.resolver.resolve("name + ' world'", new MyObject("goodbye"))).isEqualTo("goodbye world");
+	}
+
+	public static class MyObject {
+
+		public String name;
+
+		MyObject(String name) {
+			this.name = name;
+		}
+
+	}
+
+}
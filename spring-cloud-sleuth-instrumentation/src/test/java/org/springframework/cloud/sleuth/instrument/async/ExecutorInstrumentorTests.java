@@ -16,6 +16,7 @@
 
 package org.springframework.cloud.sleuth.instrument.async;
 
+import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -28,6 +29,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -35,6 +37,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.aopalliance.aop.Advice;
 import org.assertj.core.api.BDDAssertions;
 import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledForJreRange;
 import org.junit.jupiter.api.condition.JRE;
@@ -51,6 +54,7 @@ import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * @author Marcin Grzejszczak
@@ -81,6 +85,67 @@ public class ExecutorInstrumentorTests {
 		service.shutdown();
 	}
 
+	@Test
+	public void should_not_treat_pooled_executors_as_thread_per_task_executors() throws Exception {
+		ExecutorService service = Executors.newSingleThreadExecutor();
+
+		BDDAssertions.then(ExecutorInstrumentor.isThreadPerTaskExecutor(service)).isFalse();
+		BDDAssertions.then(ExecutorInstrumentor.isThreadPerTaskExecutor(new ThreadPoolTaskExecutor())).isFalse();
+		service.shutdown();
+	}
+
+	@Test
+	public void should_wrap_thread_per_task_executors_without_a_proxy() throws Exception {
+		ExecutorService service = threadPerTaskExecutor();
+
+		try {
+			Object o = new ExecutorInstrumentor(Collections::emptyList, name -> ExecutorTracingMode.CONTEXT,
+					beanFactory).instrument(service, "foo");
+
+			BDDAssertions.then(ExecutorInstrumentor.isThreadPerTaskExecutor(service)).isTrue();
+			BDDAssertions.then(o).isInstanceOf(TraceableExecutorService.class);
+			BDDAssertions.then(AopUtils.isAopProxy(o)).isFalse();
+			BDDAssertions.then(((TraceableExecutorService) o).delegate).isSameAs(service);
+			BDDAssertions.then(((TraceableExecutorService) o).mode).isEqualTo(ExecutorTracingMode.CONTEXT);
+		}
+		finally {
+			service.shutdown();
+		}
+	}
+
+	/**
+	 * The project targets JDK 8, thread-per-task executors are available as of JDK 21.
+	 */
+	private static ExecutorService threadPerTaskExecutor() throws Exception {
+		Method factory = ReflectionUtils.findMethod(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+		Assumptions.assumeTrue(factory != null, "Thread-per-task executors require JDK 21");
+		return (ExecutorService) factory.invoke(null, Executors.defaultThreadFactory());
+	}
+
+	@Test
+	public void should_pass_the_tracing_mode_of_the_bean_to_the_sleuth_implementation() throws Exception {
+		ExecutorService service = Executors.newSingleThreadExecutor();
+
+		Object o = new ExecutorInstrumentor(Collections::emptyList,
+				name -> "foo".equals(name) ? ExecutorTracingMode.CONTEXT : null, beanFactory).instrument(service,
+						"foo");
+
+		BDDAssertions.then(o).isInstanceOf(TraceableExecutorService.class);
+		BDDAssertions.then(((TraceableExecutorService) o).mode).isEqualTo(ExecutorTracingMode.CONTEXT);
+		service.shutdown();
+	}
+
+	@Test
+	public void should_use_the_span_tracing_mode_when_none_is_set_for_the_bean() throws Exception {
+		ExecutorService service = Executors.newSingleThreadExecutor();
+
+		Object o = new ExecutorInstrumentor(Collections::emptyList, name -> null, beanFactory).instrument(service,
+				"bar");
+
+		BDDAssertions.then(((TraceableExecutorService) o).mode).isEqualTo(ExecutorTracingMode.SPAN);
+		service.shutdown();
+	}
+
 	@Test
 	public void should_fallback_to_sleuth_implementation_when_cglib_cannot_be_created_for_scheduled_executor()
 			throws Exception {
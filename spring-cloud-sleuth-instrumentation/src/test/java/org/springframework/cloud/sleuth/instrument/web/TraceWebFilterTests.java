@@ -0,0 +1,74 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.TraceContext;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.http.HttpServerHandler;
+import org.springframework.cloud.sleuth.tracer.SimpleCurrentTraceContext;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import static org.mockito.ArgumentMatchers.any;
+
+class TraceWebFilterTests {
+
+	Tracer tracer = BDDMockito.mock(Tracer.class);
+
+	HttpServerHandler handler = BDDMockito.mock(HttpServerHandler.class);
+
+	SimpleCurrentTraceContext currentTraceContext = new SimpleCurrentTraceContext();
+
+	@Test
+	void should_not_use_span_leaked_onto_the_thread_as_parent_of_request_without_headers() {
+		Span leakedSpan = BDDMockito.mock(Span.class);
+		TraceContext leakedContext = BDDMockito.mock(TraceContext.class);
+		BDDMockito.given(leakedSpan.context()).willReturn(leakedContext);
+		BDDMockito.given(this.tracer.currentSpan()).willReturn(leakedSpan);
+		this.currentTraceContext.traceContext = leakedContext;
+		AtomicReference<TraceContext> contextOnReceive = new AtomicReference<>(leakedContext);
+		Span serverSpan = BDDMockito.mock(Span.class);
+		BDDMockito.given(this.handler.handleReceive(any())).willAnswer(invocation -> {
+			contextOnReceive.set(this.currentTraceContext.context());
+			return serverSpan;
+		});
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/foo"));
+
+		filter().filter(exchange, webExchange -> Mono.empty()).block();
+
+		BDDAssertions.then(contextOnReceive.get()).isNull();
+		BDDMockito.then(this.handler).should().handleSend(any(), BDDMockito.eq(serverSpan));
+	}
+
+	private TraceWebFilter filter() {
+		StaticApplicationContext applicationContext = new StaticApplicationContext();
+		applicationContext.refresh();
+		TraceWebFilter filter = new TraceWebFilter(this.tracer, this.handler, this.currentTraceContext);
+		filter.setApplicationContext(applicationContext);
+		return filter;
+	}
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web.client;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.BDDMockito;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.http.HttpClientHandler;
+import org.springframework.cloud.sleuth.http.HttpClientResponse;
+import org.springframework.cloud.sleuth.instrument.web.client.TraceExchangeFilterFunction.TraceResponseBody;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+
+import static org.mockito.ArgumentMatchers.any;
+
+public class TraceExchangeFilterFunctionResponseBodyTests {
+
+	Span span = BDDMockito.mock(Span.class);
+
+	HttpClientHandler handler = BDDMockito.mock(HttpClientHandler.class);
+
+	@Test
+	public void should_end_span_when_body_was_consumed() {
+		ClientResponse response = new TraceResponseBody(this.span, this.handler).decorate(response("foo", "bar"));
+
+		BDDMockito.then(this.span).should().event(TraceResponseBody.HEADERS_RECEIVED_EVENT);
+		BDDMockito.then(this.handler).shouldHaveNoInteractions();
+
+		String body = response.bodyToMono(String.class).block();
+
+		BDDAssertions.then(body).isEqualTo("foobar");
+		BDDMockito.then(this.span).should().tag(TraceResponseBody.BODY_SIZE_TAG, "6");
+		BDDMockito.then(this.span).should(BDDMockito.never()).tag(BDDMockito.eq(TraceResponseBody.BODY_CANCELLED_TAG),
+				any());
+		ArgumentCaptor<HttpClientResponse> captor = ArgumentCaptor.forClass(HttpClientResponse.class);
+		BDDMockito.then(this.handler).should().handleReceive(captor.capture(), BDDMockito.eq(this.span));
+		BDDAssertions.then(captor.getValue().statusCode()).isEqualTo(200);
+	}
+
+	@Test
+	public void should_end_span_when_body_was_cancelled() {
+		ClientResponse response = new TraceResponseBody(this.span, this.handler).decorate(response("foo", "bar"));
+
+		response.bodyToFlux(DataBuffer.class).take(1).blockLast();
+
+		BDDMockito.then(this.span).should().tag(TraceResponseBody.BODY_SIZE_TAG, "3");
+		BDDMockito.then(this.span).should().tag(TraceResponseBody.BODY_CANCELLED_TAG, "true");
+		BDDMockito.then(this.handler).should().handleReceive(any(), BDDMockito.eq(this.span));
+	}
+
+	@Test
+	public void should_end_span_when_body_was_released() {
+		ClientResponse response = new TraceResponseBody(this.span, this.handler).decorate(response("foo"));
+
+		response.releaseBody().block();
+
+		BDDMockito.then(this.handler).should().handleReceive(any(), BDDMockito.eq(this.span));
+	}
+
+	@Test
+	public void should_end_span_when_nothing_subscribed_to_the_body_in_time() {
+		new TraceResponseBody(this.span, this.handler, Duration.ofMillis(10)).decorate(response("foo"));
+
+		BDDMockito.then(this.handler).should(BDDMockito.timeout(1000)).handleReceive(any(),
+				BDDMockito.eq(this.span));
+		BDDMockito.then(this.span).should().tag(TraceResponseBody.BODY_NOT_SUBSCRIBED_TAG, "true");
+	}
+
+	@Test
+	public void should_not_end_span_after_timeout_when_body_was_subscribed() throws InterruptedException {
+		ClientResponse response = new TraceResponseBody(this.span, this.handler, Duration.ofMillis(50))
+				.decorate(response("foo"));
+
+		response.bodyToFlux(DataBuffer.class).subscribe(new BaseSubscriber<DataBuffer>() {
+			@Override
+			protected void hookOnSubscribe(Subscription subscription) {
+				// never requests the body
+			}
+		});
+		Thread.sleep(200);
+
+		BDDMockito.then(this.handler).shouldHaveNoInteractions();
+	}
+
+	@Test
+	public void should_end_span_only_once() {
+		TraceResponseBody responseBody = new TraceResponseBody(this.span, this.handler);
+		ClientResponse response = responseBody.decorate(response("foo"));
+
+		response.bodyToMono(String.class).block();
+		responseBody.end(null);
+
+		BDDMockito.then(this.handler).should().handleReceive(any(), BDDMockito.eq(this.span));
+	}
+
+	private ClientResponse response(String... chunks) {
+		return ClientResponse.create(HttpStatus.OK)
+				.body(Flux.fromArray(chunks).map(chunk -> new DefaultDataBufferFactory()
+						.wrap(chunk.getBytes(StandardCharsets.UTF_8))))
+				.build();
+	}
+
+}
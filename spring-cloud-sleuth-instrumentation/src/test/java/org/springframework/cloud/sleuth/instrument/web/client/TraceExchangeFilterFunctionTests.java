@@ -0,0 +1,115 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web.client;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.sleuth.CurrentTraceContext;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.http.HttpClientHandler;
+import org.springframework.cloud.sleuth.http.HttpClientRequest;
+import org.springframework.cloud.sleuth.instrument.web.client.TraceExchangeFilterFunction.TraceResponseBody;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+
+public class TraceExchangeFilterFunctionTests {
+
+	ConfigurableApplicationContext springContext = BDDMockito.mock(ConfigurableApplicationContext.class);
+
+	HttpClientHandler handler = BDDMockito.mock(HttpClientHandler.class);
+
+	Span span = BDDMockito.mock(Span.class);
+
+	ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://localhost/foo")).build();
+
+	ExchangeFilterFunction filter = TraceExchangeFilterFunction.create(this.springContext, true);
+
+	@BeforeEach
+	public void setup() {
+		BDDMockito.given(this.springContext.getBean(HttpClientHandler.class)).willReturn(this.handler);
+		BDDMockito.given(this.springContext.getBean(CurrentTraceContext.class))
+				.willReturn(BDDMockito.mock(CurrentTraceContext.class));
+		BDDMockito.given(this.handler.handleSend(any(HttpClientRequest.class), isNull())).willReturn(this.span);
+	}
+
+	@Test
+	public void should_hand_the_span_over_to_the_response_body() {
+		ClientResponse response = this.filter.filter(this.request, request -> Mono.just(response("foo", "bar")))
+				.block();
+
+		BDDMockito.then(this.handler).should(BDDMockito.never()).handleReceive(any(), any());
+		BDDMockito.then(this.span).should(BDDMockito.never()).end();
+
+		String body = response.bodyToMono(String.class).block();
+
+		BDDAssertions.then(body).isEqualTo("foobar");
+		BDDMockito.then(this.span).should().event(TraceResponseBody.HEADERS_RECEIVED_EVENT);
+		BDDMockito.then(this.span).should().tag(TraceResponseBody.BODY_SIZE_TAG, "6");
+		BDDMockito.then(this.handler).should().handleReceive(any(), BDDMockito.eq(this.span));
+	}
+
+	@Test
+	public void should_end_span_with_error_when_exchange_failed() {
+		IllegalStateException error = new IllegalStateException("boom");
+
+		BDDAssertions.thenThrownBy(() -> this.filter.filter(this.request, request -> Mono.error(error)).block())
+				.isSameAs(error);
+
+		BDDMockito.then(this.span).should().error(error);
+		BDDMockito.then(this.span).should().end();
+		BDDMockito.then(this.span).should(BDDMockito.never()).event(TraceResponseBody.HEADERS_RECEIVED_EVENT);
+		BDDMockito.then(this.handler).should(BDDMockito.never()).handleReceive(any(), any());
+	}
+
+	@Test
+	public void should_end_span_with_error_when_body_failed() {
+		IllegalStateException error = new IllegalStateException("boom");
+		ClientResponse response = this.filter
+				.filter(this.request, request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+						.body(Flux.error(error)).build()))
+				.block();
+
+		BDDAssertions.thenThrownBy(() -> response.bodyToMono(String.class).block()).hasMessage("boom");
+
+		BDDMockito.then(this.span).should().error(error);
+		BDDMockito.then(this.handler).should().handleReceive(any(), BDDMockito.eq(this.span));
+	}
+
+	private ClientResponse response(String... chunks) {
+		return ClientResponse.create(HttpStatus.OK)
+				.body(Flux.fromArray(chunks).map(chunk -> new DefaultDataBufferFactory()
+						.wrap(chunk.getBytes(StandardCharsets.UTF_8))))
+				.build();
+	}
+
+}
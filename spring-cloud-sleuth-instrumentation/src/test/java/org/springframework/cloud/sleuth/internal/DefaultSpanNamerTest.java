@@ -0,0 +1,97 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.internal;
+
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.sleuth.SpanName;
+
+class DefaultSpanNamerTest {
+
+	DefaultSpanNamer spanNamer = new DefaultSpanNamer();
+
+	@Test
+	void should_use_default_name_for_lambdas() {
+		Runnable runnable = () -> {
+		};
+
+		BDDAssertions.then(this.spanNamer.name(runnable, "async")).isEqualTo("async");
+	}
+
+	@Test
+	void should_use_annotation_value() {
+		BDDAssertions.then(this.spanNamer.name(new Annotated(), "async")).isEqualTo("annotated");
+		BDDAssertions.then(this.spanNamer.name(new Annotated(), "other")).isEqualTo("annotated");
+	}
+
+	@Test
+	void should_use_overridden_to_string() {
+		BDDAssertions.then(this.spanNamer.name(new WithToString("first"), "async")).isEqualTo("first");
+		BDDAssertions.then(this.spanNamer.name(new WithToString("second"), "async")).isEqualTo("second");
+	}
+
+	@Test
+	void should_use_default_name_when_overridden_to_string_returns_default_one() {
+		BDDAssertions.then(this.spanNamer.name(new WithDefaultToString(), "async")).isEqualTo("async");
+	}
+
+	@SpanName("annotated")
+	static class Annotated implements Runnable {
+
+		@Override
+		public void run() {
+
+		}
+
+	}
+
+	static class WithToString implements Runnable {
+
+		private final String name;
+
+		WithToString(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public void run() {
+
+		}
+
+		@Override
+		public String toString() {
+			return this.name;
+		}
+
+	}
+
+	static class WithDefaultToString implements Runnable {
+
+		@Override
+		public void run() {
+
+		}
+
+		@Override
+		public String toString() {
+			return super.toString();
+		}
+
+	}
+
+}
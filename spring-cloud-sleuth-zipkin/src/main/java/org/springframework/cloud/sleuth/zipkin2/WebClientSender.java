@@ -0,0 +1,267 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.zipkin2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Mono;
+import zipkin2.Call;
+import zipkin2.Callback;
+import zipkin2.CheckResult;
+import zipkin2.Span;
+import zipkin2.codec.BytesEncoder;
+import zipkin2.codec.Encoding;
+import zipkin2.reporter.BytesMessageEncoder;
+import zipkin2.reporter.ReporterMetrics;
+import zipkin2.reporter.Sender;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import static zipkin2.codec.SpanBytesEncoder.JSON_V2;
+
+/**
+ * {@link Sender} that uses a non-blocking {@link WebClient} to send spans to Zipkin. At
+ * most {@code maxInFlightRequests} messages are sent at the same time. When all permits
+ * are taken for longer than the request timeout, the message is rejected. A synchronous
+ * {@link Call#execute()} only waits for a free slot, not for the collector to respond.
+ * Messages that fail afterwards are logged and accounted as dropped in the
+ * {@link ReporterMetrics}.
+ *
+ * @author Marcin Grzejszczak
+ * @since 3.0.4
+ */
+public class WebClientSender extends Sender {
+
+	private static final Log log = LogFactory.getLog(WebClientSender.class);
+
+	final WebClient webClient;
+
+	final String url;
+
+	final Encoding encoding;
+
+	final MediaType mediaType;
+
+	final BytesMessageEncoder messageEncoder;
+
+	final boolean compressionEnabled;
+
+	final Duration timeout;
+
+	final Duration acquireTimeout;
+
+	final Semaphore inFlight;
+
+	final ReporterMetrics metrics;
+
+	/**
+	 * close is typically called from a different thread.
+	 */
+	volatile boolean closeCalled;
+
+	public WebClientSender(WebClient webClient, String baseUrl, String apiPath, BytesEncoder<Span> encoder,
+			boolean compressionEnabled, int maxInFlightRequests, Duration timeout) {
+		this(webClient, baseUrl, apiPath, encoder, compressionEnabled, maxInFlightRequests, timeout,
+				ReporterMetrics.NOOP_METRICS);
+	}
+
+	public WebClientSender(WebClient webClient, String baseUrl, String apiPath, BytesEncoder<Span> encoder,
+			boolean compressionEnabled, int maxInFlightRequests, Duration timeout, ReporterMetrics metrics) {
+		this(webClient, baseUrl, apiPath, encoder, compressionEnabled, maxInFlightRequests, timeout, timeout,
+				metrics);
+	}
+
+	WebClientSender(WebClient webClient, String baseUrl, String apiPath, BytesEncoder<Span> encoder,
+			boolean compressionEnabled, int maxInFlightRequests, Duration timeout, Duration acquireTimeout,
+			ReporterMetrics metrics) {
+		if (maxInFlightRequests < 1) {
+			throw new IllegalArgumentException("maxInFlightRequests must be positive");
+		}
+		this.webClient = webClient;
+		this.encoding = encoder.encoding();
+		if (encoder.equals(JSON_V2)) {
+			this.mediaType = MediaType.APPLICATION_JSON;
+			this.url = buildUrl(baseUrl, apiPath, "api/v2/spans");
+		}
+		else if (this.encoding == Encoding.PROTO3) {
+			this.mediaType = MediaType.parseMediaType("application/x-protobuf");
+			this.url = buildUrl(baseUrl, apiPath, "api/v2/spans");
+		}
+		else if (this.encoding == Encoding.JSON) {
+			this.mediaType = MediaType.APPLICATION_JSON;
+			this.url = buildUrl(baseUrl, apiPath, "api/v1/spans");
+		}
+		else {
+			throw new UnsupportedOperationException("Unsupported encoding: " + this.encoding.name());
+		}
+		this.messageEncoder = BytesMessageEncoder.forEncoding(this.encoding);
+		this.compressionEnabled = compressionEnabled;
+		this.timeout = timeout;
+		this.acquireTimeout = acquireTimeout;
+		this.inFlight = new Semaphore(maxInFlightRequests);
+		this.metrics = metrics;
+	}
+
+	private static String buildUrl(String baseUrl, String customApiPath, String defaultPath) {
+		String path = Objects.nonNull(customApiPath) ? customApiPath : defaultPath;
+		return baseUrl + (baseUrl.endsWith("/") || path.startsWith("/") || path.isEmpty() ? "" : "/") + path;
+	}
+
+	@Override
+	public Encoding encoding() {
+		return this.encoding;
+	}
+
+	@Override
+	public int messageMaxBytes() {
+		// This will drop a span larger than 5MiB. Note: values like 512KiB benchmark
+		// better.
+		return 5 * 1024 * 1024;
+	}
+
+	@Override
+	public int messageSizeInBytes(List<byte[]> spans) {
+		return encoding().listSizeInBytes(spans);
+	}
+
+	@Override
+	public Call<Void> sendSpans(List<byte[]> encodedSpans) {
+		if (this.closeCalled) {
+			throw new IllegalStateException("close");
+		}
+		return new HttpPostCall(this.messageEncoder.encode(encodedSpans), encodedSpans.size());
+	}
+
+	/**
+	 * Sends an empty json message to the configured endpoint and waits for the response.
+	 */
+	@Override
+	public CheckResult check() {
+		try {
+			post(new byte[] { '[', ']' }).block(this.timeout);
+			return CheckResult.OK;
+		}
+		catch (Exception e) {
+			return CheckResult.failed(e);
+		}
+	}
+
+	@Override
+	public void close() {
+		this.closeCalled = true;
+	}
+
+	Mono<Void> post(byte[] message) {
+		byte[] body = this.compressionEnabled ? gzip(message) : message;
+		return this.webClient.post().uri(this.url).contentType(this.mediaType).headers(headers -> {
+			if (this.compressionEnabled) {
+				headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+			}
+		}).bodyValue(body).retrieve().toBodilessEntity().timeout(this.timeout).then();
+	}
+
+	private static byte[] gzip(byte[] message) {
+		ByteArrayOutputStream gzipped = new ByteArrayOutputStream(message.length);
+		try (GZIPOutputStream compressor = new GZIPOutputStream(gzipped)) {
+			compressor.write(message);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return gzipped.toByteArray();
+	}
+
+	@Override
+	public String toString() {
+		return "WebClientSender{" + this.url + "}";
+	}
+
+	class HttpPostCall extends Call.Base<Void> {
+
+		private final byte[] message;
+
+		private final int spanCount;
+
+		HttpPostCall(byte[] message, int spanCount) {
+			this.message = message;
+			this.spanCount = spanCount;
+		}
+
+		/**
+		 * Waits for a free in-flight slot, bounded by the acquire timeout, and sends the
+		 * message without waiting for the response. A rejection is propagated, so that
+		 * the reporter accounts the message as dropped. Failures of the request itself
+		 * are accounted when they happen.
+		 */
+		@Override
+		protected Void doExecute() throws IOException {
+			try {
+				if (!inFlight.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+					throw new RejectedExecutionException("No free in-flight slot to send spans to Zipkin within "
+							+ acquireTimeout.toMillis() + "ms");
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+			// the permit is released when the request completes
+			send().subscribe(null, this::dropped);
+			return null;
+		}
+
+		private void dropped(Throwable error) {
+			if (log.isDebugEnabled()) {
+				log.debug("Failed to send " + this.spanCount + " spans to Zipkin [" + url + "]", error);
+			}
+			metrics.incrementMessagesDropped(error);
+			metrics.incrementSpansDropped(this.spanCount);
+		}
+
+		@Override
+		protected void doEnqueue(Callback<Void> callback) {
+			if (!inFlight.tryAcquire()) {
+				callback.onError(new RejectedExecutionException("Too many in-flight requests to Zipkin"));
+				return;
+			}
+			send().subscribe(null, callback::onError, () -> callback.onSuccess(null));
+		}
+
+		private Mono<Void> send() {
+			return Mono.defer(() -> post(this.message)).doFinally(signal -> inFlight.release());
+		}
+
+		@Override
+		public Call<Void> clone() {
+			return new HttpPostCall(this.message, this.spanCount);
+		}
+
+	}
+
+}
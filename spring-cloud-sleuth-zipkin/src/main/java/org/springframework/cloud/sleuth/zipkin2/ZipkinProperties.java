@@ -16,6 +16,8 @@
 
 package org.springframework.cloud.sleuth.zipkin2;
 
+import java.time.Duration;
+
 import zipkin2.codec.SpanBytesEncoder;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -60,6 +62,37 @@ public class ZipkinProperties {
 	 */
 	private int messageTimeout = 1;
 
+	/**
+	 * Maximum backlog of spans reported before sent to Zipkin. When exceeded, new spans
+	 * are dropped.
+	 */
+	private int queuedMaxSpans = 1000;
+
+	/**
+	 * Maximum backlog of span bytes reported before sent to Zipkin. When exceeded, new
+	 * spans are dropped. Defaults to 1% of the heap.
+	 */
+	private Integer queuedMaxBytes;
+
+	/**
+	 * Percentage of the maximum heap size (e.g. 2.5) that the backlog of spans may
+	 * occupy. When set, the byte bound is computed from the heap and the span bound is
+	 * raised so that it does not limit the queue before the byte bound does. Takes
+	 * precedence over {@code queuedMaxBytes}. Must be greater than 0 and at most 100.
+	 */
+	private Float queuedMaxHeapPercentage;
+
+	/**
+	 * Maximum bytes sendable per message including overhead. Defaults to, and is limited
+	 * by the sender's maximum.
+	 */
+	private Integer messageMaxBytes;
+
+	/**
+	 * How long to block for in-flight spans to send out-of-process on close.
+	 */
+	private Duration closeTimeout = Duration.ofSeconds(1);
+
 	/**
 	 * Encoding type of spans sent to Zipkin. Set to {@link SpanBytesEncoder#JSON_V1} if
 	 * your server is not recent.
@@ -75,6 +108,8 @@ public class ZipkinProperties {
 
 	private Locator locator = new Locator();
 
+	private Check check = new Check();
+
 	public Locator getLocator() {
 		return this.locator;
 	}
@@ -123,6 +158,50 @@ public class ZipkinProperties {
 		this.messageTimeout = messageTimeout;
 	}
 
+	public int getQueuedMaxSpans() {
+		return this.queuedMaxSpans;
+	}
+
+	public void setQueuedMaxSpans(int queuedMaxSpans) {
+		this.queuedMaxSpans = queuedMaxSpans;
+	}
+
+	public Integer getQueuedMaxBytes() {
+		return this.queuedMaxBytes;
+	}
+
+	public void setQueuedMaxBytes(Integer queuedMaxBytes) {
+		this.queuedMaxBytes = queuedMaxBytes;
+	}
+
+	public Float getQueuedMaxHeapPercentage() {
+		return this.queuedMaxHeapPercentage;
+	}
+
+	public void setQueuedMaxHeapPercentage(Float queuedMaxHeapPercentage) {
+		if (queuedMaxHeapPercentage != null && !(queuedMaxHeapPercentage > 0 && queuedMaxHeapPercentage <= 100)) {
+			throw new IllegalArgumentException(
+					"queuedMaxHeapPercentage must be greater than 0 and at most 100, was " + queuedMaxHeapPercentage);
+		}
+		this.queuedMaxHeapPercentage = queuedMaxHeapPercentage;
+	}
+
+	public Integer getMessageMaxBytes() {
+		return this.messageMaxBytes;
+	}
+
+	public void setMessageMaxBytes(Integer messageMaxBytes) {
+		this.messageMaxBytes = messageMaxBytes;
+	}
+
+	public Duration getCloseTimeout() {
+		return this.closeTimeout;
+	}
+
+	public void setCloseTimeout(Duration closeTimeout) {
+		this.closeTimeout = closeTimeout;
+	}
+
 	public Compression getCompression() {
 		return this.compression;
 	}
@@ -139,6 +218,14 @@ public class ZipkinProperties {
 		this.service = service;
 	}
 
+	public Check getCheck() {
+		return this.check;
+	}
+
+	public void setCheck(Check check) {
+		this.check = check;
+	}
+
 	public SpanBytesEncoder getEncoder() {
 		return this.encoder;
 	}
@@ -162,6 +249,55 @@ public class ZipkinProperties {
 
 	}
 
+	/**
+	 * Background check of the connectivity with Zipkin.
+	 */
+	public static class Check {
+
+		/**
+		 * When enabled, spans are buffered in the reporter's queue until the first
+		 * successful check. Otherwise, they are sent regardless of the check result.
+		 * While Zipkin is unreachable, spans that don't fit in the queue are dropped.
+		 */
+		private boolean bufferUntilReady;
+
+		/**
+		 * Timeout of a single check.
+		 */
+		private Duration timeout = Duration.ofSeconds(1);
+
+		/**
+		 * Time between two checks of the sender. Checks continue after the first
+		 * successful one.
+		 */
+		private Duration interval = Duration.ofSeconds(5);
+
+		public boolean isBufferUntilReady() {
+			return this.bufferUntilReady;
+		}
+
+		public void setBufferUntilReady(boolean bufferUntilReady) {
+			this.bufferUntilReady = bufferUntilReady;
+		}
+
+		public Duration getTimeout() {
+			return this.timeout;
+		}
+
+		public void setTimeout(Duration timeout) {
+			this.timeout = timeout;
+		}
+
+		public Duration getInterval() {
+			return this.interval;
+		}
+
+		public void setInterval(Duration interval) {
+			this.interval = interval;
+		}
+
+	}
+
 	/**
 	 * When set will override the default {@code spring.application.name} value of the
 	 * service id.
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.zipkin2;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import zipkin2.Call;
+import zipkin2.Callback;
+import zipkin2.CheckResult;
+import zipkin2.Span;
+import zipkin2.codec.Encoding;
+import zipkin2.codec.SpanBytesEncoder;
+import zipkin2.reporter.InMemoryReporterMetrics;
+
+import org.springframework.web.reactive.function.client.WebClient;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+import static org.springframework.cloud.sleuth.zipkin2.RestTemplateSenderTest.SPAN;
+import static zipkin2.codec.SpanBytesEncoder.JSON_V2;
+import static zipkin2.codec.SpanBytesEncoder.PROTO3;
+
+public class WebClientSenderTest {
+
+	public MockWebServer server = new MockWebServer();
+
+	String endpoint = this.server.url("/api/v2/spans").toString();
+
+	InMemoryReporterMetrics metrics = new InMemoryReporterMetrics();
+
+	WebClientSender sender = sender(JSON_V2, false, 2);
+
+	@AfterEach
+	void clean() throws IOException {
+		server.close();
+	}
+
+	@Test
+	public void jsonIsNormal() throws Exception {
+		this.server.enqueue(new MockResponse());
+
+		send(SPAN).execute();
+
+		assertThat(this.server.takeRequest(1, TimeUnit.SECONDS).getBody().readUtf8())
+				.isEqualTo("[" + new String(JSON_V2.encode(SPAN), "UTF-8") + "]");
+	}
+
+	@Test
+	public void proto3() throws Exception {
+		this.server.enqueue(new MockResponse());
+		this.sender = sender(PROTO3, false, 2);
+
+		send(SPAN).execute();
+
+		RecordedRequest request = this.server.takeRequest(1, TimeUnit.SECONDS);
+		assertThat(request.getHeader("Content-Type")).isEqualTo("application/x-protobuf");
+		assertThat(request.getBody().readByteArray()).containsExactly(SpanBytesEncoder.PROTO3.encode(SPAN));
+	}
+
+	@Test
+	public void gzipsWhenCompressionEnabled() throws Exception {
+		this.server.enqueue(new MockResponse());
+		this.sender = sender(JSON_V2, true, 2);
+
+		send(SPAN).execute();
+
+		assertThat(this.server.takeRequest(1, TimeUnit.SECONDS).getHeader("Content-Encoding")).isEqualTo("gzip");
+	}
+
+	@Test
+	public void executeDoesNotWaitForTheResponse() throws Exception {
+		this.server.enqueue(new MockResponse().setHeadersDelay(1, TimeUnit.SECONDS));
+		this.server.enqueue(new MockResponse().setHeadersDelay(1, TimeUnit.SECONDS));
+		this.sender = new WebClientSender(WebClient.create(), this.endpoint, null, JSON_V2, false, 4,
+				Duration.ofSeconds(5), this.metrics);
+
+		send(SPAN).execute();
+		send(SPAN).execute();
+
+		// both batches reach the collector before either of them is answered
+		assertThat(this.server.takeRequest(500, TimeUnit.MILLISECONDS)).isNotNull();
+		assertThat(this.server.takeRequest(500, TimeUnit.MILLISECONDS)).isNotNull();
+		assertThat(this.sender.inFlight.availablePermits()).isEqualTo(2);
+		Awaitility.await().untilAsserted(() -> assertThat(this.sender.inFlight.availablePermits()).isEqualTo(4));
+		assertThat(this.metrics.messagesDropped()).isZero();
+	}
+
+	@Test
+	public void accountsErrorResponsesAsDropped() {
+		this.server.enqueue(new MockResponse().setResponseCode(500));
+
+		send(SPAN, SPAN).execute();
+
+		Awaitility.await().untilAsserted(() -> {
+			assertThat(this.metrics.messagesDropped()).isEqualTo(1);
+			assertThat(this.metrics.spansDropped()).isEqualTo(2);
+			assertThat(this.sender.inFlight.availablePermits()).isEqualTo(2);
+		});
+	}
+
+	@Test
+	public void accountsMessagesAsDroppedWhenTheCollectorDoesNotRespondInTime() {
+		this.server.enqueue(new MockResponse().setHeadersDelay(2, TimeUnit.SECONDS));
+
+		send(SPAN).execute();
+
+		Awaitility.await().untilAsserted(
+				() -> assertThat(this.metrics.messagesDroppedByCause()).containsOnlyKeys(TimeoutException.class));
+		assertThat(this.metrics.spansDropped()).isEqualTo(1);
+	}
+
+	@Test
+	public void rejectsWhenNoInFlightSlotIsAvailable() {
+		this.server.enqueue(new MockResponse().setHeadersDelay(2, TimeUnit.SECONDS));
+		this.sender = new WebClientSender(WebClient.create(), this.endpoint, null, JSON_V2, false, 1,
+				Duration.ofSeconds(5), Duration.ofMillis(100), this.metrics);
+		// the only slot is held until the delayed response arrives
+		send(SPAN).enqueue(new Callback<Void>() {
+			@Override
+			public void onSuccess(Void value) {
+			}
+
+			@Override
+			public void onError(Throwable t) {
+			}
+		});
+
+		thenThrownBy(() -> send(SPAN).execute()).isInstanceOf(RejectedExecutionException.class);
+	}
+
+	@Test
+	public void checkFailsWhenCollectorIsDown() throws IOException {
+		this.server.shutdown();
+
+		CheckResult result = this.sender.check();
+
+		assertThat(result.ok()).isFalse();
+	}
+
+	@Test
+	public void toStringContainsOnlySenderTypeAndEndpoint() {
+		assertThat(sender.toString()).isEqualTo("WebClientSender{" + this.endpoint + "/api/v2/spans}");
+	}
+
+	WebClientSender sender(SpanBytesEncoder encoder, boolean compression, int maxInFlightRequests) {
+		return new WebClientSender(WebClient.create(), this.endpoint, null, encoder, compression,
+				maxInFlightRequests, Duration.ofMillis(500), this.metrics);
+	}
+
+	Call<Void> send(Span... spans) {
+		SpanBytesEncoder bytesEncoder = this.sender.encoding() == Encoding.JSON ? SpanBytesEncoder.JSON_V2
+				: SpanBytesEncoder.PROTO3;
+		return this.sender.sendSpans(Stream.of(spans).map(bytesEncoder::encode).collect(toList()));
+	}
+
+}
@@ -17,7 +17,9 @@
 package org.springframework.cloud.sleuth.autoconfig.zipkin2;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -44,6 +46,7 @@ import zipkin2.reporter.kafka.KafkaSender;
 import zipkin2.reporter.metrics.micrometer.MicrometerReporterMetrics;
 
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
 import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
 import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
@@ -53,6 +56,7 @@ import org.springframework.boot.test.context.FilteredClassLoader;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.zipkin2.ZipkinProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -206,6 +210,7 @@ public abstract class ZipkinAutoConfigurationTests {
 					then(context.getBeansOfType(Reporter.class)).hasSize(1);
 					then(context.getBeansOfType(Reporter.class))
 							.containsKeys(ZipkinAutoConfiguration.REPORTER_BEAN_NAME);
+					then(context.getBean(ZipkinSenderCheck.class).isStarted()).isFalse();
 
 					context.getBean(Tracer.class).nextSpan().name("foo").tag("foo", "bar").start().end();
 
@@ -219,6 +224,109 @@ public abstract class ZipkinAutoConfigurationTests {
 				});
 	}
 
+	@Test
+	public void queueBoundsDefaultToProperties() {
+		ZipkinProperties zipkin = new ZipkinProperties();
+		zipkin.setQueuedMaxSpans(20_000);
+		zipkin.setQueuedMaxBytes(1024);
+
+		Integer queuedMaxBytes = ZipkinAutoConfiguration.queuedMaxBytes(zipkin, 1_000_000L);
+
+		then(queuedMaxBytes).isEqualTo(1024);
+		then(ZipkinAutoConfiguration.queuedMaxSpans(zipkin, queuedMaxBytes)).isEqualTo(20_000);
+	}
+
+	@Test
+	public void queueBoundsAreSizedFromHeapPercentage() {
+		ZipkinProperties zipkin = new ZipkinProperties();
+		zipkin.setQueuedMaxBytes(1024);
+		zipkin.setQueuedMaxHeapPercentage(2.5f);
+
+		Integer queuedMaxBytes = ZipkinAutoConfiguration.queuedMaxBytes(zipkin, 1_000_000_000L);
+
+		then(queuedMaxBytes).isEqualTo(25_000_000);
+		then(ZipkinAutoConfiguration.queuedMaxSpans(zipkin, queuedMaxBytes))
+				.isEqualTo(25_000_000 / ZipkinAutoConfiguration.ESTIMATED_SPAN_SIZE_IN_BYTES);
+	}
+
+	@Test
+	public void heapPercentageOutOfRangeIsRejected() {
+		ZipkinProperties zipkin = new ZipkinProperties();
+
+		BDDAssertions.thenThrownBy(() -> zipkin.setQueuedMaxHeapPercentage(0f))
+				.isInstanceOf(IllegalArgumentException.class);
+		BDDAssertions.thenThrownBy(() -> zipkin.setQueuedMaxHeapPercentage(-1f))
+				.isInstanceOf(IllegalArgumentException.class);
+		BDDAssertions.thenThrownBy(() -> zipkin.setQueuedMaxHeapPercentage(100.5f))
+				.isInstanceOf(IllegalArgumentException.class);
+		BDDAssertions.thenThrownBy(() -> zipkin.setQueuedMaxHeapPercentage(Float.NaN))
+				.isInstanceOf(IllegalArgumentException.class);
+
+		zipkin.setQueuedMaxHeapPercentage(100f);
+		then(zipkin.getQueuedMaxHeapPercentage()).isEqualTo(100f);
+	}
+
+	@Test
+	public void senderCheck_retriesUntilFirstSuccessfulCheck() {
+		Sender sender = mock(Sender.class);
+		when(sender.check()).thenReturn(CheckResult.failed(new RuntimeException("dead")), CheckResult.OK);
+
+		ZipkinSenderCheck check = new ZipkinSenderCheck(sender, Duration.ofMillis(200), Duration.ofMillis(10)).start();
+
+		Awaitility.await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> then(check.isReady()).isTrue());
+		then(check.lastResult().ok()).isTrue();
+		then(new ZipkinSenderHealthIndicator(check).health().getStatus()).isEqualTo(Status.UP);
+	}
+
+	@Test
+	public void senderCheck_keepsCheckingAfterFirstSuccessfulCheck() {
+		Sender sender = mock(Sender.class);
+		when(sender.check()).thenReturn(CheckResult.OK, CheckResult.failed(new RuntimeException("dead")));
+
+		ZipkinSenderCheck check = new ZipkinSenderCheck(sender, Duration.ofMillis(200), Duration.ofMillis(10)).start();
+
+		Awaitility.await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> {
+			then(check.isReady()).isTrue();
+			then(check.lastResult().ok()).isFalse();
+		});
+		then(new ZipkinSenderHealthIndicator(check).health().getStatus()).isEqualTo(Status.DOWN);
+		check.close();
+	}
+
+	@Test
+	public void senderCheck_reportsCheckInProgressAsTimedOut() {
+		CountDownLatch release = new CountDownLatch(1);
+		Sender sender = mock(Sender.class);
+		when(sender.check()).thenAnswer(invocation -> {
+			release.await();
+			return CheckResult.OK;
+		});
+		ZipkinSenderCheck check = new ZipkinSenderCheck(sender, Duration.ofMillis(50), Duration.ofSeconds(10)).start();
+
+		try {
+			Awaitility.await().atMost(5, TimeUnit.SECONDS)
+					.untilAsserted(() -> then(check.lastResult()).isNotNull());
+			then(check.lastResult().error()).isInstanceOf(TimeoutException.class);
+		}
+		finally {
+			release.countDown();
+			check.close();
+		}
+	}
+
+	@Test
+	public void senderCheck_closeReleasesWaitingReporter() {
+		Sender sender = mock(Sender.class);
+		when(sender.check()).thenReturn(CheckResult.failed(new RuntimeException("dead")));
+		ZipkinSenderCheck check = new ZipkinSenderCheck(sender, Duration.ofMillis(200), Duration.ofSeconds(10)).start();
+		Awaitility.await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> then(check.lastResult()).isNotNull());
+		then(new ZipkinSenderHealthIndicator(check).health().getStatus()).isEqualTo(Status.DOWN);
+
+		check.close();
+
+		check.awaitReady();
+	}
+
 	@Test
 	public void checkResult_onTime() {
 		Sender sender = mock(Sender.class);
@@ -98,6 +98,24 @@ public abstract class TraceableExecutorServiceTests implements TestTracingAwareS
 				.hasSize(TOTAL_THREADS);
 	}
 
+	@Test
+	public void should_propagate_the_context_without_creating_spans_in_context_mode() throws Exception {
+		ExecutorService contextOnlyExecutorService = new TraceableExecutorService(beanFactory(true),
+				this.executorService, "foo", ExecutorTracingMode.CONTEXT);
+		ScopedSpan span = this.tracer.startScopedSpan("http:PARENT");
+		try {
+			CompletableFuture.allOf(runnablesExecutedVia(contextOnlyExecutorService)).get();
+		}
+		finally {
+			span.end();
+		}
+
+		BDDAssertions.then(this.spanVerifyingRunnable.spanIds.stream().distinct().collect(toList()))
+				.containsExactly(span.context().spanId());
+		BDDAssertions.then(tracerTest().handler().reportedSpans()).hasSize(1);
+		BDDAssertions.then(tracerTest().handler().reportedSpans().get(0).getName()).isEqualTo("http:PARENT");
+	}
+
 	@Test
 	@SuppressWarnings("unchecked")
 	public void should_wrap_methods_in_trace_representation_only_for_non_tracing_callables() throws Exception {
@@ -199,9 +217,13 @@ public abstract class TraceableExecutorServiceTests implements TestTracingAwareS
 	}
 
 	private CompletableFuture<?>[] runnablesExecutedViaTraceManagerableExecutorService() {
+		return runnablesExecutedVia(this.traceManagerableExecutorService);
+	}
+
+	private CompletableFuture<?>[] runnablesExecutedVia(ExecutorService executorService) {
 		List<CompletableFuture<?>> futures = new ArrayList<>();
 		for (int i = 0; i < TOTAL_THREADS; i++) {
-			futures.add(CompletableFuture.runAsync(this.spanVerifyingRunnable, this.traceManagerableExecutorService));
+			futures.add(CompletableFuture.runAsync(this.spanVerifyingRunnable, executorService));
 		}
 		return futures.toArray(new CompletableFuture[futures.size()]);
 	}
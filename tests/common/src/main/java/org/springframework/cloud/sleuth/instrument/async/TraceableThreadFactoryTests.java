@@ -0,0 +1,142 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.async;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.cloud.sleuth.CurrentTraceContext;
+import org.springframework.cloud.sleuth.ScopedSpan;
+import org.springframework.cloud.sleuth.SpanNamer;
+import org.springframework.cloud.sleuth.TraceContext;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.internal.DefaultSpanNamer;
+import org.springframework.cloud.sleuth.internal.SleuthContextListenerAccessor;
+import org.springframework.cloud.sleuth.test.TestTracingAwareSupplier;
+
+@ExtendWith(MockitoExtension.class)
+public abstract class TraceableThreadFactoryTests implements TestTracingAwareSupplier {
+
+	@Mock(lenient = true)
+	BeanFactory beanFactory;
+
+	ThreadFactory delegate = Executors.defaultThreadFactory();
+
+	Tracer tracer = tracerTest().tracing().tracer();
+
+	CurrentTraceContext currentTraceContext = tracerTest().tracing().currentTraceContext();
+
+	@Test
+	public void should_pass_the_context_of_the_creating_thread_without_a_span_by_default() throws Exception {
+		ThreadFactory threadFactory = new TraceableThreadFactory(beanFactory(true), this.delegate);
+		AtomicReference<TraceContext> contextInThread = new AtomicReference<>();
+
+		ScopedSpan span = this.tracer.startScopedSpan("parent");
+		try {
+			runInNewThread(threadFactory, () -> contextInThread.set(this.currentTraceContext.context()));
+		}
+		finally {
+			span.end();
+		}
+
+		BDDAssertions.then(contextInThread.get().spanId()).isEqualTo(span.context().spanId());
+		BDDAssertions.then(tracerTest().handler().reportedSpans()).hasSize(1);
+	}
+
+	@Test
+	public void should_create_a_child_span_in_span_mode() throws Exception {
+		ThreadFactory threadFactory = new TraceableThreadFactory(beanFactory(true), this.delegate, "foo",
+				ExecutorTracingMode.SPAN);
+		AtomicReference<TraceContext> contextInThread = new AtomicReference<>();
+
+		ScopedSpan span = this.tracer.startScopedSpan("parent");
+		try {
+			runInNewThread(threadFactory, () -> contextInThread.set(this.currentTraceContext.context()));
+		}
+		finally {
+			span.end();
+		}
+
+		BDDAssertions.then(contextInThread.get().traceId()).isEqualTo(span.context().traceId());
+		BDDAssertions.then(contextInThread.get().spanId()).isNotEqualTo(span.context().spanId());
+		BDDAssertions.then(tracerTest().handler().reportedSpans()).hasSize(2);
+	}
+
+	@Test
+	public void should_not_wrap_the_task_when_context_is_not_ready() throws Exception {
+		ThreadFactory threadFactory = new TraceableThreadFactory(beanFactory(false), this.delegate);
+		AtomicReference<TraceContext> contextInThread = new AtomicReference<>();
+
+		ScopedSpan span = this.tracer.startScopedSpan("parent");
+		try {
+			runInNewThread(threadFactory, () -> contextInThread.set(this.currentTraceContext.context()));
+		}
+		finally {
+			span.end();
+		}
+
+		BDDAssertions.then(contextInThread.get()).isNull();
+	}
+
+	@Test
+	public void should_clear_the_context_after_the_task() throws Exception {
+		ThreadFactory threadFactory = new TraceableThreadFactory(beanFactory(true), this.delegate);
+		AtomicReference<TraceContext> contextAfterTask = new AtomicReference<>();
+
+		ScopedSpan span = this.tracer.startScopedSpan("parent");
+		Thread thread;
+		try {
+			thread = threadFactory.newThread(() -> {
+			});
+		}
+		finally {
+			span.end();
+		}
+		Runnable task = () -> {
+			thread.run();
+			contextAfterTask.set(this.currentTraceContext.context());
+		};
+		Thread runner = new Thread(task);
+		runner.start();
+		runner.join();
+
+		BDDAssertions.then(contextAfterTask.get()).isNull();
+	}
+
+	private void runInNewThread(ThreadFactory threadFactory, Runnable runnable) throws InterruptedException {
+		Thread thread = threadFactory.newThread(runnable);
+		thread.start();
+		thread.join();
+	}
+
+	BeanFactory beanFactory(boolean refreshed) {
+		BDDMockito.given(this.beanFactory.getBean(Tracer.class)).willReturn(this.tracer);
+		BDDMockito.given(this.beanFactory.getBean(SpanNamer.class)).willReturn(new DefaultSpanNamer());
+		SleuthContextListenerAccessor.set(this.beanFactory, refreshed);
+		return this.beanFactory;
+	}
+
+}
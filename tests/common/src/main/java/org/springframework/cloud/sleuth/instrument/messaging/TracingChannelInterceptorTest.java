@@ -45,6 +45,7 @@ import org.springframework.messaging.support.ErrorMessage;
 import org.springframework.messaging.support.ExecutorChannelInterceptor;
 import org.springframework.messaging.support.ExecutorSubscribableChannel;
 import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.StringUtils;
 
@@ -350,6 +351,75 @@ public abstract class TracingChannelInterceptorTest implements TestTracingAwareS
 		assertThat(this.spans).extracting(FinishedSpan::getRemoteServiceName).containsOnly("broker", null);
 	}
 
+	@Test
+	public void should_not_rewrite_message_without_trace_headers_before_handle() {
+		ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel();
+		channel.addInterceptor(executorSideOnly(this.interceptor));
+		List<Message<?>> messages = new ArrayList<>();
+		channel.subscribe(messages::add);
+		Message<String> message = MessageBuilder.withPayload("foo").setHeader("custom", "hello").build();
+
+		channel.send(message);
+
+		assertThat(messages.get(0)).isSameAs(message);
+		assertThat(this.spans).extracting(FinishedSpan::getKind).containsExactly(Span.Kind.CONSUMER, null);
+	}
+
+	@Test
+	public void should_keep_headers_and_set_new_id_and_timestamp_on_sent_message() {
+		this.channel.addInterceptor(producerSideOnly(this.interceptor));
+		Message<String> message = MessageBuilder.withPayload("foo").setHeader("custom", "hello").build();
+
+		this.channel.send(message);
+
+		Message<?> sent = this.channel.receive();
+		assertThat(sent.getHeaders()).containsEntry("custom", "hello").containsKey("b3");
+		assertThat(sent.getHeaders().getId()).isNotNull().isNotEqualTo(message.getHeaders().getId());
+		assertThat(sent.getHeaders().getTimestamp()).isNotNull();
+	}
+
+	@Test
+	public void should_leave_the_mutable_accessor_of_the_sent_message_mutable() {
+		this.channel.addInterceptor(producerSideOnly(this.interceptor));
+		MessageHeaderAccessor accessor = new MessageHeaderAccessor();
+		accessor.setHeader("custom", "hello");
+		accessor.setLeaveMutable(true);
+		Message<String> message = MessageBuilder.createMessage("foo", accessor.getMessageHeaders());
+
+		this.channel.send(message);
+
+		assertThat(accessor.isMutable()).isTrue();
+		accessor.setHeader("other", "header");
+		Message<?> sent = this.channel.receive();
+		assertThat(sent.getHeaders()).containsEntry("custom", "hello").containsKey("b3").doesNotContainKey("other");
+	}
+
+	@Test
+	public void should_map_each_header_key_to_remote_service_name_only_once() {
+		Map<String, Integer> mappedKeys = new HashMap<>();
+		Function<String, String> mapper = remoteServiceNameMapper(new SleuthMessagingProperties());
+		this.interceptor = new TracingChannelInterceptor(tracerTest().tracing().tracer(),
+				tracerTest().tracing().propagator(), new MessageHeaderPropagatorSetter(),
+				new MessageHeaderPropagatorGetter(), key -> {
+					mappedKeys.merge(key, 1, Integer::sum);
+					return mapper.apply(key);
+				}, new DefaultMessageSpanCustomizer());
+		ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel();
+		channel.addInterceptor(this.interceptor);
+		channel.subscribe(message -> {
+		});
+
+		Map<String, Object> headers = new HashMap<>();
+		headers.put("custom", "hello");
+		headers.put("kafka_messageKey", "hello");
+		channel.send(MessageBuilder.createMessage("foo", new MessageHeaders(headers)));
+		channel.send(MessageBuilder.createMessage("bar", new MessageHeaders(headers)));
+
+		assertThat(this.spans).extracting(FinishedSpan::getRemoteServiceName).contains("kafka");
+		assertThat(mappedKeys).containsEntry("kafka_messageKey", 1);
+		assertThat(mappedKeys.values()).containsOnly(1);
+	}
+
 	@Test
 	public void should_propagate_headers_case_insensitive() {
 		channel.addInterceptor(this.interceptor);